@@ -0,0 +1,57 @@
+package com.lioness.urlcompressor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lioness.urlcompressor.statistics.StatisticsResponse;
+import com.lioness.urlcompressor.statistics.StatsUrlDto;
+import com.lioness.urlcompressor.url.dto.UrlResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of the API responses, with the application's mapper settings
+ * (java.time support, indented output).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private UrlResponse urlResponse;
+    private StatisticsResponse statisticsResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().indentOutput(true).build();
+
+        LocalDateTime now = LocalDateTime.now();
+        urlResponse = UrlResponse.success("https://Lion3sS", "https://lioness.codes/some/long/path",
+                now, now.plusDays(7), "lioness", "Link found", HttpStatus.OK);
+
+        List<StatsUrlDto> urls = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            urls.add(new StatsUrlDto("https://code" + i, "https://lioness.codes/" + i, i, true, now, null, i));
+        }
+        statisticsResponse = StatisticsResponse.success(1225L, urls);
+    }
+
+    @Benchmark
+    public String serializeUrlResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(urlResponse);
+    }
+
+    @Benchmark
+    public String serializeStatisticsPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(statisticsResponse);
+    }
+}
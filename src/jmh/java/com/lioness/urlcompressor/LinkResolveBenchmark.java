@@ -0,0 +1,93 @@
+package com.lioness.urlcompressor;
+
+import com.lioness.urlcompressor.security.JwtTokenProvider;
+import com.lioness.urlcompressor.url.LinkCache;
+import com.lioness.urlcompressor.url.LinkRepository;
+import com.lioness.urlcompressor.url.LinkResolver;
+import com.lioness.urlcompressor.url.LinkService;
+import com.lioness.urlcompressor.url.ResolvedLink;
+import com.lioness.urlcompressor.url.ShortLinkGenerator;
+import com.lioness.urlcompressor.url.UrlEntity;
+import com.lioness.urlcompressor.url.dto.UrlRequest;
+import com.lioness.urlcompressor.url.dto.UrlResponse;
+import com.lioness.urlcompressor.user.Role;
+import com.lioness.urlcompressor.user.UserEntity;
+import com.lioness.urlcompressor.user.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.lioness.urlcompressor.url.ShortLinkGenerator.LINK_PREFIX;
+
+/**
+ * Measures link resolution through the full service stack against an in-memory H2 database
+ * (see application-bench.properties): the public redirect lookup (cached and uncached)
+ * and the authenticated expand call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkResolveBenchmark {
+
+    private static final String CODE = ShortLinkGenerator.encode(1_000L);
+
+    private ConfigurableApplicationContext context;
+    private LinkResolver linkResolver;
+    private LinkCache linkCache;
+    private LinkService linkService;
+    private UrlRequest expandRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(UrlCompressorApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run("--spring.profiles.active=bench");
+
+        UserEntity user = context.getBean(UserRepository.class).save(UserEntity.builder()
+                .login("lioness")
+                .role(Role.USER)
+                .passwordHash("not-used")
+                .build());
+        context.getBean(LinkRepository.class).save(UrlEntity.builder()
+                .shortenedUrl(LINK_PREFIX + CODE)
+                .originalUrl("https://lioness.codes/some/long/path")
+                .owner(user)
+                .build());
+
+        String token = context.getBean(JwtTokenProvider.class).generateToken(user.getId(), user.getLogin(), user.getRole());
+        expandRequest = new UrlRequest(LINK_PREFIX + CODE, null, null, "Bearer " + token);
+
+        linkResolver = context.getBean(LinkResolver.class);
+        linkCache = context.getBean(LinkCache.class);
+        linkService = context.getBean(LinkService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<ResolvedLink> resolveRedirect() {
+        return linkResolver.resolve(CODE);
+    }
+
+    @Benchmark
+    public Optional<ResolvedLink> resolveRedirect_cacheMiss() {
+        linkCache.invalidate(LINK_PREFIX + CODE);
+        return linkResolver.resolve(CODE);
+    }
+
+    @Benchmark
+    public UrlResponse expandAuthenticated() {
+        return linkService.getLongUrlFromShortUrl(expandRequest);
+    }
+}
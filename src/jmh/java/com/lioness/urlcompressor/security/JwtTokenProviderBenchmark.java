@@ -0,0 +1,53 @@
+package com.lioness.urlcompressor.security;
+
+import com.lioness.urlcompressor.user.Role;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JWT issuing and the per-request verification path of {@link JwtTokenProvider}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET =
+            "TGlvbmVzc19LZXlfUmFpc2FfMjAyNV84ODAwMzUwOThfNjM3NTc1NzI3XzI4MDQxOTk3Xw==";
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "base64Secret", SECRET);
+        token = tokenProvider.generateToken(42L, "lioness", Role.USER);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(42L, "lioness", Role.USER);
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> verify() {
+        return tokenProvider.verify(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return tokenProvider.extractUsernameFromToken(token);
+    }
+}
@@ -0,0 +1,50 @@
+package com.lioness.urlcompressor.url;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures short code generation (Feistel permutation + Base62) and URL validation
+ * on the create path, without the database-backed id allocator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortLinkGeneratorBenchmark {
+
+    private ShortLinkGenerator generator;
+    private LongUrlValidator validator;
+    private String code;
+
+    @Setup
+    public void setUp() {
+        generator = new ShortLinkGenerator(new AtomicLong()::incrementAndGet);
+        validator = new LongUrlValidator();
+        code = ShortLinkGenerator.encode(123_456_789L);
+    }
+
+    @Benchmark
+    public String createShortLink() {
+        return generator.createShortLink();
+    }
+
+    @Benchmark
+    public long decode() {
+        return ShortLinkGenerator.decode(code);
+    }
+
+    @Benchmark
+    public boolean isValidUrl() {
+        return validator.isValid("https://lioness.codes/some/long/path?with=query&and=params");
+    }
+
+    @Benchmark
+    public boolean isValidUrl_rejected() {
+        return validator.isValid("ftp://lioness.codes/archive");
+    }
+}
@@ -2,14 +2,24 @@ package com.lioness.urlcompressor;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main class for launching the Spring Boot application.
  * Initializes all necessary components and starts the application.
+ * R2DBC belongs to the edge redirect tier (see {@code edge.EdgeRedirectApp}) and is not started here.
  */
 @EnableScheduling
-@SpringBootApplication
+@SpringBootApplication(exclude = {
+        R2dbcAutoConfiguration.class,
+        R2dbcDataAutoConfiguration.class,
+        R2dbcRepositoriesAutoConfiguration.class,
+        R2dbcTransactionManagerAutoConfiguration.class
+})
 public class UrlCompressorApp {
 
     /**
@@ -18,7 +28,6 @@ public class UrlCompressorApp {
      * @param args command-line arguments
      */
     public static void main(String[] args) {
-        System.out.println("🚀 Starting UrlCompressorApp...");
         SpringApplication.run(UrlCompressorApp.class, args);
     }
 }
@@ -0,0 +1,12 @@
+package com.lioness.urlcompressor.analytics;
+
+import java.time.LocalDateTime;
+
+/**
+ * One point of a click timeline.
+ *
+ * @param start  start of the bucket
+ * @param clicks clicks within the bucket
+ */
+public record ClickBucket(LocalDateTime start, long clicks) {
+}
@@ -0,0 +1,31 @@
+package com.lioness.urlcompressor.analytics;
+
+/**
+ * ClickEvent is one followed short link, as recorded in the {@link ClickJournal}.
+ * Visitor attributes are kept only as salted hashes (see {@link VisitorHasher}).
+ *
+ * @param timestampMillis time of the click, in epoch milliseconds
+ * @param linkId          identifier of the clicked link
+ * @param code            the short code (e.g. abc123)
+ * @param referrer        Referer header, truncated to {@link #MAX_REFERRER_LENGTH} characters, or null
+ * @param userAgentHash   hash of the User-Agent header, 0 if absent
+ * @param clientIpHash    hash of the client IP address, 0 if absent
+ */
+public record ClickEvent(long timestampMillis,
+                         long linkId,
+                         String code,
+                         String referrer,
+                         long userAgentHash,
+                         long clientIpHash) {
+
+    /**
+     * Longest referrer kept in the journal.
+     */
+    public static final int MAX_REFERRER_LENGTH = 512;
+
+    public ClickEvent {
+        if (referrer != null && referrer.length() > MAX_REFERRER_LENGTH) {
+            referrer = referrer.substring(0, MAX_REFERRER_LENGTH);
+        }
+    }
+}
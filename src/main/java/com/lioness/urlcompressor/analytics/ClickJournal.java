@@ -0,0 +1,323 @@
+package com.lioness.urlcompressor.analytics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * ClickJournal is a local, append-only log of {@link ClickEvent}s made of fixed-size, memory-mapped
+ * {@link JournalSegment} files, so every click is kept without a database write per click.
+ *
+ * Appends only copy the record into the mapped segment. A committer writes the new records of the open segment
+ * to disk every commit interval, so one flush covers all clicks appended in between (group commit).
+ * The open segment is sealed when it is full or older than the maximum segment age, and
+ * {@link ClickJournalCompactor} then applies its clicks to the database and marks it compacted.
+ * Compacted segments keep the raw clicks on disk until the retention period has passed.
+ *
+ * On startup every segment that was not compacted is recovered: an open segment left behind by a crash
+ * is read up to its last complete record and sealed, so its clicks are compacted like any other.
+ * Clicks are lost only if the machine itself fails within one commit interval.
+ *
+ * Metrics: analytics.journal.appended, analytics.journal.dropped (clicks the journal could not take),
+ * analytics.journal.recovered (clicks recovered from unsealed segments) and analytics.journal.segments.pending.
+ */
+@Slf4j
+@Component
+public class ClickJournal {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String ID_FILE = "journal.id";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long segmentMaxAgeMillis;
+    private final long retentionMillis;
+    private final Counter appended;
+    private final Counter dropped;
+    private final Counter recovered;
+
+    // Serializes appends and rolling over to a new segment
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    // Sealed segments waiting for compaction, oldest first
+    private final ConcurrentLinkedDeque<JournalSegment> sealed = new ConcurrentLinkedDeque<>();
+
+    // Compacted segment files kept for the retention period, oldest first
+    private final ConcurrentLinkedDeque<Retained> retained = new ConcurrentLinkedDeque<>();
+
+    // Random id of this journal, so segment numbers stay unique if the directory is ever recreated
+    private String journalId;
+
+    // Segment receiving appends; null while the journal is unavailable
+    private volatile JournalSegment active;
+    private long nextSequence = 1;
+
+    /**
+     * Creates the journal and recovers the segments left by a previous run.
+     *
+     * @param meterRegistry    registry for journal metrics
+     * @param enabled          whether clicks are journaled at all
+     * @param directory        directory holding the segment files
+     * @param segmentSize      size of each segment file
+     * @param segmentMaxAge    age after which a non-empty segment is sealed
+     * @param retention        how long compacted segments are kept on disk
+     */
+    public ClickJournal(MeterRegistry meterRegistry,
+                        @Value("${analytics.journal.enabled:true}") boolean enabled,
+                        @Value("${analytics.journal.directory:data/clicks}") Path directory,
+                        @Value("${analytics.journal.segment-size:16MB}") DataSize segmentSize,
+                        @Value("${analytics.journal.segment-max-age:1m}") Duration segmentMaxAge,
+                        @Value("${analytics.journal.retention:7d}") Duration retention) {
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.segmentMaxAgeMillis = segmentMaxAge.toMillis();
+        this.retentionMillis = retention.toMillis();
+
+        this.appended = Counter.builder("analytics.journal.appended")
+                .description("Clicks appended to the click journal")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("analytics.journal.dropped")
+                .description("Clicks the click journal could not take")
+                .register(meterRegistry);
+        this.recovered = Counter.builder("analytics.journal.recovered")
+                .description("Clicks recovered from click journal segments that were not sealed")
+                .register(meterRegistry);
+        Gauge.builder("analytics.journal.segments.pending", sealed, ConcurrentLinkedDeque::size)
+                .description("Sealed click journal segments waiting for compaction")
+                .register(meterRegistry);
+
+        if (enabled) {
+            try {
+                recover();
+                active = newSegment();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Click journal at {} is not available, clicks are counted in memory only: {}",
+                        directory, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Appends a click.
+     *
+     * @param event the click
+     * @return false if the journal is disabled or unavailable; the caller must then count the click itself
+     */
+    public boolean append(ClickEvent event) {
+        if (active == null) {
+            return false;
+        }
+        appendLock.lock();
+        try {
+            JournalSegment segment = active;
+            if (segment == null) {
+                return false;
+            }
+            if (!segment.append(event)) {
+                roll();
+                if (active == null || !active.append(event)) {
+                    dropped.increment();
+                    return false;
+                }
+            }
+            appended.increment();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Click journal append failed: {}", e.getMessage());
+            dropped.increment();
+            return false;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the clicks appended since the last commit to disk, and seals the open segment once it is old enough.
+     */
+    @Scheduled(fixedDelayString = "${analytics.journal.commit-interval-ms:50}")
+    public void commit() {
+        JournalSegment segment = active;
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.force();
+            if (segment.records() > 0 && System.currentTimeMillis() - segment.createdAtMillis() >= segmentMaxAgeMillis) {
+                appendLock.lock();
+                try {
+                    if (active == segment) {
+                        roll();
+                    }
+                } finally {
+                    appendLock.unlock();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Click journal commit failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return sealed segments waiting for compaction, oldest first
+     */
+    List<JournalSegment> sealedSegments() {
+        return new ArrayList<>(sealed);
+    }
+
+    /**
+     * Marks a sealed segment as applied to the database; its file is kept until the retention period has passed.
+     *
+     * @param segment the compacted segment
+     */
+    void compacted(JournalSegment segment) {
+        segment.markCompacted();
+        sealed.remove(segment);
+        retained.add(new Retained(segment.path(), segment.createdAtMillis()));
+        closeQuietly(segment);
+    }
+
+    /**
+     * Deletes compacted segment files older than the retention period.
+     */
+    void deleteExpired() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        Retained oldest;
+        while ((oldest = retained.peek()) != null && oldest.createdAtMillis() < cutoff) {
+            retained.poll();
+            try {
+                Files.deleteIfExists(oldest.path());
+            } catch (IOException e) {
+                log.warn("Deleting click journal segment {} failed: {}", oldest.path(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return random id of this journal
+     */
+    String journalId() {
+        return journalId;
+    }
+
+    /**
+     * Seals the open segment on shutdown, so the next start does not need to recover it.
+     */
+    @PreDestroy
+    public void close() {
+        appendLock.lock();
+        try {
+            JournalSegment segment = active;
+            active = null;
+            if (segment != null) {
+                segment.seal();
+                segment.close();
+            }
+            sealed.forEach(ClickJournal::closeQuietly);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Closing the click journal failed: {}", e.getMessage());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Seals the open segment and starts the next one.
+     */
+    private void roll() throws IOException {
+        JournalSegment previous = active;
+        active = null;
+        if (previous != null) {
+            previous.seal();
+            sealed.add(previous);
+        }
+        active = newSegment();
+    }
+
+    private JournalSegment newSegment() throws IOException {
+        long sequence = nextSequence++;
+        return JournalSegment.create(directory.resolve("%020d%s".formatted(sequence, SEGMENT_SUFFIX)), sequence, segmentSize);
+    }
+
+    /**
+     * Reads the journal id and queues every segment that was not compacted, sealing those left open.
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        Path idFile = directory.resolve(ID_FILE);
+        try {
+            journalId = Files.readString(idFile, StandardCharsets.UTF_8).trim();
+        } catch (NoSuchFileException e) {
+            journalId = UUID.randomUUID().toString();
+            Files.writeString(idFile, journalId, StandardCharsets.UTF_8);
+        }
+
+        for (Path path : segmentFiles()) {
+            JournalSegment segment;
+            try {
+                segment = JournalSegment.open(path);
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable click journal segment {}: {}", path, e.getMessage());
+                continue;
+            }
+            nextSequence = Math.max(nextSequence, segment.sequence() + 1);
+            switch (segment.state()) {
+                case OPEN -> {
+                    log.info("Recovered {} clicks from unsealed click journal segment {}", segment.records(), path);
+                    recovered.increment(segment.records());
+                    segment.seal();
+                    sealed.add(segment);
+                }
+                case SEALED -> sealed.add(segment);
+                case COMPACTED -> {
+                    retained.add(new Retained(path, segment.createdAtMillis()));
+                    segment.close();
+                }
+            }
+        }
+    }
+
+    private List<Path> segmentFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Listing click journal segments failed: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static void closeQuietly(JournalSegment segment) {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.debug("Closing click journal segment failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A compacted segment file waiting for deletion.
+     */
+    private record Retained(Path path, long createdAtMillis) {
+    }
+}
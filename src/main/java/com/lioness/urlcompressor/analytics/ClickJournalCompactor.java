@@ -0,0 +1,103 @@
+package com.lioness.urlcompressor.analytics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ClickJournalCompactor folds sealed {@link ClickJournal} segments into per-link aggregates
+ * and adds them to {@code short_links.click_count}.
+ *
+ * Each segment is applied in one transaction together with a row in {@code click_journal_segments}
+ * keyed by (journal id, segment number). If the node crashes after the commit but before the segment is
+ * marked compacted, the next attempt hits that key and only marks the segment, so no click is counted twice.
+ *
+ * Metrics: analytics.journal.compacted (clicks applied to the database).
+ */
+@Slf4j
+@Component
+public class ClickJournalCompactor {
+
+    private static final String MARK_SQL = """
+            INSERT INTO link_manager.click_journal_segments (journal_id, segment, clicks, compacted_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String ADD_CLICKS_SQL =
+            "UPDATE link_manager.short_links SET click_count = click_count + ? WHERE id = ?";
+
+    private final ClickJournal clickJournal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter compactedClicks;
+
+    /**
+     * Creates the compactor and registers its metrics.
+     *
+     * @param clickJournal       journal whose sealed segments are compacted
+     * @param jdbcTemplate       JDBC access used for batched updates
+     * @param transactionManager transaction manager for applying a segment atomically
+     * @param meterRegistry      registry for compaction metrics
+     */
+    public ClickJournalCompactor(ClickJournal clickJournal,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.clickJournal = clickJournal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compactedClicks = Counter.builder("analytics.journal.compacted")
+                .description("Clicks from the click journal applied to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies every sealed segment, oldest first, then deletes compacted segments past their retention.
+     * Stops at the first failure, so segments are always applied in order.
+     */
+    @Scheduled(fixedDelayString = "${analytics.journal.compact-interval-ms:5000}")
+    public void compact() {
+        for (JournalSegment segment : clickJournal.sealedSegments()) {
+            Map<Long, Long> clicks = new HashMap<>();
+            segment.forEach(event -> clicks.merge(event.linkId(), 1L, Long::sum));
+            try {
+                apply(segment, clicks);
+                compactedClicks.increment(segment.records());
+            } catch (DuplicateKeyException e) {
+                log.info("Click journal segment {} was already applied", segment.sequence());
+            } catch (DataAccessException e) {
+                log.warn("Click journal compaction failed, segment {} is retried later: {}",
+                        segment.sequence(), e.getMessage());
+                return;
+            }
+            clickJournal.compacted(segment);
+        }
+        clickJournal.deleteExpired();
+    }
+
+    private void apply(JournalSegment segment, Map<Long, Long> clicks) {
+        List<Object[]> batch = new ArrayList<>(clicks.size());
+        clicks.forEach((linkId, delta) -> batch.add(new Object[]{delta, linkId}));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(MARK_SQL, clickJournal.journalId(), segment.sequence(), (long) segment.records(),
+                    new Timestamp(System.currentTimeMillis()));
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(ADD_CLICKS_SQL, batch);
+            }
+        });
+    }
+}
@@ -0,0 +1,267 @@
+package com.lioness.urlcompressor.analytics;
+
+import com.lioness.urlcompressor.url.ClickCounter;
+import com.lioness.urlcompressor.url.ResolvedLink;
+import com.lioness.urlcompressor.url.ShortLinkGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ClickPipeline moves all per-click analytics off the request thread.
+ *
+ * The redirect only copies the click into a pre-allocated slot of a {@link RingBuffer} and returns. A few consumer
+ * threads, one per ring buffer, take the published clicks in batches and do the actual work: hashing the visitor,
+ * appending to the {@link ClickJournal} (or counting in the {@link ClickCounter} when the journal cannot take it),
+ * and feeding {@link ClickRollups}, {@link UniqueVisitors} and {@link HotLinks}. Clicks are spread over the
+ * buffers by link, so the clicks of one link stay in order.
+ *
+ * When a buffer is full, the backpressure policy decides:
+ * DROP skips the click's event but still counts it in the lock-free {@link ClickCounter} and {@link HotLinks},
+ * so click totals and the hot-link ranking stay complete and only timelines and unique visitors miss the click;
+ * BLOCK waits up to the block timeout for a free slot and then drops the same way. A redirect never waits longer.
+ *
+ * Metrics: analytics.pipeline.depth (clicks waiting in the buffers), analytics.pipeline.dropped (clicks whose event
+ * was dropped), analytics.pipeline.blocked (publishes that had to wait) and analytics.pipeline.processed.
+ */
+@Slf4j
+@Component
+public class ClickPipeline {
+
+    /**
+     * What a publisher does when its ring buffer is full.
+     */
+    public enum BackpressurePolicy { DROP, BLOCK }
+
+    // Consumer back-off: spin, then yield, then park for this long
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final ClickJournal clickJournal;
+    private final ClickCounter clickCounter;
+    private final VisitorHasher visitorHasher;
+    private final ClickRollups clickRollups;
+    private final UniqueVisitors uniqueVisitors;
+    private final HotLinks hotLinks;
+    private final BackpressurePolicy policy;
+    private final long blockTimeoutNanos;
+    private final List<RingBuffer<ClickSlot>> buffers;
+    private final List<Thread> consumers = new ArrayList<>();
+    private final Counter dropped;
+    private final Counter blocked;
+    private final Counter processed;
+
+    private volatile boolean running;
+
+    /**
+     * Creates the pipeline with all its ring buffer slots and registers its metrics.
+     *
+     * @param clickJournal   journal receiving click events
+     * @param clickCounter   in-memory counter for clicks the journal cannot take or the buffers drop
+     * @param visitorHasher  hasher of client IP and User-Agent
+     * @param clickRollups   minute/hour/day click rollups
+     * @param uniqueVisitors unique-visitor sketches
+     * @param hotLinks       hot-link tracker
+     * @param meterRegistry  registry for pipeline metrics
+     * @param consumerCount  number of ring buffers, each with its own consumer thread
+     * @param bufferSize     slots per ring buffer, a power of two
+     * @param policy         backpressure policy for full buffers
+     * @param blockTimeoutMs how long a BLOCK publisher waits for a free slot
+     */
+    public ClickPipeline(ClickJournal clickJournal,
+                         ClickCounter clickCounter,
+                         VisitorHasher visitorHasher,
+                         ClickRollups clickRollups,
+                         UniqueVisitors uniqueVisitors,
+                         HotLinks hotLinks,
+                         MeterRegistry meterRegistry,
+                         @Value("${analytics.pipeline.consumers:2}") int consumerCount,
+                         @Value("${analytics.pipeline.buffer-size:8192}") int bufferSize,
+                         @Value("${analytics.pipeline.backpressure:DROP}") BackpressurePolicy policy,
+                         @Value("${analytics.pipeline.block-timeout-ms:5}") long blockTimeoutMs) {
+        this.clickJournal = clickJournal;
+        this.clickCounter = clickCounter;
+        this.visitorHasher = visitorHasher;
+        this.clickRollups = clickRollups;
+        this.uniqueVisitors = uniqueVisitors;
+        this.hotLinks = hotLinks;
+        this.policy = policy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+
+        this.buffers = new ArrayList<>(consumerCount);
+        for (int i = 0; i < consumerCount; i++) {
+            buffers.add(new RingBuffer<>(bufferSize, ClickSlot::new));
+        }
+
+        this.dropped = Counter.builder("analytics.pipeline.dropped")
+                .description("Clicks whose analytics event was dropped because the ring buffer was full")
+                .register(meterRegistry);
+        this.blocked = Counter.builder("analytics.pipeline.blocked")
+                .description("Click publishes that waited for a free ring buffer slot")
+                .register(meterRegistry);
+        this.processed = Counter.builder("analytics.pipeline.processed")
+                .description("Clicks processed by the analytics consumers")
+                .register(meterRegistry);
+        Gauge.builder("analytics.pipeline.depth", buffers,
+                        list -> list.stream().mapToLong(RingBuffer::depth).sum())
+                .description("Clicks waiting in the analytics ring buffers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts one consumer thread per ring buffer.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < buffers.size(); i++) {
+            RingBuffer<ClickSlot> buffer = buffers.get(i);
+            Thread consumer = Thread.ofPlatform()
+                    .name("click-pipeline-" + i)
+                    .daemon(true)
+                    .start(() -> consume(buffer));
+            consumers.add(consumer);
+        }
+    }
+
+    /**
+     * Publishes a click. Never blocks longer than the block timeout, and never touches storage.
+     *
+     * @param link      the link that was followed
+     * @param referrer  Referer header of the request, may be null
+     * @param userAgent User-Agent header of the request, may be null
+     * @param clientIp  address of the client
+     */
+    public void publish(ResolvedLink link, String referrer, String userAgent, String clientIp) {
+        long timestamp = System.currentTimeMillis();
+        RingBuffer<ClickSlot> buffer = buffers.get((int) Math.floorMod(link.id(), (long) buffers.size()));
+
+        long sequence = running ? buffer.tryClaim() : -1;
+        if (sequence < 0 && running && policy == BackpressurePolicy.BLOCK) {
+            blocked.increment();
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (sequence < 0 && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                sequence = buffer.tryClaim();
+            }
+        }
+        if (sequence < 0) {
+            dropped.increment();
+            clickCounter.record(link.id());
+            hotLinks.record(link.id(), link.shortenedUrl(), timestamp);
+            return;
+        }
+
+        buffer.slot(sequence).set(timestamp, link, referrer, userAgent, clientIp);
+        buffer.publish(sequence);
+    }
+
+    /**
+     * Stops the consumers after they have processed every published click.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread consumer : consumers) {
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Consumer loop: processes batches as they are published, backing off while the buffer is empty.
+     * Exits once the pipeline is stopped and the buffer is drained.
+     */
+    private void consume(RingBuffer<ClickSlot> buffer) {
+        int idle = 0;
+        while (true) {
+            int count = buffer.drain(this::process);
+            if (count > 0) {
+                processed.increment(count);
+                idle = 0;
+            } else if (!running) {
+                // Publishers that claimed a slot just before the stop may still be filling it in
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                if (buffer.drain(this::process) == 0 && buffer.depth() == 0) {
+                    return;
+                }
+            } else if (++idle <= SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (idle <= SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Does the per-click work of one slot, then clears it. Failures are logged and never stop the consumer.
+     */
+    private void process(ClickSlot slot) {
+        try {
+            ClickEvent event = new ClickEvent(
+                    slot.timestampMillis,
+                    slot.linkId,
+                    slot.shortUrl.substring(ShortLinkGenerator.LINK_PREFIX.length()),
+                    slot.referrer,
+                    visitorHasher.hash(slot.userAgent),
+                    visitorHasher.hash(slot.clientIp));
+            if (!clickJournal.append(event)) {
+                clickCounter.record(slot.linkId);
+            }
+            clickRollups.record(slot.linkId, slot.timestampMillis);
+            uniqueVisitors.record(slot.linkId, slot.timestampMillis,
+                    VisitorHasher.visitorKey(event.clientIpHash(), event.userAgentHash()));
+            hotLinks.record(slot.linkId, slot.shortUrl, slot.timestampMillis);
+        } catch (RuntimeException e) {
+            log.warn("Processing a click on link {} failed: {}", slot.linkId, e.getMessage());
+        } finally {
+            slot.clear();
+        }
+    }
+
+    /**
+     * A reusable ring buffer slot holding one click as received by the redirect.
+     */
+    private static final class ClickSlot {
+
+        private long timestampMillis;
+        private long linkId;
+        private String shortUrl;
+        private String referrer;
+        private String userAgent;
+        private String clientIp;
+
+        void set(long timestampMillis, ResolvedLink link, String referrer, String userAgent, String clientIp) {
+            this.timestampMillis = timestampMillis;
+            this.linkId = link.id();
+            this.shortUrl = link.shortenedUrl();
+            this.referrer = referrer;
+            this.userAgent = userAgent;
+            this.clientIp = clientIp;
+        }
+
+        void clear() {
+            shortUrl = null;
+            referrer = null;
+            userAgent = null;
+            clientIp = null;
+        }
+    }
+}
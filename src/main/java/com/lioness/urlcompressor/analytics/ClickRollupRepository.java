@@ -0,0 +1,100 @@
+package com.lioness.urlcompressor.analytics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ClickRollupRepository reads and writes the hourly and daily click rollup tables.
+ * Minute buckets are never stored; they live only in {@link ClickRollups}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClickRollupRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds click deltas to their buckets, creating the buckets that do not exist yet.
+     * Must run in a transaction: a bucket inserted concurrently by another node fails the insert
+     * with a duplicate key, and the whole batch is then retried by the caller.
+     *
+     * @param granularity HOUR or DAY
+     * @param deltas      clicks to add per (link, bucket start)
+     */
+    void add(Granularity granularity, Map<RollupKey, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String table = table(granularity);
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, clicks) -> rows.add(new Object[]{clicks, key.linkId(), Timestamp.valueOf(key.start())}));
+
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE " + table + " SET clicks = clicks + ? WHERE link_id = ? AND bucket_start = ?", rows);
+
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Object[] row = rows.get(i);
+                missing.add(new Object[]{row[1], row[2], row[0]});
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO " + table + " (link_id, bucket_start, clicks) VALUES (?, ?, ?)", missing);
+        }
+    }
+
+    /**
+     * Reads the non-empty buckets of a link within a range.
+     *
+     * @param granularity HOUR or DAY
+     * @param linkId      the link
+     * @param from        first bucket start (inclusive)
+     * @param to          end of the range (exclusive)
+     * @return buckets in time order
+     */
+    List<ClickBucket> find(Granularity granularity, long linkId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+                "SELECT bucket_start, clicks FROM " + table(granularity)
+                        + " WHERE link_id = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start",
+                (rs, rowNum) -> new ClickBucket(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)),
+                linkId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Deletes buckets older than a cutoff.
+     *
+     * @param granularity HOUR or DAY
+     * @param cutoff      buckets starting before this moment are deleted
+     * @return number of deleted buckets
+     */
+    int deleteBefore(Granularity granularity, LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + table(granularity) + " WHERE bucket_start < ?",
+                Timestamp.valueOf(cutoff));
+    }
+
+    private static String table(Granularity granularity) {
+        return switch (granularity) {
+            case HOUR -> "link_manager.click_rollups_hourly";
+            case DAY -> "link_manager.click_rollups_daily";
+            case MINUTE -> throw new IllegalArgumentException("Minute buckets are not stored");
+        };
+    }
+
+    /**
+     * A rollup bucket of one link.
+     *
+     * @param linkId the link
+     * @param start  start of the bucket
+     */
+    record RollupKey(long linkId, LocalDateTime start) {
+    }
+}
@@ -0,0 +1,300 @@
+package com.lioness.urlcompressor.analytics;
+
+import com.lioness.urlcompressor.analytics.ClickRollupRepository.RollupKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ClickRollups aggregates clicks into per-link time series at minute, hour and day granularity.
+ *
+ * Each clicked link gets a ring of minute buckets covering the last window of minutes. A scheduled flush
+ * adds the clicks counted since the previous flush to the hourly and daily rollup tables, so timelines are
+ * read from a handful of pre-aggregated rows and never from raw click events. Minute timelines are served
+ * from the rings directly and therefore only cover the window, and only the clicks served by this node.
+ * Links without clicks for a whole window are dropped from memory.
+ *
+ * A ring is only touched inside {@link ConcurrentHashMap#compute} of its link, so recording, flushing and
+ * dropping a ring never race. Clicks that are older than their ring slot, or still unflushed when a slot is
+ * reused, are handed to the next flush instead of being lost; a failed flush keeps its deltas for the next one.
+ *
+ * Metrics: analytics.rollup.links (links with a minute ring), analytics.rollup.flushed (clicks written to the
+ * rollup tables) and analytics.rollup.pending (hourly buckets waiting for the next flush).
+ */
+@Slf4j
+@Component
+public class ClickRollups {
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final ClickRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int windowMinutes;
+    private final Duration hourlyRetention;
+    private final Counter flushedClicks;
+
+    // Link id -> minute ring; a ring is only accessed inside compute() on its key
+    private final Map<Long, MinuteRing> rings = new ConcurrentHashMap<>();
+
+    // Clicks that could not be kept in a ring, picked up by the next flush
+    private final ConcurrentLinkedQueue<Spilled> spilled = new ConcurrentLinkedQueue<>();
+
+    // Serializes flushes; the pending deltas below are only touched while holding it
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<RollupKey, Long> pendingHourly = new HashMap<>();
+    private final Map<RollupKey, Long> pendingDaily = new HashMap<>();
+
+    /**
+     * Creates the rollups and registers their metrics.
+     *
+     * @param rollupRepository   repository of the hourly and daily rollup tables
+     * @param transactionManager transaction manager for writing one flush atomically
+     * @param meterRegistry      registry for rollup metrics
+     * @param windowMinutes      number of minute buckets kept per link
+     * @param hourlyRetention    how long hourly buckets are kept; daily buckets are kept forever
+     */
+    public ClickRollups(ClickRollupRepository rollupRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${analytics.rollup.minute-window:120}") int windowMinutes,
+                        @Value("${analytics.rollup.hourly-retention:90d}") Duration hourlyRetention) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowMinutes = windowMinutes;
+        this.hourlyRetention = hourlyRetention;
+
+        this.flushedClicks = Counter.builder("analytics.rollup.flushed")
+                .description("Clicks written to the hourly and daily rollup tables")
+                .register(meterRegistry);
+        Gauge.builder("analytics.rollup.links", rings, Map::size)
+                .description("Links with an in-memory minute ring")
+                .register(meterRegistry);
+        Gauge.builder("analytics.rollup.pending", this, rollups -> rollups.pendingHourly.size())
+                .description("Hourly click buckets waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a click in the minute bucket of its timestamp.
+     *
+     * @param linkId          the clicked link
+     * @param timestampMillis time of the click, in epoch milliseconds
+     */
+    public void record(long linkId, long timestampMillis) {
+        long minute = Math.floorDiv(timestampMillis, MINUTE_MILLIS);
+        rings.compute(linkId, (id, ring) -> {
+            MinuteRing target = ring == null ? new MinuteRing(windowMinutes) : ring;
+            target.add(minute, (lostMinute, clicks) -> spilled.add(new Spilled(id, lostMinute, clicks)));
+            return target;
+        });
+    }
+
+    /**
+     * Returns the clicks of a link per bucket, including empty buckets.
+     * Hourly and daily timelines lag behind by up to one flush interval.
+     *
+     * @param granularity width of a bucket
+     * @param linkId      the link
+     * @param from        start of the range; rounded down to its bucket
+     * @param to          end of the range (exclusive)
+     * @return one bucket per granularity step from {@code from} up to {@code to}
+     */
+    public List<ClickBucket> timeline(Granularity granularity, long linkId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = granularity.truncate(from);
+        Map<LocalDateTime, Long> clicks = new HashMap<>();
+        if (granularity == Granularity.MINUTE) {
+            rings.computeIfPresent(linkId, (id, ring) -> {
+                for (LocalDateTime time = start; time.isBefore(to); time = time.plusMinutes(1)) {
+                    long count = ring.count(toMinute(time));
+                    if (count > 0) {
+                        clicks.put(time, count);
+                    }
+                }
+                return ring;
+            });
+        } else {
+            rollupRepository.find(granularity, linkId, start, to)
+                    .forEach(bucket -> clicks.put(bucket.start(), bucket.clicks()));
+        }
+
+        List<ClickBucket> buckets = new ArrayList<>();
+        for (LocalDateTime time = start; time.isBefore(to); time = granularity.next(time)) {
+            buckets.add(new ClickBucket(time, clicks.getOrDefault(time, 0L)));
+        }
+        return buckets;
+    }
+
+    /**
+     * Writes the clicks counted since the last flush to the hourly and daily rollup tables,
+     * and drops the rings of links without clicks for a whole window.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-interval-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            long oldestKept = Math.floorDiv(System.currentTimeMillis(), MINUTE_MILLIS) - windowMinutes;
+            for (Long linkId : rings.keySet()) {
+                rings.computeIfPresent(linkId, (id, ring) -> {
+                    ring.drain((minute, clicks) -> addPending(id, minute, clicks));
+                    return ring.newestMinute() < oldestKept ? null : ring;
+                });
+            }
+            Spilled click;
+            while ((click = spilled.poll()) != null) {
+                addPending(click.linkId(), click.minute(), click.clicks());
+            }
+            if (pendingHourly.isEmpty()) {
+                return;
+            }
+
+            long clicks = pendingHourly.values().stream().mapToLong(Long::longValue).sum();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    rollupRepository.add(Granularity.HOUR, pendingHourly);
+                    rollupRepository.add(Granularity.DAY, pendingDaily);
+                });
+                pendingHourly.clear();
+                pendingDaily.clear();
+                flushedClicks.increment(clicks);
+            } catch (DataAccessException e) {
+                log.warn("Click rollup flush failed, {} hourly buckets kept for the next flush: {}",
+                        pendingHourly.size(), e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes hourly buckets older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.prune-interval-ms:3600000}")
+    public void prune() {
+        try {
+            int deleted = rollupRepository.deleteBefore(Granularity.HOUR, LocalDateTime.now().minus(hourlyRetention));
+            if (deleted > 0) {
+                log.debug("Deleted {} hourly click buckets", deleted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Pruning hourly click buckets failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the remaining clicks before the application shuts down.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void addPending(long linkId, long minute, long clicks) {
+        LocalDateTime time = toLocalDateTime(minute);
+        pendingHourly.merge(new RollupKey(linkId, Granularity.HOUR.truncate(time)), clicks, Long::sum);
+        pendingDaily.merge(new RollupKey(linkId, Granularity.DAY.truncate(time)), clicks, Long::sum);
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return Math.floorDiv(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), MINUTE_MILLIS);
+    }
+
+    private static LocalDateTime toLocalDateTime(long minute) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(minute * MINUTE_MILLIS), ZoneId.systemDefault());
+    }
+
+    /**
+     * Receives the clicks of one minute.
+     */
+    @FunctionalInterface
+    private interface MinuteSink {
+        void accept(long minute, long clicks);
+    }
+
+    /**
+     * Ring of minute buckets of one link: slot {@code minute % size} holds that minute while it is within the window.
+     * Not thread-safe; only accessed inside compute() of its link.
+     */
+    private static final class MinuteRing {
+
+        private final long[] minutes;
+        private final long[] counts;
+        private final long[] flushed;
+        private long newestMinute = Long.MIN_VALUE;
+
+        MinuteRing(int size) {
+            this.minutes = new long[size];
+            this.counts = new long[size];
+            this.flushed = new long[size];
+            Arrays.fill(minutes, Long.MIN_VALUE);
+        }
+
+        /**
+         * Counts a click; a click older than its slot, or unflushed clicks of a reused slot, go to the overflow sink.
+         */
+        void add(long minute, MinuteSink overflow) {
+            int slot = (int) Math.floorMod(minute, (long) minutes.length);
+            if (minutes[slot] != minute) {
+                if (minutes[slot] > minute) {
+                    overflow.accept(minute, 1);
+                    return;
+                }
+                if (counts[slot] > flushed[slot]) {
+                    overflow.accept(minutes[slot], counts[slot] - flushed[slot]);
+                }
+                minutes[slot] = minute;
+                counts[slot] = 0;
+                flushed[slot] = 0;
+            }
+            counts[slot]++;
+            newestMinute = Math.max(newestMinute, minute);
+        }
+
+        /**
+         * Hands over the clicks counted since the previous drain.
+         */
+        void drain(MinuteSink sink) {
+            for (int slot = 0; slot < minutes.length; slot++) {
+                if (counts[slot] > flushed[slot]) {
+                    sink.accept(minutes[slot], counts[slot] - flushed[slot]);
+                    flushed[slot] = counts[slot];
+                }
+            }
+        }
+
+        long count(long minute) {
+            int slot = (int) Math.floorMod(minute, (long) minutes.length);
+            return minutes[slot] == minute ? counts[slot] : 0;
+        }
+
+        long newestMinute() {
+            return newestMinute;
+        }
+    }
+
+    /**
+     * Clicks of one link and minute that are no longer held by its ring.
+     */
+    private record Spilled(long linkId, long minute, long clicks) {
+    }
+}
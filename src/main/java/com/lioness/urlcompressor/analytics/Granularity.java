@@ -0,0 +1,65 @@
+package com.lioness.urlcompressor.analytics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Granularity of a click timeline: the width of one bucket.
+ */
+public enum Granularity {
+
+    MINUTE(ChronoUnit.MINUTES, Duration.ofHours(1)),
+    HOUR(ChronoUnit.HOURS, Duration.ofDays(2)),
+    DAY(ChronoUnit.DAYS, Duration.ofDays(30));
+
+    private final ChronoUnit unit;
+    private final Duration defaultRange;
+
+    Granularity(ChronoUnit unit, Duration defaultRange) {
+        this.unit = unit;
+        this.defaultRange = defaultRange;
+    }
+
+    /**
+     * Parses a granularity name, ignoring case.
+     *
+     * @param name e.g. "hour"
+     * @return the granularity, or empty if the name is unknown
+     */
+    public static Optional<Granularity> parse(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param time a point in time
+     * @return start of the bucket containing it
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * @param bucketStart start of a bucket
+     * @return start of the following bucket
+     */
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+
+    /**
+     * @return range of a timeline requested without explicit bounds
+     */
+    public Duration defaultRange() {
+        return defaultRange;
+    }
+}
@@ -0,0 +1,11 @@
+package com.lioness.urlcompressor.analytics;
+
+/**
+ * One of the most clicked links of a time window.
+ *
+ * @param linkId   the link
+ * @param shortUrl its short URL
+ * @param clicks   estimated clicks within the window (may be slightly too high, never too low)
+ */
+public record HotLink(long linkId, String shortUrl, long clicks) {
+}
@@ -0,0 +1,194 @@
+package com.lioness.urlcompressor.analytics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HotLinks tracks the most clicked links over sliding time windows, in memory that does not grow with the
+ * number of links.
+ *
+ * Time is cut into slices (one minute by default) kept in a ring. Each slice counts clicks in a Count-Min Sketch
+ * and keeps the links with the highest counts as top-K candidates. Counting is lock-free; only a link entering
+ * the candidates takes a lock. The top links of a window are the candidates of its slices, ranked by their
+ * summed Count-Min estimates.
+ *
+ * Counts are estimates that may be slightly too high (by at most ~0.3% of a slice's clicks, with high probability),
+ * never too low. A link that is never among the top-K of any single slice may be missed for a longer window.
+ */
+@Component
+public class HotLinks {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1024;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final long sliceMillis;
+    private final int capacity;
+    private final AtomicReferenceArray<Slice> slices;
+
+    /**
+     * Creates the tracker.
+     *
+     * @param sliceSeconds length of one time slice
+     * @param sliceCount   number of slices kept, i.e. the longest window in slices
+     * @param capacity     number of top-K candidates kept per slice
+     */
+    public HotLinks(@Value("${analytics.hot-links.slice-seconds:60}") int sliceSeconds,
+                    @Value("${analytics.hot-links.slices:60}") int sliceCount,
+                    @Value("${analytics.hot-links.capacity:64}") int capacity) {
+        this.sliceMillis = sliceSeconds * 1000L;
+        this.capacity = capacity;
+        this.slices = new AtomicReferenceArray<>(sliceCount);
+    }
+
+    /**
+     * Counts a click.
+     *
+     * @param linkId          the clicked link
+     * @param shortUrl        its short URL, reported with the top links
+     * @param timestampMillis time of the click, in epoch milliseconds
+     */
+    public void record(long linkId, String shortUrl, long timestampMillis) {
+        long epoch = Math.floorDiv(timestampMillis, sliceMillis);
+        int index = (int) Math.floorMod(epoch, (long) slices.length());
+        Slice slice = slices.get(index);
+        while (slice == null || slice.epoch < epoch) {
+            Slice fresh = new Slice(epoch);
+            if (slices.compareAndSet(index, slice, fresh)) {
+                slice = fresh;
+            } else {
+                slice = slices.get(index);
+            }
+        }
+        if (slice.epoch == epoch) {
+            slice.add(linkId, shortUrl);
+        }
+    }
+
+    /**
+     * Returns the most clicked links of the last slices, the current one included.
+     *
+     * @param limit       maximum number of links, capped at the per-slice capacity (non-positive gives none)
+     * @param windowSlices number of slices to cover, capped at the number of slices kept
+     * @return links with their estimated clicks, most clicked first
+     */
+    public List<HotLink> top(int limit, int windowSlices) {
+        long current = Math.floorDiv(System.currentTimeMillis(), sliceMillis);
+        int window = Math.max(1, Math.min(windowSlices, slices.length()));
+        List<Slice> covered = new ArrayList<>(window);
+        for (int i = 0; i < slices.length(); i++) {
+            Slice slice = slices.get(i);
+            if (slice != null && slice.epoch > current - window && slice.epoch <= current) {
+                covered.add(slice);
+            }
+        }
+
+        Map<Long, String> candidates = new HashMap<>();
+        covered.forEach(slice -> slice.candidates.forEach((id, candidate) -> candidates.put(id, candidate.shortUrl())));
+
+        List<HotLink> ranked = new ArrayList<>(candidates.size());
+        candidates.forEach((id, shortUrl) -> {
+            long clicks = 0;
+            for (Slice slice : covered) {
+                clicks += slice.estimate(id);
+            }
+            ranked.add(new HotLink(id, shortUrl, clicks));
+        });
+        ranked.sort(Comparator.comparingLong(HotLink::clicks).reversed());
+        int count = Math.max(0, Math.min(Math.min(limit, capacity), ranked.size()));
+        return ranked.subList(0, count);
+    }
+
+    /**
+     * @return length of one time slice in seconds
+     */
+    public long sliceSeconds() {
+        return sliceMillis / 1000;
+    }
+
+    private static int bucket(long linkId, int row) {
+        // MurmurHash3 finalizer, seeded per row
+        long hash = linkId ^ SEEDS[row];
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE6E53A63L;
+        hash ^= hash >>> 33;
+        return (int) (hash & (WIDTH - 1)) + row * WIDTH;
+    }
+
+    /**
+     * Clicks of one time slice: a Count-Min Sketch plus the top-K candidates.
+     */
+    private final class Slice {
+
+        private final long epoch;
+        private final AtomicIntegerArray counts = new AtomicIntegerArray(DEPTH * WIDTH);
+        private final Map<Long, Candidate> candidates = new ConcurrentHashMap<>();
+
+        // Guards admission to and eviction from the candidates
+        private final ReentrantLock candidateLock = new ReentrantLock();
+
+        // Smallest count among full candidates; a link must exceed it to get in
+        private volatile long threshold;
+
+        Slice(long epoch) {
+            this.epoch = epoch;
+        }
+
+        void add(long linkId, String shortUrl) {
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                estimate = Math.min(estimate, counts.incrementAndGet(bucket(linkId, row)));
+            }
+            if (estimate <= threshold) {
+                return;
+            }
+            Candidate candidate = new Candidate(shortUrl, estimate);
+            if (candidates.replace(linkId, candidate) != null) {
+                return;
+            }
+
+            candidateLock.lock();
+            try {
+                candidates.put(linkId, candidate);
+                if (candidates.size() > capacity) {
+                    Map.Entry<Long, Candidate> smallest = null;
+                    for (Map.Entry<Long, Candidate> entry : candidates.entrySet()) {
+                        if (smallest == null || entry.getValue().clicks() < smallest.getValue().clicks()) {
+                            smallest = entry;
+                        }
+                    }
+                    candidates.remove(smallest.getKey());
+                    threshold = candidates.values().stream().mapToLong(Candidate::clicks).min().orElse(0);
+                }
+            } finally {
+                candidateLock.unlock();
+            }
+        }
+
+        long estimate(long linkId) {
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                estimate = Math.min(estimate, counts.get(bucket(linkId, row)));
+            }
+            return estimate;
+        }
+    }
+
+    /**
+     * A top-K candidate of a slice.
+     */
+    private record Candidate(String shortUrl, long clicks) {
+    }
+}
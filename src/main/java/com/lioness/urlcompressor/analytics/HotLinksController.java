@@ -0,0 +1,39 @@
+package com.lioness.urlcompressor.analytics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * HotLinksController exposes the most clicked links to admins, e.g. for cache sizing and abuse detection.
+ * Access is restricted to the ADMIN role by the /api/v1/admin/** rule of the security configuration.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/hot-links")
+@RequiredArgsConstructor
+public class HotLinksController {
+
+    private final HotLinks hotLinks;
+
+    /**
+     * Retrieves the most clicked links of the last minutes.
+     *
+     * @param limit   maximum number of links (capped by the server)
+     * @param minutes length of the window in minutes (capped by the tracked history)
+     * @return links with their estimated clicks, most clicked first, or 400 if limit or minutes is not positive
+     */
+    @GetMapping
+    public ResponseEntity<List<HotLink>> getHotLinks(@RequestParam(defaultValue = "10") int limit,
+                                                     @RequestParam(defaultValue = "5") int minutes) {
+        if (limit <= 0 || minutes <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int slices = (int) Math.ceilDiv(minutes * 60L, hotLinks.sliceSeconds());
+        return ResponseEntity.ok(hotLinks.top(limit, slices));
+    }
+}
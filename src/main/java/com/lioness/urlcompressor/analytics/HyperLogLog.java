@@ -0,0 +1,284 @@
+package com.lioness.urlcompressor.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog estimates the number of distinct 64-bit hashes added to it.
+ *
+ * With 2^12 registers the standard error is about 1.6%, whatever the number of distinct values.
+ * A sketch starts sparse (a sorted list of the non-zero registers) and switches to a dense array of
+ * registers once that list would be larger. The serialized form is equally compact: varint-encoded deltas
+ * while sparse, 6-bit packed registers (3 KB) once dense.
+ *
+ * Sketches are merged by taking the maximum of each register, so merging is commutative and idempotent:
+ * sketches of several nodes or several days merge into the sketch of their union, and merging the same
+ * sketch twice changes nothing.
+ *
+ * Not thread-safe; the caller serializes access.
+ */
+public final class HyperLogLog {
+
+    static final int PRECISION = 12;
+    static final int REGISTERS = 1 << PRECISION;
+
+    private static final int RANK_BITS = 6;
+    private static final int RANK_MASK = (1 << RANK_BITS) - 1;
+    private static final int PACKED_SIZE = REGISTERS * RANK_BITS / Byte.SIZE;
+
+    // Switch to dense registers once the sparse list would take more memory than them
+    private static final int SPARSE_LIMIT = REGISTERS / Integer.BYTES;
+
+    private static final byte SPARSE = 1;
+    private static final byte DENSE = 2;
+
+    // Dense registers; null while the sketch is sparse
+    private byte[] registers;
+
+    // Sparse registers as (index << RANK_BITS | rank), sorted by index
+    private int[] sparse = new int[4];
+    private int sparseSize;
+
+    /**
+     * Adds a hash. The hash must be uniformly distributed over all 64 bits.
+     *
+     * @param hash the hash of a value
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        update(index, rank);
+    }
+
+    /**
+     * Merges another sketch into this one.
+     *
+     * @param other the sketch to merge
+     */
+    public void merge(HyperLogLog other) {
+        if (other.registers != null) {
+            for (int index = 0; index < REGISTERS; index++) {
+                if (other.registers[index] != 0) {
+                    update(index, other.registers[index]);
+                }
+            }
+        } else {
+            for (int i = 0; i < other.sparseSize; i++) {
+                update(other.sparse[i] >>> RANK_BITS, other.sparse[i] & RANK_MASK);
+            }
+        }
+    }
+
+    /**
+     * @return estimated number of distinct hashes added
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        if (registers != null) {
+            for (byte rank : registers) {
+                sum += Math.scalb(1.0, -rank);
+                if (rank == 0) {
+                    zeros++;
+                }
+            }
+        } else {
+            zeros = REGISTERS - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += Math.scalb(1.0, -(sparse[i] & RANK_MASK));
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Small range: linear counting over the empty registers is more accurate
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return true if nothing has been added
+     */
+    public boolean isEmpty() {
+        return registers == null && sparseSize == 0;
+    }
+
+    /**
+     * Serializes the sketch in its more compact encoding.
+     *
+     * @return the encoded sketch
+     */
+    public byte[] toBytes() {
+        if (registers == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(2 + sparseSize * 2);
+            out.write(SPARSE);
+            out.write(PRECISION);
+            writeVarint(out, sparseSize);
+            int previous = 0;
+            for (int i = 0; i < sparseSize; i++) {
+                writeVarint(out, sparse[i] - previous);
+                previous = sparse[i];
+            }
+            if (out.size() < 2 + PACKED_SIZE) {
+                return out.toByteArray();
+            }
+        }
+
+        byte[] bytes = new byte[2 + PACKED_SIZE];
+        bytes[0] = DENSE;
+        bytes[1] = PRECISION;
+        for (int index = 0; index < REGISTERS; index++) {
+            int rank = rank(index);
+            int bit = index * RANK_BITS;
+            for (int b = 0; b < RANK_BITS; b++, bit++) {
+                if ((rank & (1 << b)) != 0) {
+                    bytes[2 + bit / Byte.SIZE] |= (byte) (1 << (bit % Byte.SIZE));
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a sketch written by {@link #toBytes()}.
+     *
+     * @param bytes the encoded sketch
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not a sketch of this precision
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length < 2 || bytes[1] != PRECISION) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch of precision " + PRECISION);
+        }
+        HyperLogLog sketch = new HyperLogLog();
+        ByteBuffer in = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+        try {
+            switch (bytes[0]) {
+                case SPARSE -> {
+                    int size = readVarint(in);
+                    int entry = 0;
+                    for (int i = 0; i < size; i++) {
+                        entry += readVarint(in);
+                        sketch.update(entry >>> RANK_BITS, entry & RANK_MASK);
+                    }
+                }
+                case DENSE -> {
+                    if (bytes.length != 2 + PACKED_SIZE) {
+                        throw new IllegalArgumentException("Truncated dense HyperLogLog sketch");
+                    }
+                    sketch.registers = new byte[REGISTERS];
+                    for (int index = 0; index < REGISTERS; index++) {
+                        int rank = 0;
+                        int bit = index * RANK_BITS;
+                        for (int b = 0; b < RANK_BITS; b++, bit++) {
+                            if ((bytes[2 + bit / Byte.SIZE] & (1 << (bit % Byte.SIZE))) != 0) {
+                                rank |= 1 << b;
+                            }
+                        }
+                        sketch.registers[index] = (byte) rank;
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown HyperLogLog encoding " + bytes[0]);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated HyperLogLog sketch", e);
+        }
+        return sketch;
+    }
+
+    private void update(int index, int rank) {
+        if (index < 0 || index >= REGISTERS || rank <= 0 || rank > RANK_MASK) {
+            throw new IllegalArgumentException("Invalid HyperLogLog register " + index + "=" + rank);
+        }
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+
+        int position = findSparse(index);
+        if (position >= 0) {
+            if (rank > (sparse[position] & RANK_MASK)) {
+                sparse[position] = index << RANK_BITS | rank;
+            }
+            return;
+        }
+        if (sparseSize >= SPARSE_LIMIT) {
+            toDense();
+            update(index, rank);
+            return;
+        }
+        int insertAt = -position - 1;
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.min(sparse.length * 2, SPARSE_LIMIT));
+        }
+        System.arraycopy(sparse, insertAt, sparse, insertAt + 1, sparseSize - insertAt);
+        sparse[insertAt] = index << RANK_BITS | rank;
+        sparseSize++;
+    }
+
+    private int rank(int index) {
+        if (registers != null) {
+            return registers[index];
+        }
+        int position = findSparse(index);
+        return position >= 0 ? sparse[position] & RANK_MASK : 0;
+    }
+
+    /**
+     * Binary search over the sparse list by register index.
+     *
+     * @return position of the register, or (-(insertion point) - 1) if it is zero
+     */
+    private int findSparse(int index) {
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = sparse[mid] >>> RANK_BITS;
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void toDense() {
+        registers = new byte[REGISTERS];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> RANK_BITS] = (byte) (sparse[i] & RANK_MASK);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in HyperLogLog sketch");
+    }
+}
@@ -0,0 +1,321 @@
+package com.lioness.urlcompressor.analytics;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * JournalSegment is one fixed-size, memory-mapped file of the {@link ClickJournal}.
+ *
+ * Layout: a 64-byte header (magic, format version, state, sequence number, creation time, end of data)
+ * followed by an append-only region of {@link ClickEvent} records, each 8-aligned and carrying its own CRC32C.
+ * A record's length is written last, so a record that was never completed reads as the end of the segment.
+ *
+ * A segment is open while it receives clicks, sealed once it is full or old enough, and compacted once its
+ * clicks have been applied to the database. Opening a segment scans it up to the first incomplete or corrupt
+ * record, which is how clicks of a segment that was never sealed (e.g. after a crash) are recovered.
+ *
+ * Appends must be serialized by the caller; {@link #force()} may run concurrently with them.
+ */
+final class JournalSegment implements AutoCloseable {
+
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * Life cycle of a segment, as stored in its header.
+     */
+    enum State { OPEN, SEALED, COMPACTED }
+
+    private static final long MAGIC = 0x434C4B5345473031L; // "CLKSEG01"
+    private static final int HEADER_SIZE = 64;
+    private static final int STATE_OFFSET = 12;
+    private static final int END_OFFSET = 32;
+    private static final int RECORD_HEADER_SIZE = 44;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long sequence;
+    private final long createdAtMillis;
+
+    // Serializes flushing to disk with closing the file
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    private volatile State state;
+
+    // End of the last complete record; written by the appending thread, read by the flusher
+    private volatile int appendAt = HEADER_SIZE;
+
+    // Everything before this offset is known to be on disk
+    private int forcedTo = HEADER_SIZE;
+
+    private int records;
+
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer,
+                           long sequence, long createdAtMillis, State state) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.sequence = sequence;
+        this.createdAtMillis = createdAtMillis;
+        this.state = state;
+    }
+
+    /**
+     * Creates an empty, open segment, replacing any existing file at the path.
+     *
+     * @param path     file location
+     * @param sequence sequence number of the segment within its journal
+     * @param size     size of the file in bytes
+     * @return the open segment
+     * @throws IOException if the file cannot be created or mapped
+     */
+    static JournalSegment create(Path path, long sequence, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            long createdAt = System.currentTimeMillis();
+            buffer.putLong(0, MAGIC)
+                    .putInt(8, FORMAT_VERSION)
+                    .putInt(STATE_OFFSET, State.OPEN.ordinal())
+                    .putLong(16, sequence)
+                    .putLong(24, createdAt)
+                    .putInt(END_OFFSET, 0);
+            buffer.force(0, HEADER_SIZE);
+            return new JournalSegment(path, channel, buffer, sequence, createdAt, State.OPEN);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing segment and finds the end of its complete records.
+     *
+     * @param path file location
+     * @return the segment, in the state recorded in its header
+     * @throws IOException if the file cannot be read or is not a journal segment of this format
+     */
+    static JournalSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a click journal segment: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.getLong(0) != MAGIC) {
+                throw new IOException("Not a click journal segment: " + path);
+            }
+            if (buffer.getInt(8) != FORMAT_VERSION) {
+                throw new IOException("Unsupported click journal format " + buffer.getInt(8) + ": " + path);
+            }
+            int state = buffer.getInt(STATE_OFFSET);
+            if (state < 0 || state >= State.values().length) {
+                throw new IOException("Unknown click journal segment state " + state + ": " + path);
+            }
+
+            JournalSegment segment = new JournalSegment(path, channel, buffer,
+                    buffer.getLong(16), buffer.getLong(24), State.values()[state]);
+            segment.scan();
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a click.
+     *
+     * @param event the click
+     * @return false if the segment has no room left for it
+     */
+    boolean append(ClickEvent event) {
+        if (state != State.OPEN) {
+            throw new IllegalStateException("Click journal segment " + sequence + " is " + state);
+        }
+        byte[] code = event.code().getBytes(StandardCharsets.UTF_8);
+        byte[] referrer = event.referrer() == null ? null : event.referrer().getBytes(StandardCharsets.UTF_8);
+        int referrerLength = referrer == null ? 0 : referrer.length;
+
+        int offset = appendAt;
+        int length = align(RECORD_HEADER_SIZE + code.length + referrerLength);
+        if ((long) offset + length > buffer.capacity()) {
+            return false;
+        }
+
+        buffer.putLong(offset + 8, event.timestampMillis())
+                .putLong(offset + 16, event.linkId())
+                .putLong(offset + 24, event.userAgentHash())
+                .putLong(offset + 32, event.clientIpHash())
+                .putShort(offset + 40, (short) code.length)
+                .putShort(offset + 42, (short) (referrer == null ? -1 : referrer.length))
+                .put(offset + RECORD_HEADER_SIZE, code);
+        if (referrer != null) {
+            buffer.put(offset + RECORD_HEADER_SIZE + code.length, referrer);
+        }
+        buffer.putInt(offset + 4, recordCrc(offset, length));
+        buffer.putInt(offset, length);
+
+        records++;
+        appendAt = offset + length;
+        return true;
+    }
+
+    /**
+     * Reads all complete records in append order.
+     *
+     * @param consumer receives each click
+     */
+    void forEach(Consumer<ClickEvent> consumer) {
+        int end = appendAt;
+        for (int offset = HEADER_SIZE; offset < end; offset += buffer.getInt(offset)) {
+            consumer.accept(read(offset));
+        }
+    }
+
+    /**
+     * Writes the records appended since the last call to the storage device.
+     */
+    void force() {
+        forceLock.lock();
+        try {
+            int end = appendAt;
+            if (end > forcedTo && channel.isOpen()) {
+                buffer.force(forcedTo, end - forcedTo);
+                forcedTo = end;
+            }
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the segment for appends and makes it durable.
+     */
+    void seal() {
+        force();
+        buffer.putInt(END_OFFSET, appendAt);
+        setState(State.SEALED);
+    }
+
+    /**
+     * Records that the segment's clicks have been applied to the database.
+     */
+    void markCompacted() {
+        setState(State.COMPACTED);
+    }
+
+    /**
+     * @return sequence number of the segment within its journal
+     */
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return time the segment was created, in epoch milliseconds
+     */
+    long createdAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * @return current state of the segment
+     */
+    State state() {
+        return state;
+    }
+
+    /**
+     * @return number of complete records
+     */
+    int records() {
+        return records;
+    }
+
+    /**
+     * @return location of the segment file
+     */
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        forceLock.lock();
+        try {
+            channel.close();
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void setState(State next) {
+        forceLock.lock();
+        try {
+            buffer.putInt(STATE_OFFSET, next.ordinal());
+            buffer.force(0, HEADER_SIZE);
+            state = next;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the end of the complete records: the first empty, torn or corrupt record ends the segment.
+     */
+    private void scan() {
+        int offset = HEADER_SIZE;
+        int count = 0;
+        while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length < RECORD_HEADER_SIZE || length % Long.BYTES != 0 || (long) offset + length > buffer.capacity()
+                    || buffer.getInt(offset + 4) != recordCrc(offset, length)) {
+                break;
+            }
+            offset += length;
+            count++;
+        }
+        appendAt = offset;
+        forcedTo = offset;
+        records = count;
+    }
+
+    private ClickEvent read(int offset) {
+        int codeLength = buffer.getShort(offset + 40);
+        int referrerLength = buffer.getShort(offset + 42);
+        byte[] code = new byte[codeLength];
+        buffer.get(offset + RECORD_HEADER_SIZE, code);
+        String referrer = null;
+        if (referrerLength >= 0) {
+            byte[] bytes = new byte[referrerLength];
+            buffer.get(offset + RECORD_HEADER_SIZE + codeLength, bytes);
+            referrer = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new ClickEvent(
+                buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16),
+                new String(code, StandardCharsets.UTF_8),
+                referrer,
+                buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32));
+    }
+
+    private int recordCrc(int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 8, length - 8));
+        return (int) crc.getValue();
+    }
+
+    private static int align(int length) {
+        return (length + Long.BYTES - 1) & -Long.BYTES;
+    }
+}
@@ -0,0 +1,127 @@
+package com.lioness.urlcompressor.analytics;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * RingBuffer is a bounded, lock-free, multi-producer / single-consumer queue of pre-allocated slots,
+ * in the spirit of the LMAX Disruptor.
+ *
+ * A producer claims the next sequence with one CAS, fills the slot of that sequence in place and publishes it.
+ * Publication is tracked per slot (the lap in which it was last written), so producers never wait for each other
+ * and the consumer sees a slot only once it is completely written. The consumer takes every published slot in
+ * sequence order as one batch and only then frees them, so slots are never reused while being read.
+ *
+ * Slots are allocated once up front and reused, so publishing allocates nothing.
+ *
+ * @param <T> type of the mutable slot
+ */
+final class RingBuffer<T> {
+
+    private final Object[] slots;
+    private final int mask;
+    private final int capacity;
+
+    // Lap in which each slot was last published; -1 while never published
+    private final AtomicIntegerArray published;
+
+    // Highest sequence claimed by a producer
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    // Highest sequence the consumer has finished with; slots up to it may be reused
+    private volatile long consumed = -1;
+
+    /**
+     * Creates a buffer with all its slots.
+     *
+     * @param capacity number of slots, a power of two
+     * @param factory  creates one empty slot
+     */
+    RingBuffer(int capacity, Supplier<T> factory) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new Object[capacity];
+        this.published = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = factory.get();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Claims the next free sequence.
+     *
+     * @return the claimed sequence, or -1 if the buffer is full
+     */
+    long tryClaim() {
+        long current;
+        long next;
+        do {
+            current = claimed.get();
+            next = current + 1;
+            if (next - capacity > consumed) {
+                return -1;
+            }
+        } while (!claimed.compareAndSet(current, next));
+        return next;
+    }
+
+    /**
+     * @param sequence a claimed sequence
+     * @return the slot to fill in before publishing it
+     */
+    @SuppressWarnings("unchecked")
+    T slot(long sequence) {
+        return (T) slots[(int) sequence & mask];
+    }
+
+    /**
+     * Makes a filled slot visible to the consumer.
+     *
+     * @param sequence the claimed sequence
+     */
+    void publish(long sequence) {
+        published.set((int) sequence & mask, lap(sequence));
+    }
+
+    /**
+     * Hands every published slot after the last consumed one to the handler, in sequence order, then frees them.
+     * Must only be called by the single consumer thread.
+     *
+     * @param handler receives each slot; it must not throw or keep a reference to the slot
+     * @return number of slots consumed
+     */
+    int drain(Consumer<T> handler) {
+        long next = consumed + 1;
+        long sequence = next;
+        while (published.get((int) sequence & mask) == lap(sequence)) {
+            handler.accept(slot(sequence));
+            sequence++;
+        }
+        consumed = sequence - 1;
+        return (int) (sequence - next);
+    }
+
+    /**
+     * @return number of claimed slots not consumed yet
+     */
+    long depth() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+
+    /**
+     * @return number of slots
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    private int lap(long sequence) {
+        return (int) (sequence >>> Integer.numberOfTrailingZeros(capacity));
+    }
+}
@@ -0,0 +1,73 @@
+package com.lioness.urlcompressor.analytics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * VisitorHasher turns visitor attributes (client IP, User-Agent) into salted 64-bit hashes,
+ * so analytics can tell visitors apart without storing who they are.
+ *
+ * The hash is the first 8 bytes of SHA-256 over the salt and the value. The salt must be the same
+ * on all nodes and across restarts, otherwise the same visitor hashes differently.
+ */
+@Component
+public class VisitorHasher {
+
+    private final byte[] salt;
+
+    /**
+     * Creates the hasher.
+     *
+     * @param salt secret mixed into every hash
+     */
+    public VisitorHasher(@Value("${analytics.hash-salt:}") String salt) {
+        this.salt = salt.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hashes a visitor attribute.
+     *
+     * @param value the attribute, may be null
+     * @return the hash, or 0 for a missing value
+     */
+    public long hash(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        MessageDigest digest = sha256();
+        digest.update(salt);
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    /**
+     * Combines the hashes of a visitor's client IP and User-Agent into one visitor key.
+     * The key is uniformly distributed, as required by {@link HyperLogLog#add(long)}.
+     *
+     * @param clientIpHash  hash of the client IP
+     * @param userAgentHash hash of the User-Agent
+     * @return the visitor key
+     */
+    public static long visitorKey(long clientIpHash, long userAgentHash) {
+        // MurmurHash3 finalizer over both hashes
+        long key = clientIpHash ^ Long.rotateLeft(userAgentHash, 31) * 0x9E3779B97F4A7C15L;
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB93FE6E53A63L;
+        return key ^ (key >>> 33);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
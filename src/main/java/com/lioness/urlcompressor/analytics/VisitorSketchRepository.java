@@ -0,0 +1,111 @@
+package com.lioness.urlcompressor.analytics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * VisitorSketchRepository stores the {@link HyperLogLog} unique-visitor sketches of links:
+ * one lifetime sketch per link and one per link and day. Each row also keeps the sketch's estimate,
+ * so statistics read a number instead of decoding sketches.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VisitorSketchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Merges a sketch into the stored lifetime sketch of a link. Must run in a transaction:
+     * the stored sketch is locked while it is merged, so merges of several nodes do not overwrite each other.
+     *
+     * @param linkId the link
+     * @param delta  visitors seen since the last merge
+     */
+    void mergeLifetime(long linkId, HyperLogLog delta) {
+        Optional<HyperLogLog> stored = lock(
+                "SELECT sketch FROM link_manager.link_visitors WHERE link_id = ? FOR UPDATE", linkId);
+        HyperLogLog merged = stored.orElseGet(HyperLogLog::new);
+        merged.merge(delta);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        if (stored.isPresent()) {
+            jdbcTemplate.update("UPDATE link_manager.link_visitors SET sketch = ?, visitors = ?, updated_at = ? "
+                    + "WHERE link_id = ?", merged.toBytes(), merged.estimate(), now, linkId);
+        } else {
+            jdbcTemplate.update("INSERT INTO link_manager.link_visitors (link_id, sketch, visitors, updated_at) "
+                    + "VALUES (?, ?, ?, ?)", linkId, merged.toBytes(), merged.estimate(), now);
+        }
+    }
+
+    /**
+     * Merges a sketch into the stored sketch of a link and day, under the same rules as {@link #mergeLifetime}.
+     *
+     * @param linkId the link
+     * @param day    start of the day
+     * @param delta  visitors of that day seen since the last merge
+     */
+    void mergeDaily(long linkId, LocalDateTime day, HyperLogLog delta) {
+        Timestamp bucket = Timestamp.valueOf(day);
+        Optional<HyperLogLog> stored = lock("SELECT sketch FROM link_manager.link_visitors_daily "
+                + "WHERE link_id = ? AND bucket_start = ? FOR UPDATE", linkId, bucket);
+        HyperLogLog merged = stored.orElseGet(HyperLogLog::new);
+        merged.merge(delta);
+        if (stored.isPresent()) {
+            jdbcTemplate.update("UPDATE link_manager.link_visitors_daily SET sketch = ?, visitors = ? "
+                    + "WHERE link_id = ? AND bucket_start = ?", merged.toBytes(), merged.estimate(), linkId, bucket);
+        } else {
+            jdbcTemplate.update("INSERT INTO link_manager.link_visitors_daily (link_id, bucket_start, sketch, visitors) "
+                    + "VALUES (?, ?, ?, ?)", linkId, bucket, merged.toBytes(), merged.estimate());
+        }
+    }
+
+    /**
+     * Reads the lifetime estimates of several links.
+     *
+     * @param linkIds the links
+     * @return link id -> unique visitors; links without visitors are missing
+     */
+    Map<Long, Long> findVisitors(Collection<Long> linkIds) {
+        Map<Long, Long> visitors = new HashMap<>();
+        if (linkIds.isEmpty()) {
+            return visitors;
+        }
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(
+                "SELECT link_id, visitors FROM link_manager.link_visitors WHERE link_id IN (:ids)",
+                new MapSqlParameterSource("ids", linkIds),
+                rs -> {
+                    visitors.put(rs.getLong(1), rs.getLong(2));
+                });
+        return visitors;
+    }
+
+    /**
+     * Reads the daily sketches of a link within a range.
+     *
+     * @param linkId the link
+     * @param from   first day (inclusive)
+     * @param to     end of the range (exclusive)
+     * @return the sketches, in no particular order
+     */
+    List<HyperLogLog> findDaily(long linkId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("SELECT sketch FROM link_manager.link_visitors_daily "
+                        + "WHERE link_id = ? AND bucket_start >= ? AND bucket_start < ?",
+                (rs, rowNum) -> HyperLogLog.fromBytes(rs.getBytes(1)),
+                linkId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    private Optional<HyperLogLog> lock(String sql, Object... args) {
+        List<HyperLogLog> rows = jdbcTemplate.query(sql, (rs, rowNum) -> HyperLogLog.fromBytes(rs.getBytes(1)), args);
+        return rows.stream().findFirst();
+    }
+}
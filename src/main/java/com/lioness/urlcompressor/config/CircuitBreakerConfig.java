@@ -0,0 +1,34 @@
+package com.lioness.urlcompressor.config;
+
+import com.lioness.urlcompressor.util.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Declares the circuit breakers guarding database reads on paths that can keep working without the database.
+ */
+@Configuration
+public class CircuitBreakerConfig {
+
+    /**
+     * Circuit around link lookups of the redirect path (see {@link com.lioness.urlcompressor.url.LinkCache}).
+     * While it is open, cached and indexed links are still served and new lookups fail fast.
+     *
+     * @param meterRegistry     registry for circuit metrics
+     * @param failureThreshold  consecutive failed or slow lookups that open the circuit
+     * @param openDuration      how long the circuit stays open before a trial lookup
+     * @param slowCallThreshold lookups taking longer count as failed
+     * @return the circuit breaker
+     */
+    @Bean
+    public CircuitBreaker linkStoreCircuitBreaker(MeterRegistry meterRegistry,
+                                                  @Value("${link.store.circuit.failure-threshold:5}") int failureThreshold,
+                                                  @Value("${link.store.circuit.open-duration:10s}") Duration openDuration,
+                                                  @Value("${link.store.circuit.slow-call-threshold:1s}") Duration slowCallThreshold) {
+        return new CircuitBreaker("link-store", failureThreshold, openDuration, slowCallThreshold, meterRegistry);
+    }
+}
@@ -0,0 +1,67 @@
+package com.lioness.urlcompressor.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a {@link ConnectionLimitingDataSource} in front of the connection pool when requests and
+ * scheduled tasks run on virtual threads (spring.threads.virtual.enabled=true).
+ *
+ * The limit defaults to the Hikari pool size and the wait to its connection timeout,
+ * so the pool never sees more concurrent borrowers than it has connections.
+ * Set db.connection-limiter.enabled=false to hand virtual threads straight to the pool.
+ *
+ * Metrics: db.connections.limiter.available and db.connections.limiter.waiting.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "db.connection-limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class ConnectionLimiterConfig {
+
+    /**
+     * Wraps the application's data source once it has been initialized.
+     *
+     * @param environment   source of the limiter settings
+     * @param meterRegistry registry for limiter metrics, looked up lazily
+     * @return the post-processor
+     */
+    @Bean
+    static BeanPostProcessor connectionLimiterPostProcessor(Environment environment,
+                                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                int poolSize = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                long poolTimeout = bean instanceof HikariDataSource hikari ? hikari.getConnectionTimeout() : 30_000;
+
+                ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(dataSource,
+                        environment.getProperty("db.connection-limiter.max-connections", Integer.class, poolSize),
+                        environment.getProperty("db.connection-limiter.acquire-timeout-ms", Long.class, poolTimeout));
+
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("db.connections.limiter.available", limited, ConnectionLimitingDataSource::availablePermits)
+                            .description("Database connections that may still be borrowed")
+                            .register(registry);
+                    Gauge.builder("db.connections.limiter.waiting", limited, ConnectionLimitingDataSource::waitingThreads)
+                            .description("Threads waiting for a database connection")
+                            .register(registry);
+                });
+                return limited;
+            }
+        };
+    }
+}
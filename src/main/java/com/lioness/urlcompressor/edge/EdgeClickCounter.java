@@ -0,0 +1,104 @@
+package com.lioness.urlcompressor.edge;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * EdgeClickCounter buffers clicks on the edge tier and writes them in the background,
+ * like {@link com.lioness.urlcompressor.url.ClickCounter} does for the MVC API.
+ *
+ * Event-loop threads only merge a delta into a map. The flusher atomically takes each pending delta
+ * out of the map and writes them all with {@code click_count = click_count + ?} in one transaction.
+ * A failed or timed-out flush is rolled back as a whole, so its deltas are merged back without
+ * counting any click twice.
+ *
+ * Metrics: links.clicks.pending and links.clicks.flushed, as for the MVC API.
+ */
+@Slf4j
+public class EdgeClickCounter {
+
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(30);
+
+    private final EdgeLinkRepository linkRepository;
+    private final Counter flushedClicks;
+
+    // Serializes flushes (scheduled run vs. shutdown)
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Link id -> clicks not yet written
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the counter and registers its metrics.
+     *
+     * @param linkRepository repository applying the deltas
+     * @param meterRegistry  registry for flush metrics
+     */
+    public EdgeClickCounter(EdgeLinkRepository linkRepository, MeterRegistry meterRegistry) {
+        this.linkRepository = linkRepository;
+        this.flushedClicks = Counter.builder("links.clicks.flushed")
+                .description("Clicks written to the database by the background flusher")
+                .register(meterRegistry);
+        Gauge.builder("links.clicks.pending", pending, Map::size)
+                .description("Links with clicks not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a single click on a link. Never blocks and never touches the database.
+     *
+     * @param linkId identifier of the clicked link
+     */
+    public void record(Long linkId) {
+        pending.merge(linkId, 1L, Long::sum);
+    }
+
+    /**
+     * Periodically writes all pending clicks to the database. Runs on a scheduler thread, never on the event loop.
+     */
+    @Scheduled(fixedDelayString = "${link.clicks.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Long> deltas = new HashMap<>();
+            for (Long linkId : pending.keySet()) {
+                Long delta = pending.remove(linkId);
+                if (delta != null) {
+                    deltas.put(linkId, delta);
+                }
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                linkRepository.addClicks(deltas).block(FLUSH_TIMEOUT);
+                flushedClicks.increment(deltas.values().stream().mapToLong(Long::longValue).sum());
+            } catch (RuntimeException e) {
+                log.warn("Click flush failed, {} link counters re-queued: {}", deltas.size(), e.getMessage());
+                deltas.forEach((linkId, delta) -> pending.merge(linkId, delta, Long::sum));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the remaining deltas before the application shuts down.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing pending clicks before shutdown");
+        flush();
+    }
+}
@@ -0,0 +1,88 @@
+package com.lioness.urlcompressor.edge;
+
+import com.lioness.urlcompressor.url.RedirectPolicy;
+import com.lioness.urlcompressor.url.ResolvedLink;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * EdgeLinkRepository reads link_manager.short_links over R2DBC for the edge redirect tier.
+ * It only serves lookups by short URL and click increments; all writes of links stay with the MVC API.
+ */
+public class EdgeLinkRepository {
+
+    private static final String FIND_SQL = """
+            SELECT id, shortened_url, original_url, created_at, expires_at, user_id, version, redirect_policy
+            FROM link_manager.short_links
+            WHERE shortened_url = :shortUrl
+            """;
+
+    private static final String ADD_CLICKS_SQL =
+            "UPDATE link_manager.short_links SET click_count = click_count + :delta WHERE id = :id";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Creates the repository.
+     *
+     * @param databaseClient        non-blocking database access
+     * @param transactionalOperator transactions on the same connection factory as the database client
+     */
+    public EdgeLinkRepository(DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Looks up a link by its stored short URL.
+     *
+     * @param shortUrl the stored short URL (e.g. https://abc123)
+     * @return the link, or empty if it does not exist
+     */
+    public Mono<ResolvedLink> findByShortenedUrl(String shortUrl) {
+        return databaseClient.sql(FIND_SQL)
+                .bind("shortUrl", shortUrl)
+                .map(EdgeLinkRepository::toLink)
+                .one();
+    }
+
+    /**
+     * Adds click deltas to their links, one update per link, all in one transaction: either every delta
+     * is applied or, after a failure or a cancellation, none is.
+     *
+     * @param deltas link id -> clicks to add
+     * @return completion signal
+     */
+    public Mono<Void> addClicks(Map<Long, Long> deltas) {
+        return Flux.fromIterable(deltas.entrySet())
+                .concatMap(entry -> databaseClient.sql(ADD_CLICKS_SQL)
+                        .bind("delta", entry.getValue())
+                        .bind("id", entry.getKey())
+                        .fetch()
+                        .rowsUpdated())
+                .then()
+                .as(transactionalOperator::transactional);
+    }
+
+    private static ResolvedLink toLink(Readable row) {
+        Long version = row.get("version", Long.class);
+        String redirectPolicy = row.get("redirect_policy", String.class);
+        return new ResolvedLink(
+                row.get("id", Long.class),
+                row.get("shortened_url", String.class),
+                row.get("original_url", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("expires_at", LocalDateTime.class),
+                row.get("user_id", Long.class),
+                version != null ? version : 0L,
+                redirectPolicy != null ? RedirectPolicy.valueOf(redirectPolicy) : null
+        );
+    }
+}
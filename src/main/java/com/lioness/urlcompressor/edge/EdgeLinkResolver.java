@@ -0,0 +1,87 @@
+package com.lioness.urlcompressor.edge;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lioness.urlcompressor.url.ResolvedLink;
+import com.lioness.urlcompressor.url.ShortCodeValidator;
+import com.lioness.urlcompressor.url.ShortLinkGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * EdgeLinkResolver is the non-blocking counterpart of {@link com.lioness.urlcompressor.url.LinkResolver}.
+ *
+ * Codes map to stored short URLs exactly as in the MVC API ({@link ShortLinkGenerator#LINK_PREFIX} + code),
+ * and malformed codes are rejected by the same {@link ShortCodeValidator} before the cache is consulted.
+ * Lookups go through an asynchronous cache, so concurrent requests for the same code share one query,
+ * and unknown codes are cached as well. Edge nodes receive no invalidations from the MVC API,
+ * so entries are only trusted for a short TTL.
+ */
+public class EdgeLinkResolver {
+
+    private final EdgeLinkRepository linkRepository;
+    private final EdgeClickCounter clickCounter;
+    private final ShortCodeValidator codeValidator;
+
+    // Stored short URL -> link, or empty for an unknown code
+    private final AsyncCache<String, Optional<ResolvedLink>> links;
+
+    /**
+     * Creates the resolver and registers its cache metrics.
+     *
+     * @param linkRepository repository used on cache misses
+     * @param clickCounter   buffer for clicks
+     * @param codeValidator  check of codes before any lookup
+     * @param meterRegistry  registry for cache metrics
+     * @param maximumSize    maximum number of cached codes
+     * @param ttl            how long a cached lookup is trusted
+     */
+    public EdgeLinkResolver(EdgeLinkRepository linkRepository,
+                            EdgeClickCounter clickCounter,
+                            ShortCodeValidator codeValidator,
+                            MeterRegistry meterRegistry,
+                            long maximumSize,
+                            Duration ttl) {
+        this.linkRepository = linkRepository;
+        this.clickCounter = clickCounter;
+        this.codeValidator = codeValidator;
+        this.links = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, links.synchronous(), "links");
+    }
+
+    /**
+     * Resolves a short code to its target link.
+     *
+     * @param code the short code as it appears in the redirect path (e.g. abc123)
+     * @return the resolved link, or empty if the code is malformed or unknown
+     */
+    public Mono<ResolvedLink> resolve(String code) {
+        if (!codeValidator.accepts(code)) {
+            return Mono.empty();
+        }
+        String shortUrl = ShortLinkGenerator.LINK_PREFIX + code;
+        return Mono.fromFuture(() -> links.get(shortUrl, (key, executor) -> linkRepository.findByShortenedUrl(key)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .toFuture()), true)
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Records a click on a resolved link. The click is buffered in memory and written in the background.
+     *
+     * @param link the link that was followed
+     */
+    public void recordClick(ResolvedLink link) {
+        clickCounter.record(link.id());
+    }
+}
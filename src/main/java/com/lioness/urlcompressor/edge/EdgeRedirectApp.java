@@ -0,0 +1,161 @@
+package com.lioness.urlcompressor.edge;
+
+import com.lioness.urlcompressor.url.RedirectCaching;
+import com.lioness.urlcompressor.url.RedirectController;
+import com.lioness.urlcompressor.url.ShortCodeValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.ReactorResourceFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+/**
+ * Entry point of the edge redirect tier: a WebFlux application that only serves GET /{code},
+ * reading the same link_manager.short_links table over R2DBC.
+ *
+ * It runs on a small, fixed number of event-loop threads (edge.event-loop-threads) and starts none of
+ * the JDBC, JPA, Flyway or security infrastructure of the management API ({@code UrlCompressorApp}),
+ * which keeps serving the MVC controllers on its own nodes. The class is guarded by the "edge" profile,
+ * so the management API's component scan skips it.
+ */
+@Profile(EdgeRedirectApp.PROFILE)
+@EnableScheduling
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class,
+        FlywayAutoConfiguration.class,
+        R2dbcDataAutoConfiguration.class,
+        R2dbcRepositoriesAutoConfiguration.class,
+        ReactiveSecurityAutoConfiguration.class,
+        ReactiveUserDetailsServiceAutoConfiguration.class,
+        ReactiveManagementWebSecurityAutoConfiguration.class
+})
+public class EdgeRedirectApp {
+
+    /**
+     * Profile activating the edge tier and its application-edge.properties.
+     */
+    public static final String PROFILE = "edge";
+
+    /**
+     * Starts the edge redirect tier.
+     *
+     * @param args command-line arguments
+     */
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(EdgeRedirectApp.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE)
+                .run(args);
+    }
+
+    /**
+     * Gives the HTTP server its own event loop with a fixed number of threads.
+     *
+     * @param eventLoopThreads number of event-loop threads
+     * @return resources used by the embedded Netty server
+     */
+    @Bean
+    ReactorResourceFactory edgeResourceFactory(@Value("${edge.event-loop-threads:2}") int eventLoopThreads) {
+        ReactorResourceFactory resourceFactory = new ReactorResourceFactory();
+        resourceFactory.setUseGlobalResources(false);
+        resourceFactory.setLoopResourcesSupplier(() -> LoopResources.create("edge-http", eventLoopThreads, true));
+        return resourceFactory;
+    }
+
+    /**
+     * Serves the edge tier from Netty. Tomcat is on the classpath for the management API
+     * and would otherwise be picked for the reactive server as well.
+     *
+     * @param resourceFactory event-loop resources of the server
+     * @return the reactive web server factory
+     */
+    @Bean
+    NettyReactiveWebServerFactory edgeWebServerFactory(ReactorResourceFactory resourceFactory) {
+        NettyReactiveWebServerFactory serverFactory = new NettyReactiveWebServerFactory();
+        serverFactory.setResourceFactory(resourceFactory);
+        return serverFactory;
+    }
+
+    @Bean
+    EdgeLinkRepository edgeLinkRepository(ConnectionFactory connectionFactory) {
+        return new EdgeLinkRepository(DatabaseClient.create(connectionFactory),
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+    }
+
+    @Bean
+    EdgeClickCounter edgeClickCounter(EdgeLinkRepository linkRepository, MeterRegistry meterRegistry) {
+        return new EdgeClickCounter(linkRepository, meterRegistry);
+    }
+
+    @Bean
+    ShortCodeValidator shortCodeValidator(MeterRegistry meterRegistry,
+                                          @Value("${link.code.accept-legacy:true}") boolean acceptLegacy) {
+        return new ShortCodeValidator(meterRegistry, acceptLegacy);
+    }
+
+    @Bean
+    EdgeLinkResolver edgeLinkResolver(EdgeLinkRepository linkRepository,
+                                      EdgeClickCounter clickCounter,
+                                      ShortCodeValidator codeValidator,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${edge.cache.maximum-size:1000000}") long maximumSize,
+                                      @Value("${edge.cache.ttl:30s}") Duration ttl) {
+        return new EdgeLinkResolver(linkRepository, clickCounter, codeValidator, meterRegistry, maximumSize, ttl);
+    }
+
+    @Bean
+    RedirectCaching redirectCaching(@Value("${link.redirect.permanent-max-age:1d}") Duration permanentMaxAge,
+                                    @Value("${link.redirect.temporary-max-age:5m}") Duration temporaryMaxAge) {
+        return new RedirectCaching(permanentMaxAge, temporaryMaxAge);
+    }
+
+    @Bean
+    EdgeRedirectHandler edgeRedirectHandler(EdgeLinkResolver linkResolver, RedirectCaching redirectCaching) {
+        return new EdgeRedirectHandler(linkResolver, redirectCaching);
+    }
+
+    /**
+     * Routes GET /{code} to the redirect handler, with the same code pattern as the MVC API.
+     *
+     * @param handler the redirect handler
+     * @return the edge routes
+     */
+    @Bean
+    RouterFunction<ServerResponse> edgeRoutes(EdgeRedirectHandler handler) {
+        return RouterFunctions.route(GET("/{code:" + RedirectController.CODE_PATTERN + "}"), handler::redirect);
+    }
+}
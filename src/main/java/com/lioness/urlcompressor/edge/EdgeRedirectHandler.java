@@ -0,0 +1,55 @@
+package com.lioness.urlcompressor.edge;
+
+import com.lioness.urlcompressor.url.RedirectCaching;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * EdgeRedirectHandler answers GET /{code} on the edge tier with the same responses as
+ * {@link com.lioness.urlcompressor.url.RedirectController}: a redirect to the original URL as the link's
+ * {@link com.lioness.urlcompressor.url.RedirectPolicy} prescribes, 404 for an unknown code and 410 for an expired link.
+ */
+public class EdgeRedirectHandler {
+
+    private final EdgeLinkResolver linkResolver;
+    private final RedirectCaching redirectCaching;
+
+    /**
+     * Creates the handler.
+     *
+     * @param linkResolver    resolver of short codes
+     * @param redirectCaching Cache-Control policy of redirects
+     */
+    public EdgeRedirectHandler(EdgeLinkResolver linkResolver, RedirectCaching redirectCaching) {
+        this.linkResolver = linkResolver;
+        this.redirectCaching = redirectCaching;
+    }
+
+    /**
+     * Redirects to the original URL behind the short code in the path.
+     *
+     * @param request the request, with a "code" path variable
+     * @return 301, 302 or 307 with Location and Cache-Control headers, 404 if the code is unknown,
+     * or 410 if the link has expired
+     */
+    public Mono<ServerResponse> redirect(ServerRequest request) {
+        return linkResolver.resolve(request.pathVariable("code"))
+                .flatMap(link -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    if (link.isExpiredAt(now)) {
+                        return ServerResponse.status(HttpStatus.GONE).build();
+                    }
+                    linkResolver.recordClick(link);
+                    return ServerResponse.status(link.redirectPolicy().status())
+                            .header(HttpHeaders.LOCATION, link.originalUrl())
+                            .cacheControl(redirectCaching.cacheControl(link, now))
+                            .build();
+                })
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.notFound().build()));
+    }
+}
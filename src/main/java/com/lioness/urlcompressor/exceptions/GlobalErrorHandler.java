@@ -1,5 +1,7 @@
 package com.lioness.urlcompressor.exceptions;
 
+import com.lioness.urlcompressor.util.CircuitOpenException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -30,6 +32,22 @@ public class GlobalErrorHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles requests that need the database while its circuit is open or while it is too slow to answer.
+     *
+     * @param ex the exception thrown instead of waiting for the database
+     * @return a structured error response with HTTP 503 Service Unavailable
+     */
+    @ExceptionHandler({CircuitOpenException.class, QueryTimeoutException.class})
+    public ResponseEntity<ApiErrorResponse> handleCircuitOpen(RuntimeException ex) {
+        ApiErrorResponse errorResponse = new ApiErrorResponse(
+                "Service temporarily unavailable. Please try again later.",
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     /**
      * Handles all other unexpected exceptions that are not explicitly caught elsewhere.
      *
@@ -0,0 +1,28 @@
+package com.lioness.urlcompressor.security;
+
+import com.lioness.urlcompressor.user.Role;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * AuthenticatedUser is the principal published in the SecurityContext for a verified JWT.
+ * It carries everything services need about the caller, so a token is verified once per request
+ * and never parsed again further down the call chain.
+ *
+ * @param id    the user's id (null for tokens issued before the id claim was added)
+ * @param login the user's login (JWT subject)
+ * @param role  the user's role
+ */
+public record AuthenticatedUser(Long id, String login, Role role) implements Principal, Serializable {
+
+    /**
+     * Returns the login, so Authentication#getName() keeps returning the username.
+     *
+     * @return the user's login
+     */
+    @Override
+    public String getName() {
+        return login;
+    }
+}
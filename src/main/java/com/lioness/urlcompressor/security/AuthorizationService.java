@@ -3,6 +3,8 @@ package com.lioness.urlcompressor.security;
 import com.lioness.urlcompressor.user.UserEntity;
 import com.lioness.urlcompressor.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -10,7 +12,7 @@ import java.util.Optional;
 /**
  * AuthorizationService provides logic to authenticate users based on JWT tokens.
  * It is used to extract and validate tokens from the Authorization header,
- * and fetch the corresponding UserEntity from the database.
+ * and resolve the corresponding user, either as a cached principal or as a UserEntity.
  */
 @Service
 @RequiredArgsConstructor
@@ -22,6 +24,9 @@ public class AuthorizationService {
     // Utility for extracting and validating JWT tokens
     private final JwtTokenProvider tokenProvider;
 
+    // Cached login -> principal lookups
+    private final PrincipalCache principalCache;
+
     /**
      * Retrieves the authorized user from the Authorization header if the token is valid.
      *
@@ -29,16 +34,46 @@ public class AuthorizationService {
      * @return Optional containing the UserEntity if authenticated; empty otherwise
      */
     public Optional<UserEntity> getAuthorizedUser(String authorizationHeader) {
+        return getAuthenticatedUser(authorizationHeader)
+                .flatMap(user -> userRepository.findByLoginIgnoreCase(user.login()));
+    }
+
+    /**
+     * Retrieves the authorized user's principal (id, login, role) from the Authorization header.
+     * The user is looked up through {@link PrincipalCache}, so repeated calls do not query the database.
+     *
+     * @param authorizationHeader the HTTP Authorization header (usually "Bearer <token>")
+     * @return Optional containing the principal if authenticated and the user still exists; empty otherwise
+     */
+    public Optional<AuthenticatedUser> getAuthorizedPrincipal(String authorizationHeader) {
+        return getAuthenticatedUser(authorizationHeader)
+                .flatMap(user -> principalCache.find(user.login()));
+    }
+
+    /**
+     * Resolves the caller behind the Authorization header without touching the database.
+     * If JwtAuthFilter has already verified this exact token for the current request,
+     * its principal is reused and the token is not parsed a second time.
+     *
+     * @param authorizationHeader the HTTP Authorization header (usually "Bearer <token>")
+     * @return Optional containing the authenticated user; empty if the token is missing or invalid
+     */
+    public Optional<AuthenticatedUser> getAuthenticatedUser(String authorizationHeader) {
         // Extract token from "Bearer ..." header
         String token = tokenProvider.extractTokenFromHeader(authorizationHeader);
+        if (token == null) {
+            return Optional.empty();
+        }
 
-        // Validate token and retrieve user if valid
-        if (token != null && tokenProvider.validateToken(token)) {
-            String username = tokenProvider.extractUsernameFromToken(token);
-            return userRepository.findByLoginIgnoreCase(username);
+        // Reuse the principal published by the filter for the same token
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && token.equals(authentication.getCredentials())) {
+            return Optional.of(user);
         }
 
-        // Return empty if token is missing or invalid
-        return Optional.empty();
+        // Otherwise verify the token once
+        return tokenProvider.verify(token);
     }
 }
@@ -1,6 +1,6 @@
 package com.lioness.urlcompressor.security;
 
-import com.lioness.urlcompressor.user.Role;
+import com.lioness.urlcompressor.url.RedirectController;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,11 +17,12 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * JwtAuthFilter is a custom Spring Security filter that processes incoming HTTP requests,
- * extracts the JWT token from the Authorization header, validates it,
- * and sets the user details in the SecurityContext if the token is valid.
+ * extracts the JWT token from the Authorization header, verifies it once,
+ * and sets an {@link AuthenticatedUser} principal in the SecurityContext if the token is valid.
  */
 @Component
 @RequiredArgsConstructor
@@ -30,6 +31,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
 
+    /**
+     * Skips token processing for public short link redirects, which never need an authenticated user.
+     *
+     * @param request the HTTP request
+     * @return true if the request targets the redirect endpoint
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) && RedirectController.isRedirectPath(request.getServletPath());
+    }
+
     /**
      * This method is called once per request to perform filtering logic.
      * It attempts to extract and validate a JWT token, and populate the SecurityContext.
@@ -52,29 +64,26 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = jwtTokenProvider.extractTokenFromHeader(authHeader);
 
-            // Validate the extracted token
-            if (jwtTokenProvider.validateToken(token)) {
-                String username = jwtTokenProvider.extractUsernameFromToken(token);
-                Role role = jwtTokenProvider.extractRoleFromToken(token);
-
-                if (username != null && role != null) {
-                    // Create authority based on user role
-                    List<SimpleGrantedAuthority> authorities = Collections.singletonList(
-                            new SimpleGrantedAuthority("ROLE_" + role)
-                    );
+            // Verify the token once and publish everything it carries as the principal
+            Optional<AuthenticatedUser> user = jwtTokenProvider.verify(token);
+            if (user.isPresent()) {
+                // Create authority based on user role
+                List<SimpleGrantedAuthority> authorities = Collections.singletonList(
+                        new SimpleGrantedAuthority("ROLE_" + user.get().role())
+                );
 
-                    // Create authenticated token
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(username, null, authorities);
+                // Create authenticated token; the raw token is kept as credentials
+                // so downstream services can recognise an already verified header
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(user.get(), token, authorities);
 
-                    // Attach request details to the authentication token
-                    authentication.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
+                // Attach request details to the authentication token
+                authentication.setDetails(
+                        new WebAuthenticationDetailsSource().buildDetails(request)
+                );
 
-                    // Set authentication in the security context
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
+                // Set authentication in the security context
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             } else {
                 log.warn("Invalid JWT token");
             }
@@ -14,10 +14,14 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.Optional;
 
 /**
  * JwtTokenProvider handles creation, validation, and parsing of JWT tokens.
  * It supports both access tokens and refresh tokens with configurable lifetimes.
+ *
+ * The signing key and the parser are built once and reused; {@link #verify(String)} and {@link #verifyToken(String)}
+ * check the signature a single time and return everything the token carries.
  */
 @Service
 @Slf4j
@@ -33,13 +37,41 @@ public class JwtTokenProvider {
     // Refresh token validity duration: 7 days
     private static final long REFRESH_EXPIRATION = 7 * 24 * 60 * 60 * 1000L;
 
+    // Claim names embedded in every token
+    private static final String ROLE_CLAIM = "role";
+    private static final String USER_ID_CLAIM = "uid";
+
+    // Decoded signing key and reusable parser, built lazily from the secret on first use
+    private volatile Key signingKey;
+    private volatile JwtParser parser;
+
     /**
      * Converts the Base64 secret into a cryptographic key for signing/verifying JWTs.
+     * The key is decoded only once.
      *
      * @return signing key
      */
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+        Key key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+            signingKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Returns the shared, thread-safe parser bound to the signing key.
+     *
+     * @return JWT parser
+     */
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
     }
 
     /**
@@ -50,18 +82,19 @@ public class JwtTokenProvider {
      * @return signed JWT access token
      */
     public String generateToken(String username, Role role) {
-        Claims claims = Jwts.claims().setSubject(username);
-        claims.put("role", role.name());
-
-        Instant now = Instant.now();
-        Instant expiration = now.plusMillis(EXPIRATION_TIME);
+        return generateToken(null, username, role);
+    }
 
-        return Jwts.builder()
-                .setClaims(claims)
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+    /**
+     * Generates an access token for a user with an embedded id and role.
+     *
+     * @param userId   the user's id (may be null)
+     * @param username the user's login/username
+     * @param role     the user's role
+     * @return signed JWT access token
+     */
+    public String generateToken(Long userId, String username, Role role) {
+        return buildToken(userId, username, role, EXPIRATION_TIME);
     }
 
     /**
@@ -72,11 +105,33 @@ public class JwtTokenProvider {
      * @return signed JWT refresh token
      */
     public String generateRefreshToken(String username, Role role) {
+        return generateRefreshToken(null, username, role);
+    }
+
+    /**
+     * Generates a refresh token for a user with an embedded id and a longer expiration period.
+     *
+     * @param userId   the user's id (may be null)
+     * @param username the user's login/username
+     * @param role     the user's role
+     * @return signed JWT refresh token
+     */
+    public String generateRefreshToken(Long userId, String username, Role role) {
+        return buildToken(userId, username, role, REFRESH_EXPIRATION);
+    }
+
+    /**
+     * Builds and signs a token with the given lifetime.
+     */
+    private String buildToken(Long userId, String username, Role role, long lifetimeMillis) {
         Claims claims = Jwts.claims().setSubject(username);
-        claims.put("role", role.name());
+        claims.put(ROLE_CLAIM, role.name());
+        if (userId != null) {
+            claims.put(USER_ID_CLAIM, userId);
+        }
 
         Instant now = Instant.now();
-        Instant expiration = now.plusMillis(REFRESH_EXPIRATION);
+        Instant expiration = now.plusMillis(lifetimeMillis);
 
         return Jwts.builder()
                 .setClaims(claims)
@@ -87,24 +142,54 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Validates the token's structure, signature, and expiration.
+     * Verifies the token's signature and expiration once and returns the user it was issued for.
      *
      * @param token the JWT string
-     * @return true if the token is valid; false otherwise
+     * @return Optional containing the authenticated user, or empty if the token is invalid
      */
-    public boolean validateToken(String token) {
+    public Optional<AuthenticatedUser> verify(String token) {
+        return verifyToken(token).map(VerifiedToken::user);
+    }
+
+    /**
+     * Verifies the token's signature and expiration once and returns the user together with the expiration.
+     *
+     * @param token the JWT string
+     * @return Optional containing the verified token, or empty if the token is invalid
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
+            Claims claims = getParser().parseClaimsJws(token).getBody();
+            Object role = claims.get(ROLE_CLAIM);
+            if (claims.getSubject() == null || role == null || claims.getExpiration() == null) {
+                return Optional.empty();
+            }
+            Object userId = claims.get(USER_ID_CLAIM);
+            AuthenticatedUser user = new AuthenticatedUser(
+                    userId instanceof Number number ? number.longValue() : null,
+                    claims.getSubject(),
+                    Role.valueOf(role.toString())
+            );
+            return Optional.of(new VerifiedToken(user, claims.getExpiration().toInstant()));
+        } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
-            return false;
+            return Optional.empty();
         }
     }
 
+    /**
+     * Validates the token's structure, signature, and expiration.
+     *
+     * @param token the JWT string
+     * @return true if the token is valid; false otherwise
+     */
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
     /**
      * Extracts the username (subject) from the JWT.
      *
@@ -112,9 +197,7 @@ public class JwtTokenProvider {
      * @return username
      */
     public String extractUsernameFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return getParser()
                 .parseClaimsJws(token)
                 .getBody()
                 .getSubject();
@@ -127,12 +210,10 @@ public class JwtTokenProvider {
      * @return role as an enum value
      */
     public Role extractRoleFromToken(String token) {
-        String role = (String) Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        String role = (String) getParser()
                 .parseClaimsJws(token)
                 .getBody()
-                .get("role");
+                .get(ROLE_CLAIM);
         return Role.valueOf(role);
     }
 
@@ -144,9 +225,7 @@ public class JwtTokenProvider {
      */
     public Duration getTokenTTL(String token) {
         try {
-            Date expiration = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
+            Date expiration = getParser()
                     .parseClaimsJws(token)
                     .getBody()
                     .getExpiration();
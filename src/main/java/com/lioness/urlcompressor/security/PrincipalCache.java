@@ -0,0 +1,120 @@
+package com.lioness.urlcompressor.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lioness.urlcompressor.user.UserRepository;
+import com.lioness.urlcompressor.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * PrincipalCache keeps a bounded, short-lived map from login to {@link AuthenticatedUser},
+ * so authenticated API calls do not look the user up in the database on every request.
+ *
+ * Entries expire after a configurable TTL and are evicted explicitly whenever a user
+ * is updated (e.g. a role change) or deleted, see {@link UserEntityListener}.
+ * Concurrent misses on the same login share one database lookup through a {@link SingleFlight}.
+ * Hit and miss counters are published to Micrometer with cache=principals.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+
+    // Lower-cased login -> lightweight principal
+    private final Cache<String, AuthenticatedUser> principals;
+
+    // Database lookups in flight, per cache key
+    private final SingleFlight<String, Optional<AuthenticatedUser>> loads;
+
+    /**
+     * Creates the cache with configurable bounds and registers its metrics.
+     *
+     * @param userRepository repository used on cache misses
+     * @param meterRegistry  registry for hit/miss/eviction metrics
+     * @param maximumSize    maximum number of cached principals
+     * @param ttl            how long a cached principal is trusted
+     * @param loadTimeout    how long a miss waits for a concurrent lookup of the same login
+     */
+    public PrincipalCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${auth.principal-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${auth.principal-cache.ttl:5m}") Duration ttl,
+                          @Value("${auth.principal-cache.load-timeout:2s}") Duration loadTimeout) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.loads = new SingleFlight<>("principals", loadTimeout, meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+    }
+
+    /**
+     * Finds the principal for a login, consulting the cache before the database.
+     * Unknown logins are not cached, so a newly registered user is visible immediately.
+     *
+     * @param login the user's login (case-insensitive)
+     * @return Optional containing the principal, or empty if the user does not exist
+     */
+    public Optional<AuthenticatedUser> find(String login) {
+        if (login == null || login.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String key = key(login);
+        AuthenticatedUser cached = principals.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        return loads.load(key, () -> {
+            Optional<AuthenticatedUser> loaded = userRepository.findByLoginIgnoreCase(login)
+                    .map(user -> new AuthenticatedUser(user.getId(), user.getLogin(), user.getRole()));
+            loaded.ifPresent(user -> principals.put(key, user));
+            return loaded;
+        });
+    }
+
+    /**
+     * Removes a login from the cache, immediately and again once the current transaction commits.
+     * The second pass drops any stale copy another request may have loaded before the change was committed.
+     *
+     * @param login the user's login
+     */
+    public void evict(String login) {
+        if (login == null) {
+            return;
+        }
+        String key = key(login);
+        loads.forget(key);
+        principals.invalidate(key);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    loads.forget(key);
+                    principals.invalidate(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Normalizes a login into a cache key, matching the case-insensitive lookup.
+     */
+    private static String key(String login) {
+        return login.toLowerCase(Locale.ROOT);
+    }
+}
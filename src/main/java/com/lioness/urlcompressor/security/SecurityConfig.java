@@ -1,17 +1,21 @@
 package com.lioness.urlcompressor.security;
 
+import com.lioness.urlcompressor.url.RedirectController;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RegexRequestMatcher;
 
 /**
  * SecurityConfig sets up the main Spring Security configuration for the application.
@@ -64,6 +68,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/admin/**")
                         .hasRole("ADMIN")
 
+                        // Actuator: health is public, metrics are admin-only
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // All other requests require authentication
                         .anyRequest().authenticated()
                 )
@@ -79,6 +87,19 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * Excludes the public short link redirect (GET /{code}) from the security filter chain entirely.
+     * Redirects carry no credentials, so skipping the chain keeps the hot path free of security overhead.
+     *
+     * @return customizer that ignores redirect requests
+     */
+    @Bean
+    public WebSecurityCustomizer redirectSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(
+                RegexRequestMatcher.regexMatcher(HttpMethod.GET, "^/" + RedirectController.CODE_PATTERN + "$")
+        );
+    }
+
     /**
      * Provides a password encoder bean using BCrypt hashing algorithm.
      *
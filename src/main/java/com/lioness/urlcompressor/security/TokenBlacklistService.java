@@ -1,6 +1,7 @@
 package com.lioness.urlcompressor.security;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,6 +14,7 @@ import java.time.Duration;
  * It allows tokens to be marked as invalid (e.g., after logout or token rotation),
  * and automatically cleans up expired entries on a schedule.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class TokenBlacklistService {
@@ -28,16 +30,13 @@ public class TokenBlacklistService {
     public void blacklist(String token, Duration ttl) {
         LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
 
-        System.out.println("📌 Adding token to blacklist: " + token);
-        System.out.println("📅 Will expire at: " + expiresAt);
-
         BlacklistedToken blacklistedToken = BlacklistedToken.builder()
                 .token(token)
                 .expiresAt(expiresAt)
                 .build();
 
         blacklistedTokenRepository.save(blacklistedToken);
-        System.out.println("✅ Token successfully saved to database!");
+        log.debug("Token blacklisted until {}", expiresAt);
     }
 
     /**
@@ -47,7 +46,6 @@ public class TokenBlacklistService {
      * @return true if the token is blacklisted, false otherwise
      */
     public boolean isBlacklisted(String token) {
-        System.out.println("🔎 Checking if token is blacklisted: " + token);
         return blacklistedTokenRepository.existsByToken(token);
     }
 
@@ -0,0 +1,33 @@
+package com.lioness.urlcompressor.security;
+
+import com.lioness.urlcompressor.user.UserEntity;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * UserEntityListener evicts cached principals whenever a user row changes or disappears,
+ * so a role change or a deletion takes effect on the next request instead of after the cache TTL.
+ *
+ * Hibernate instantiates it through Spring's bean container; the cache is looked up lazily
+ * because the listener is created while the EntityManagerFactory is still being built.
+ */
+public class UserEntityListener {
+
+    private final ObjectProvider<PrincipalCache> principalCache;
+
+    public UserEntityListener(ObjectProvider<PrincipalCache> principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    /**
+     * Called after a user is updated or deleted.
+     *
+     * @param user the affected user
+     */
+    @PostUpdate
+    @PostRemove
+    public void evict(UserEntity user) {
+        principalCache.ifAvailable(cache -> cache.evict(user.getLogin()));
+    }
+}
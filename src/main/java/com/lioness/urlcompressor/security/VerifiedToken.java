@@ -0,0 +1,22 @@
+package com.lioness.urlcompressor.security;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * VerifiedToken is the result of a single verification of a JWT: the user it was issued for and when it expires.
+ * Used where the token itself is handled further (e.g. blacklisted on refresh), so it never has to be parsed again.
+ *
+ * @param user      the user the token was issued for
+ * @param expiresAt expiration of the token
+ */
+public record VerifiedToken(AuthenticatedUser user, Instant expiresAt) {
+
+    /**
+     * @return time left until the token expires, never negative
+     */
+    public Duration timeToLive() {
+        Duration left = Duration.between(Instant.now(), expiresAt);
+        return left.isNegative() ? Duration.ZERO : left;
+    }
+}
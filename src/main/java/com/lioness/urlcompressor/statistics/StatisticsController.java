@@ -2,9 +2,12 @@ package com.lioness.urlcompressor.statistics;
 
 import com.lioness.urlcompressor.url.dto.UrlRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+
 /**
  * StatisticsController exposes endpoints for retrieving statistics related to shortened URLs.
  * It allows authenticated users to get total clicks, active links, and all their URLs.
@@ -17,32 +20,46 @@ public class StatisticsController {
     private final StatisticsService statisticsService;
 
     /**
-     * Retrieves a list of all shortened URLs owned by the authenticated user.
+     * Retrieves click and link totals for all shortened URLs owned by the authenticated user,
+     * plus one page of per-URL statistics unless {@code details=false}.
      *
-     * @param header the Authorization header containing the JWT token
-     * @return a response containing all user URLs and related metadata
+     * @param details whether to include per-URL statistics
+     * @param cursor  cursor of the page of per-URL statistics (omit for the first page)
+     * @param size    page size of per-URL statistics (optional, capped by the server)
+     * @param header  the Authorization header containing the JWT token
+     * @return a response containing user URL totals and related metadata
      */
     @GetMapping("/all")
     public ResponseEntity<StatisticsResponse> getUserUrls(
+            @RequestParam(defaultValue = "true") boolean details,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             @RequestHeader(value = "Authorization", defaultValue = "") String header) {
         UrlRequest request = new UrlRequest();
         request.setAuthHeader(header);
-        StatisticsResponse response = statisticsService.getAllUserUrls(request);
+        StatisticsResponse response = statisticsService.getAllUserUrls(request, details, cursor, size);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
     /**
-     * Retrieves only active (non-expired) shortened URLs owned by the user.
+     * Retrieves totals for the active (non-expired) shortened URLs owned by the user,
+     * plus one page of per-URL statistics unless {@code details=false}.
      *
-     * @param header the Authorization header containing the JWT token
-     * @return a response containing a list of active URLs
+     * @param details whether to include per-URL statistics
+     * @param cursor  cursor of the page of per-URL statistics (omit for the first page)
+     * @param size    page size of per-URL statistics (optional, capped by the server)
+     * @param header  the Authorization header containing the JWT token
+     * @return a response containing active URL totals
      */
     @GetMapping("/active")
     public ResponseEntity<StatisticsResponse> getActiveUserUrls(
+            @RequestParam(defaultValue = "true") boolean details,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             @RequestHeader(value = "Authorization", defaultValue = "") String header) {
         UrlRequest request = new UrlRequest();
         request.setAuthHeader(header);
-        StatisticsResponse response = statisticsService.getActiveUserUrls(request);
+        StatisticsResponse response = statisticsService.getActiveUserUrls(request, details, cursor, size);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
@@ -61,4 +78,26 @@ public class StatisticsController {
         StatisticsResponse response = statisticsService.getShortUrlClicks(request);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
+
+    /**
+     * Retrieves the clicks of a shortened URL over time, one bucket per minute, hour or day.
+     * Minute timelines cover only the last couple of hours.
+     *
+     * @param shortUrl    the short URL
+     * @param granularity minute, hour or day
+     * @param from        start of the range, ISO date-time (optional)
+     * @param to          end of the range, exclusive, ISO date-time (optional, defaults to now)
+     * @param header      the Authorization header containing the JWT token
+     * @return a response with the click timeline
+     */
+    @GetMapping("/timeline")
+    public ResponseEntity<TimelineResponse> getTimeline(
+            @RequestParam String shortUrl,
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = "Authorization", defaultValue = "") String header) {
+        TimelineResponse response = statisticsService.getTimeline(shortUrl, granularity, from, to, header);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
 }
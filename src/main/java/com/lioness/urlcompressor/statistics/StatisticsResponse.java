@@ -18,9 +18,15 @@ public class StatisticsResponse {
     // Total number of clicks across all user's shortened URLs
     private Long totalClicks;
 
-    // List of shortened URLs with their individual statistics
+    // Number of shortened URLs the totals were computed over
+    private Long totalLinks;
+
+    // One page of shortened URLs with their individual statistics (omitted when only totals are requested)
     private List<StatsUrlDto> urlList;
 
+    // Cursor of the next page of urlList, if there is one
+    private String nextCursor;
+
     // Optional info message for user feedback or error reporting
     private String infoMessage;
 
@@ -63,6 +69,19 @@ public class StatisticsResponse {
         return new StatisticsResponse(totalClicks, urlList, HttpStatus.OK);
     }
 
+    /**
+     * Static factory for building a totals-only response; details can be attached afterwards.
+     *
+     * @param totalClicks the total click count
+     * @param totalLinks  the number of links counted
+     * @return a success StatisticsResponse with HTTP 200 OK and no URL list
+     */
+    public static StatisticsResponse success(long totalClicks, long totalLinks) {
+        StatisticsResponse response = new StatisticsResponse(totalClicks, null, HttpStatus.OK);
+        response.setTotalLinks(totalLinks);
+        return response;
+    }
+
     /**
      * Static factory for building a failed response.
      *
@@ -1,9 +1,17 @@
 package com.lioness.urlcompressor.statistics;
 
+import com.lioness.urlcompressor.analytics.ClickBucket;
+import com.lioness.urlcompressor.analytics.ClickRollups;
+import com.lioness.urlcompressor.analytics.Granularity;
+import com.lioness.urlcompressor.analytics.UniqueVisitors;
+import com.lioness.urlcompressor.security.AuthenticatedUser;
 import com.lioness.urlcompressor.security.AuthorizationService;
+import com.lioness.urlcompressor.url.LinkCursor;
+import com.lioness.urlcompressor.url.LinkFilter;
 import com.lioness.urlcompressor.url.LinkRepository;
+import com.lioness.urlcompressor.url.LinkSlice;
+import com.lioness.urlcompressor.url.LinkTotals;
 import com.lioness.urlcompressor.url.UrlEntity;
-import com.lioness.urlcompressor.user.UserEntity;
 import com.lioness.urlcompressor.url.dto.UrlRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -13,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,59 +32,68 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class StatisticsService {
 
+    // Upper bound of buckets per timeline, so a request cannot ask for years of minutes
+    static final int MAX_TIMELINE_POINTS = 1440;
+
     private final LinkRepository linkRepository;
     private final AuthorizationService authorizationService;
+    private final ClickRollups clickRollups;
+    private final UniqueVisitors uniqueVisitors;
 
     /**
-     * Returns all shortened URLs belonging to the authenticated user,
-     * along with the total number of clicks.
+     * Returns the click and link totals of the authenticated user, optionally with one page
+     * of per-link details (newest first). Totals are aggregated by the database in one query.
      *
      * @param request the request containing the Authorization header
+     * @param details whether to include a page of per-link statistics
+     * @param cursor  cursor of the detail page (null for the first page)
+     * @param size    detail page size (null for the default)
      * @return a response with URL statistics or an error message
      */
-    @Transactional
-    public StatisticsResponse getAllUserUrls(UrlRequest request) {
-        Optional<UserEntity> userOpt = authorizationService.getAuthorizedUser(request.getAuthHeader());
+    @Transactional(readOnly = true)
+    public StatisticsResponse getAllUserUrls(UrlRequest request, boolean details, String cursor, Integer size) {
+        Optional<AuthenticatedUser> userOpt = authorizationService.getAuthorizedPrincipal(request.getAuthHeader());
 
         if (userOpt.isEmpty()) {
             return StatisticsResponse.failed("User is not authenticated", HttpStatus.UNAUTHORIZED);
         }
 
-        List<UrlEntity> urls = linkRepository.findByOwner(userOpt.get());
+        LinkTotals totals = linkRepository.aggregateByOwner(userOpt.get().id(), LocalDateTime.now());
 
-        if (urls.isEmpty()) {
+        if (totals.linkCount() == 0) {
             return StatisticsResponse.failed("No URLs found", HttpStatus.NOT_FOUND);
         }
 
-        List<StatsUrlDto> list = convertUrlsToDto(urls);
-        long totalClicks = list.stream().map(StatsUrlDto::getClicks).reduce(0L, Long::sum);
-        return StatisticsResponse.success(totalClicks, list);
+        return withDetails(StatisticsResponse.success(totals.totalClicks(), totals.linkCount()),
+                userOpt.get(), LinkFilter.ALL, details, cursor, size);
     }
 
     /**
-     * Returns only active (non-expired) shortened URLs for the user,
-     * along with the total click count.
+     * Returns the click and link totals of the user's active (non-expired) URLs,
+     * optionally with one page of per-link details (newest first).
      *
      * @param request the request with authorization info
-     * @return a list of active URLs or an error response
+     * @param details whether to include a page of per-link statistics
+     * @param cursor  cursor of the detail page (null for the first page)
+     * @param size    detail page size (null for the default)
+     * @return active URL statistics or an error response
      */
-    @Transactional
-    public StatisticsResponse getActiveUserUrls(UrlRequest request) {
-        Optional<UserEntity> userOpt = authorizationService.getAuthorizedUser(request.getAuthHeader());
+    @Transactional(readOnly = true)
+    public StatisticsResponse getActiveUserUrls(UrlRequest request, boolean details, String cursor, Integer size) {
+        Optional<AuthenticatedUser> userOpt = authorizationService.getAuthorizedPrincipal(request.getAuthHeader());
 
         if (userOpt.isEmpty()) {
             return StatisticsResponse.failed("Authorization failed", HttpStatus.UNAUTHORIZED);
         }
 
-        List<UrlEntity> urls = linkRepository.findByOwner(userOpt.get());
+        LinkTotals totals = linkRepository.aggregateByOwner(userOpt.get().id(), LocalDateTime.now());
 
-        if (urls.isEmpty()) {
+        if (totals.linkCount() == 0) {
             return StatisticsResponse.failed("No active URLs found", HttpStatus.NOT_FOUND);
         }
 
-        List<StatsUrlDto> activeUrls = filterActiveUrls(urls);
-        long totalClicks = activeUrls.stream().map(StatsUrlDto::getClicks).reduce(0L, Long::sum);
-        return StatisticsResponse.success(totalClicks, activeUrls);
+        return withDetails(StatisticsResponse.success(totals.activeClicks(), totals.activeCount()),
+                userOpt.get(), LinkFilter.ACTIVE, details, cursor, size);
     }
 
     /**
@@ -84,9 +102,9 @@ public class StatisticsService {
      * @param request contains the short URL and Authorization token
      * @return total click count or error message
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public StatisticsResponse getShortUrlClicks(UrlRequest request) {
-        Optional<UserEntity> userOpt = authorizationService.getAuthorizedUser(request.getAuthHeader());
+        Optional<AuthenticatedUser> userOpt = authorizationService.getAuthorizedPrincipal(request.getAuthHeader());
 
         if (userOpt.isEmpty()) {
             return StatisticsResponse.failed("Invalid or missing token", HttpStatus.UNAUTHORIZED);
@@ -102,47 +120,125 @@ public class StatisticsService {
         return StatisticsResponse.success(url.getClickCount(), null);
     }
 
+    /**
+     * Returns the clicks of one of the user's links over time, read from the click rollups.
+     * Without bounds the timeline ends now and covers the default range of the granularity.
+     *
+     * @param shortUrl    the stored short URL
+     * @param granularity MINUTE, HOUR or DAY (case-insensitive)
+     * @param from        start of the range (null for the default range)
+     * @param to          end of the range, exclusive (null for now)
+     * @param authHeader  the Authorization header
+     * @return the timeline or an error response
+     */
+    @Transactional(readOnly = true)
+    public TimelineResponse getTimeline(String shortUrl, String granularity,
+                                        LocalDateTime from, LocalDateTime to, String authHeader) {
+        Optional<AuthenticatedUser> userOpt = authorizationService.getAuthorizedPrincipal(authHeader);
+
+        if (userOpt.isEmpty()) {
+            return TimelineResponse.failed("Invalid or missing token", HttpStatus.UNAUTHORIZED);
+        }
+
+        Optional<Granularity> step = Granularity.parse(granularity);
+        if (step.isEmpty()) {
+            return TimelineResponse.failed("Granularity must be one of minute, hour, day", HttpStatus.BAD_REQUEST);
+        }
+
+        LocalDateTime end = to == null ? LocalDateTime.now() : to;
+        LocalDateTime start = from == null ? end.minus(step.get().defaultRange()) : from;
+        if (!start.isBefore(end)) {
+            return TimelineResponse.failed("The range must end after it starts", HttpStatus.BAD_REQUEST);
+        }
+        if (bucketCount(step.get(), start, end) > MAX_TIMELINE_POINTS) {
+            return TimelineResponse.failed("The range is too long for this granularity", HttpStatus.BAD_REQUEST);
+        }
+
+        Optional<UrlEntity> urlOpt = linkRepository.findByShortenedUrl(shortUrl);
+
+        if (urlOpt.isEmpty()) {
+            return TimelineResponse.failed("Shortened URL not found", HttpStatus.NOT_FOUND);
+        }
+
+        UrlEntity url = urlOpt.get();
+        if (!url.getOwnerId().equals(userOpt.get().id())) {
+            return TimelineResponse.failed("Access to another user's stats is forbidden", HttpStatus.FORBIDDEN);
+        }
+
+        List<ClickBucket> points = clickRollups.timeline(step.get(), url.getId(), start, end);
+        TimelineResponse response = TimelineResponse.success(url.getShortenedUrl(), step.get(), end, points);
+        if (step.get() == Granularity.DAY) {
+            response.setUniqueVisitors(uniqueVisitors.estimate(url.getId(), start, end));
+        }
+        return response;
+    }
+
+    /**
+     * Adds one keyset page of per-link statistics to a totals response, if requested.
+     *
+     * @param response the totals response
+     * @param user     the authenticated user
+     * @param filter   which links to list
+     * @param details  whether details were requested at all
+     * @param cursor   cursor of the detail page (null for the first page)
+     * @param size     detail page size (null for the default)
+     * @return the response with details, or a 400 response for a malformed cursor
+     */
+    private StatisticsResponse withDetails(StatisticsResponse response,
+                                           AuthenticatedUser user,
+                                           LinkFilter filter,
+                                           boolean details,
+                                           String cursor,
+                                           Integer size) {
+        if (!details) {
+            return response;
+        }
+
+        Optional<LinkCursor> position = LinkCursor.decode(cursor);
+        if (position.isEmpty()) {
+            return StatisticsResponse.failed("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+
+        LinkSlice slice = linkRepository.findPage(user.id(), filter, position.get(), LinkCursor.pageSize(size));
+        response.setUrlList(convertUrlsToDto(slice.links()));
+        response.setNextCursor(slice.nextCursor());
+        return response;
+    }
+
     /**
      * Converts a list of UrlEntity objects to StatsUrlDto with click stats and timestamps.
+     * Unique visitors of the whole page are read in one query.
      *
      * @param urls list of URL entities
      * @return list of DTOs with statistics
      */
     private List<StatsUrlDto> convertUrlsToDto(List<UrlEntity> urls) {
-        List<StatsUrlDto> list = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Long> visitors = uniqueVisitors.estimates(urls.stream().map(UrlEntity::getId).toList());
+        List<StatsUrlDto> list = new ArrayList<>(urls.size());
         for (UrlEntity url : urls) {
             list.add(new StatsUrlDto(
                     url.getShortenedUrl(),
                     url.getOriginalUrl(),
                     url.getClickCount(),
-                    url.getExpiresOn() == null || url.getExpiresOn().isAfter(LocalDateTime.now()),
+                    url.getExpiresOn() == null || url.getExpiresOn().isAfter(now),
                     url.getCreatedOn(),
-                    url.getExpiresOn()
+                    url.getExpiresOn(),
+                    visitors.getOrDefault(url.getId(), 0L)
             ));
         }
         return list;
     }
 
     /**
-     * Filters only active (not expired) URLs from the list.
-     *
-     * @param urls all URLs owned by the user
-     * @return a filtered list of only active URLs
+     * Counts the buckets of a range, stopping as soon as the limit is exceeded.
      */
-    private List<StatsUrlDto> filterActiveUrls(List<UrlEntity> urls) {
-        List<StatsUrlDto> list = new ArrayList<>();
-        for (UrlEntity url : urls) {
-            if (url.getExpiresOn() == null || url.getExpiresOn().isAfter(LocalDateTime.now())) {
-                list.add(new StatsUrlDto(
-                        url.getShortenedUrl(),
-                        url.getOriginalUrl(),
-                        url.getClickCount(),
-                        true,
-                        url.getCreatedOn(),
-                        url.getExpiresOn()
-                ));
-            }
+    private static int bucketCount(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        int count = 0;
+        for (LocalDateTime time = granularity.truncate(from); time.isBefore(to) && count <= MAX_TIMELINE_POINTS;
+             time = granularity.next(time)) {
+            count++;
         }
-        return list;
+        return count;
     }
 }
@@ -32,4 +32,7 @@ public class StatsUrlDto {
 
     // When the short URL will expire (nullable)
     private LocalDateTime expiresAt;
+
+    // Estimated number of distinct visitors (about 2% error)
+    private long uniqueVisitors;
 }
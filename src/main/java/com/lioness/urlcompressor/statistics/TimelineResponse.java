@@ -0,0 +1,85 @@
+package com.lioness.urlcompressor.statistics;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.lioness.urlcompressor.analytics.ClickBucket;
+import com.lioness.urlcompressor.analytics.Granularity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * TimelineResponse returns the clicks of one shortened URL over time, one bucket per granularity step.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL) // Exclude null fields from JSON output
+@Data
+@NoArgsConstructor
+public class TimelineResponse {
+
+    // The short URL the timeline belongs to
+    private String shortUrl;
+
+    // Width of one bucket (MINUTE, HOUR or DAY)
+    private Granularity granularity;
+
+    // Start of the first bucket
+    private LocalDateTime from;
+
+    // End of the range (exclusive)
+    private LocalDateTime to;
+
+    // Sum of the clicks of all buckets
+    private Long totalClicks;
+
+    // Distinct visitors over the whole range (day granularity only)
+    private Long uniqueVisitors;
+
+    // Buckets in time order, including empty ones
+    private List<ClickBucket> points;
+
+    // Optional info message for user feedback or error reporting
+    private String infoMessage;
+
+    // Internal HTTP status (not serialized in the JSON response)
+    @JsonIgnore
+    private HttpStatus status;
+
+    /**
+     * Static factory for building a successful response.
+     *
+     * @param shortUrl    the short URL
+     * @param granularity width of one bucket
+     * @param to          end of the range (exclusive)
+     * @param points      the buckets, in time order
+     * @return a success TimelineResponse with HTTP 200 OK
+     */
+    public static TimelineResponse success(String shortUrl, Granularity granularity, LocalDateTime to,
+                                           List<ClickBucket> points) {
+        TimelineResponse response = new TimelineResponse();
+        response.setShortUrl(shortUrl);
+        response.setGranularity(granularity);
+        response.setFrom(points.isEmpty() ? to : points.get(0).start());
+        response.setTo(to);
+        response.setTotalClicks(points.stream().mapToLong(ClickBucket::clicks).sum());
+        response.setPoints(points);
+        response.setStatus(HttpStatus.OK);
+        return response;
+    }
+
+    /**
+     * Static factory for building a failed response.
+     *
+     * @param message the error message
+     * @param status  the HTTP status code
+     * @return a failure TimelineResponse with no data
+     */
+    public static TimelineResponse failed(String message, HttpStatus status) {
+        TimelineResponse response = new TimelineResponse();
+        response.setInfoMessage(message);
+        response.setStatus(status);
+        return response;
+    }
+}
@@ -0,0 +1,147 @@
+package com.lioness.urlcompressor.url;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BloomFilter is a fixed-size, thread-safe Bloom filter over strings.
+ *
+ * Bits live in an {@link AtomicLongArray}, so concurrent inserts and lookups need no lock.
+ * The k bit positions of a value are derived from one 64-bit hash by double hashing
+ * (h1 + i * h2). The number of set bits is tracked on insert, which gives the current
+ * false-positive probability and an estimate of the number of distinct entries without a scan.
+ */
+final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+    private final long capacity;
+    private final LongAdder setBits = new LongAdder();
+
+    private BloomFilter(long bitSize, int hashCount, long capacity) {
+        this.words = new AtomicLongArray(Math.toIntExact(bitSize / Long.SIZE));
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a filter sized for the given number of entries and target false-positive probability.
+     *
+     * @param capacity          number of distinct entries the filter is sized for
+     * @param falsePositiveRate target false-positive probability at capacity, between 0 and 1
+     * @return an empty filter
+     */
+    static BloomFilter create(long capacity, double falsePositiveRate) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long bitSize = Math.max(Long.SIZE, (bits + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+        int hashCount = Math.max(1, (int) Math.round((double) bitSize / capacity * LN2));
+        return new BloomFilter(bitSize, hashCount, capacity);
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value the value to add
+     */
+    void put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            setBit(Math.floorMod(h1 + i * h2, bitSize));
+        }
+    }
+
+    /**
+     * Checks whether a value may have been added.
+     *
+     * @param value the value to look up
+     * @return false if the value was definitely never added, true if it probably was
+     */
+    boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return probability that a value never added is reported as present, given the bits set so far
+     */
+    double falsePositiveRate() {
+        return Math.pow((double) setBits.sum() / bitSize, hashCount);
+    }
+
+    /**
+     * @return estimated number of distinct values added, derived from the fraction of set bits
+     */
+    long approximateEntries() {
+        double unset = 1 - (double) setBits.sum() / bitSize;
+        if (unset <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.round(-(double) bitSize / hashCount * Math.log(unset));
+    }
+
+    /**
+     * @return number of distinct entries the filter was sized for
+     */
+    long capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return size of the bit array in bytes
+     */
+    long memoryBytes() {
+        return bitSize / Byte.SIZE;
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+        setBits.increment();
+    }
+
+    /**
+     * FNV-1a over the UTF-16 chars, finished with the MurmurHash3 mixer.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,238 @@
+package com.lioness.urlcompressor.url;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lioness.urlcompressor.security.AuthenticatedUser;
+import com.lioness.urlcompressor.security.AuthorizationService;
+import com.lioness.urlcompressor.url.dto.BulkLinkResult;
+import com.lioness.urlcompressor.url.dto.UrlRequest;
+import com.lioness.urlcompressor.user.UserEntity;
+import com.lioness.urlcompressor.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.lioness.urlcompressor.util.MessageUtility.*;
+
+/**
+ * BulkLinkService shortens a stream of URLs sent as NDJSON (one {@link UrlRequest} JSON object per line)
+ * and streams one {@link BulkLinkResult} line back per request line.
+ *
+ * Lines are processed in chunks: each chunk is validated, gets its short codes from the leased
+ * id blocks of {@link ShortCodeAllocator}, is inserted with batched JDBC statements in its own
+ * transaction, and its results are flushed to the client before the next chunk is read.
+ * Memory use therefore depends on the chunk size only, not on the size of the upload.
+ */
+@Service
+@Slf4j
+public class BulkLinkService {
+
+    // Lines per chunk; matches hibernate.jdbc.batch_size so each chunk is one JDBC batch
+    static final int CHUNK_SIZE = 500;
+
+    private final AuthorizationService authorizationService;
+    private final LinkRepository linkRepository;
+    private final UserRepository userRepository;
+    private final LongUrlValidator urlValidator;
+    private final ShortLinkGenerator linkGenerator;
+    private final LinkCache linkCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    // Request lines are parsed as UrlRequest; results are written on a single line each
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+
+    public BulkLinkService(AuthorizationService authorizationService,
+                           LinkRepository linkRepository,
+                           UserRepository userRepository,
+                           LongUrlValidator urlValidator,
+                           ShortLinkGenerator linkGenerator,
+                           LinkCache linkCache,
+                           EntityManager entityManager,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper) {
+        this.authorizationService = authorizationService;
+        this.linkRepository = linkRepository;
+        this.userRepository = userRepository;
+        this.urlValidator = urlValidator;
+        this.linkGenerator = linkGenerator;
+        this.linkCache = linkCache;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requestReader = objectMapper.readerFor(UrlRequest.class);
+        this.resultWriter = objectMapper.writerFor(BulkLinkResult.class).without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Resolves the caller of a bulk request once, before any line is read.
+     *
+     * @param authHeader the Authorization header
+     * @return Optional containing the caller, or empty if unauthorized
+     */
+    public Optional<AuthenticatedUser> authorize(String authHeader) {
+        return authorizationService.getAuthorizedPrincipal(authHeader);
+    }
+
+    /**
+     * Shortens every line of the request stream for the given user, writing one result line per request line.
+     * Blank lines are skipped; malformed or invalid lines produce a failed result and do not stop the stream.
+     *
+     * @param user the authorized owner of the new links
+     * @param in   NDJSON request body
+     * @param out  NDJSON response body; flushed after every chunk
+     * @throws IOException if reading the request or writing the response fails
+     */
+    public void shorten(AuthenticatedUser user, BufferedReader in, Writer out) throws IOException {
+        Chunk chunk = new Chunk();
+        long lineNumber = 0;
+        String line;
+
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            accept(chunk, lineNumber, line);
+
+            if (chunk.size() == CHUNK_SIZE) {
+                complete(chunk, user, out);
+            }
+        }
+        complete(chunk, user, out);
+    }
+
+    /**
+     * Parses and validates one request line, adding either a rejection or a link to insert to the chunk.
+     */
+    private void accept(Chunk chunk, long lineNumber, String line) {
+        UrlRequest request;
+        try {
+            request = requestReader.readValue(line);
+        } catch (IOException e) {
+            chunk.reject(BulkLinkResult.failed(lineNumber, null, INVALID_BULK_LINE));
+            return;
+        }
+
+        String longUrl = request.getOriginalUrl();
+        if (!urlValidator.isValid(longUrl)) {
+            chunk.reject(BulkLinkResult.failed(lineNumber, longUrl, INVALID_URL));
+            return;
+        }
+
+        LocalDateTime expiresAt = request.getExpirationTime();
+        if (expiresAt != null && LocalDateTime.now().isAfter(expiresAt)) {
+            chunk.reject(BulkLinkResult.failed(lineNumber, longUrl, EXPIRED_URL));
+            return;
+        }
+
+        chunk.add(lineNumber, UrlEntity.builder()
+                .shortenedUrl(linkGenerator.createShortLink())
+                .originalUrl(longUrl)
+                .expiresOn(expiresAt)
+                .build());
+    }
+
+    /**
+     * Inserts the chunk's links, writes its results in line order, flushes them and resets the chunk.
+     */
+    private void complete(Chunk chunk, AuthenticatedUser user, Writer out) throws IOException {
+        if (chunk.size() == 0) {
+            return;
+        }
+
+        List<UrlEntity> links = chunk.links();
+        boolean stored = links.isEmpty() || store(links, user.id());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkLinkResult result = chunk.results.get(i);
+            if (result == null) {
+                UrlEntity link = chunk.pending.get(i);
+                result = stored
+                        ? BulkLinkResult.created(chunk.lines.get(i), link.getShortenedUrl(), link.getOriginalUrl(), URL_CREATED)
+                        : BulkLinkResult.failed(chunk.lines.get(i), link.getOriginalUrl(), URL_NOT_STORED);
+            }
+            out.write(resultWriter.writeValueAsString(result));
+            out.write('\n');
+        }
+        out.flush();
+        chunk.clear();
+    }
+
+    /**
+     * Inserts a chunk of links in one transaction using batched statements.
+     * The persistence context is cleared afterwards, so managed entities never pile up across chunks.
+     *
+     * @param links   links to insert
+     * @param ownerId id of the owner
+     * @return true if the chunk was committed
+     */
+    private boolean store(List<UrlEntity> links, Long ownerId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                UserEntity owner = userRepository.getReferenceById(ownerId);
+                links.forEach(link -> link.setOwner(owner));
+                linkRepository.saveAll(links);
+                linkRepository.flush();
+            });
+            links.forEach(linkCache::created);
+            return true;
+        } catch (DataAccessException e) {
+            log.error("Bulk insert of {} links failed: {}", links.size(), e.getMessage());
+            return false;
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * The lines of one chunk in request order: each position holds either
+     * a ready result (rejected line) or a link waiting to be inserted.
+     */
+    private static final class Chunk {
+
+        private final List<Long> lines = new ArrayList<>(CHUNK_SIZE);
+        private final List<BulkLinkResult> results = new ArrayList<>(CHUNK_SIZE);
+        private final List<UrlEntity> pending = new ArrayList<>(CHUNK_SIZE);
+
+        void reject(BulkLinkResult result) {
+            lines.add(result.line());
+            results.add(result);
+            pending.add(null);
+        }
+
+        void add(long line, UrlEntity link) {
+            lines.add(line);
+            results.add(null);
+            pending.add(link);
+        }
+
+        int size() {
+            return lines.size();
+        }
+
+        List<UrlEntity> links() {
+            return pending.stream().filter(Objects::nonNull).toList();
+        }
+
+        void clear() {
+            lines.clear();
+            results.clear();
+            pending.clear();
+        }
+    }
+}
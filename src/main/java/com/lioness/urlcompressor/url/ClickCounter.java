@@ -0,0 +1,184 @@
+package com.lioness.urlcompressor.url;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ClickCounter records link clicks in memory and writes them to the database in the background.
+ *
+ * Request threads only increment a striped {@link LongAdder} per link id, so a hot link never
+ * serializes on a row lock. A scheduled flusher seals the current generation of counters,
+ * waits for in-flight increments to finish, and applies all deltas with one batched
+ * {@code click_count = click_count + ?} update. Remaining deltas are flushed on shutdown,
+ * and deltas from a failed flush are put back so no click is lost.
+ *
+ * Metrics: links.clicks.pending (links with unflushed clicks), links.clicks.flush.lag (seconds since
+ * the oldest unflushed click could have been written) and links.clicks.flushed (total clicks written).
+ */
+@Slf4j
+@Component
+public class ClickCounter {
+
+    private static final String FLUSH_SQL =
+            "UPDATE link_manager.short_links SET click_count = click_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter flushedClicks;
+
+    // Serializes flushes (scheduled run vs. shutdown)
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Generation currently receiving increments
+    private volatile Generation current = new Generation();
+
+    // Time of the last successful flush, used for the lag metric
+    private volatile long lastFlushMillis = System.currentTimeMillis();
+
+    /**
+     * Creates the counter and registers its metrics.
+     *
+     * @param jdbcTemplate  JDBC access used for batched updates
+     * @param meterRegistry registry for flush metrics
+     */
+    public ClickCounter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushedClicks = Counter.builder("links.clicks.flushed")
+                .description("Clicks written to the database by the background flusher")
+                .register(meterRegistry);
+        Gauge.builder("links.clicks.pending", this, counter -> counter.current.counts.size())
+                .description("Links with clicks not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("links.clicks.flush.lag", this, ClickCounter::flushLagSeconds)
+                .description("Seconds since pending clicks were last written to the database")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a single click on a link. Never blocks and never touches the database.
+     *
+     * @param linkId identifier of the clicked link
+     */
+    public void record(Long linkId) {
+        add(linkId, 1);
+    }
+
+    /**
+     * Periodically writes all pending clicks to the database.
+     */
+    @Scheduled(fixedDelayString = "${link.clicks.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Generation sealed = current;
+            current = new Generation();
+            sealed.seal();
+
+            List<Object[]> batch = new ArrayList<>(sealed.counts.size());
+            for (Map.Entry<Long, LongAdder> entry : sealed.counts.entrySet()) {
+                long delta = entry.getValue().sum();
+                if (delta > 0) {
+                    batch.add(new Object[]{delta, entry.getKey()});
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+            lastFlushMillis = System.currentTimeMillis();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the remaining deltas before the application shuts down.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing pending clicks before shutdown");
+        flush();
+    }
+
+    /**
+     * Writes one batch of deltas, putting them back into the live counters if the update fails.
+     *
+     * @param batch pairs of (delta, link id)
+     */
+    private void write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            flushedClicks.increment(batch.stream().mapToLong(row -> (long) row[0]).sum());
+        } catch (RuntimeException e) {
+            log.warn("Click flush failed, {} link counters re-queued: {}", batch.size(), e.getMessage());
+            for (Object[] row : batch) {
+                add((Long) row[1], (long) row[0]);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a delta to the live generation, retrying if it was sealed concurrently.
+     */
+    private void add(Long linkId, long delta) {
+        while (true) {
+            Generation generation = current;
+            if (generation.tryAdd(linkId, delta)) {
+                return;
+            }
+        }
+    }
+
+    private double flushLagSeconds() {
+        if (current.counts.isEmpty()) {
+            return 0;
+        }
+        return (System.currentTimeMillis() - lastFlushMillis) / 1000.0;
+    }
+
+    /**
+     * One generation of per-link counters.
+     * Writers announce themselves before checking the seal flag; the flusher sets the flag and then
+     * waits until no writer is active, so every increment is either in this generation or the next one.
+     */
+    private static final class Generation {
+
+        private final Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+        private final LongAdder activeWriters = new LongAdder();
+        private volatile boolean sealed;
+
+        boolean tryAdd(Long linkId, long delta) {
+            activeWriters.increment();
+            try {
+                if (sealed) {
+                    return false;
+                }
+                counts.computeIfAbsent(linkId, id -> new LongAdder()).add(delta);
+                return true;
+            } finally {
+                activeWriters.decrement();
+            }
+        }
+
+        void seal() {
+            sealed = true;
+            while (activeWriters.sum() != 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
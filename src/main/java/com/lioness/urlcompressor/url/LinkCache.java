@@ -0,0 +1,348 @@
+package com.lioness.urlcompressor.url;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lioness.urlcompressor.util.CircuitBreaker;
+import com.lioness.urlcompressor.util.CircuitOpenException;
+import com.lioness.urlcompressor.util.SingleFlight;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LinkCache is a bounded near-cache in front of {@link LinkRepository#findByShortenedUrl(String)}.
+ *
+ * Found links are kept as compact {@link ResolvedLink} records in a size-bounded Caffeine cache,
+ * whose eviction policy (W-TinyLFU) favours frequently clicked links over one-off lookups.
+ * Short URLs that were never created are rejected by the {@link ShortLinkFilter} Bloom filter;
+ * other unknown short URLs (e.g. deleted links) are remembered in a separate negative cache with a short TTL,
+ * so repeated lookups of missing codes do not hit the database either.
+ * Links not in memory are looked up in the persistent {@link LinkIndex} before the database,
+ * so a restarted node serves known links without a cold-cache phase. Concurrent database lookups
+ * of the same short URL are coalesced by a {@link SingleFlight}, so a burst of misses runs one query.
+ * Cached links with an expiration are handed to the {@link LinkExpiryScheduler} and dropped from memory
+ * and the index when their {@link LinkExpiredEvent} arrives.
+ *
+ * Cached links are refreshed from the database in the background once they are older than the refresh interval,
+ * and served as they are meanwhile (stale-while-revalidate), which also bounds how long a change made on another
+ * node goes unnoticed. Database lookups run through a {@link CircuitBreaker}: while it is open, cached and
+ * indexed links keep being served past their refresh time, due refreshes wait until it closes, and only lookups
+ * of links not in memory or the index fail, with {@link CircuitOpenException}.
+ *
+ * Hit, miss and eviction counters of both caches are published to Micrometer
+ * (cache.gets, cache.evictions, cache.size with cache=links / links.negative).
+ */
+@Slf4j
+@Component
+public class LinkCache {
+
+    // Stale links waiting for a background refresh at most; further ones are refreshed on a later hit
+    private static final int REFRESH_QUEUE_SIZE = 1024;
+
+    private final LinkRepository linkRepository;
+    private final ShortLinkFilter shortLinkFilter;
+    private final LinkIndex linkIndex;
+    private final LinkExpiryScheduler expiryScheduler;
+
+    // Stored short URL -> compact link record
+    private final Cache<String, CachedLink> links;
+
+    // Stored short URLs recently confirmed to not exist
+    private final Cache<String, Boolean> missingLinks;
+
+    // Database lookups in flight, per stored short URL
+    private final SingleFlight<String, Optional<ResolvedLink>> loads;
+
+    private final CircuitBreaker circuitBreaker;
+    private final long refreshAfterNanos;
+
+    // Background refreshes of stale links, and the short URLs queued or running there
+    private final ThreadPoolExecutor refresher;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates the cache with configurable bounds and registers its metrics.
+     *
+     * @param linkRepository  repository used on cache misses
+     * @param shortLinkFilter Bloom filter of existing short URLs, consulted before the database
+     * @param linkIndex       persistent link index, consulted before the database
+     * @param expiryScheduler scheduler evicting links when they expire
+     * @param circuitBreaker  circuit around database lookups
+     * @param meterRegistry   registry for hit/miss/eviction metrics
+     * @param maximumSize     maximum number of cached links
+     * @param negativeSize    maximum number of cached "not found" results
+     * @param negativeTtl     how long a "not found" result is trusted
+     * @param loadTimeout     how long a miss waits for a concurrent lookup of the same link
+     * @param refreshAfter    age after which a cached link is refreshed in the background
+     */
+    public LinkCache(LinkRepository linkRepository,
+                     ShortLinkFilter shortLinkFilter,
+                     LinkIndex linkIndex,
+                     LinkExpiryScheduler expiryScheduler,
+                     CircuitBreaker circuitBreaker,
+                     MeterRegistry meterRegistry,
+                     @Value("${link.cache.maximum-size:1000000}") long maximumSize,
+                     @Value("${link.cache.negative.maximum-size:100000}") long negativeSize,
+                     @Value("${link.cache.negative.ttl:30s}") Duration negativeTtl,
+                     @Value("${link.cache.load-timeout:2s}") Duration loadTimeout,
+                     @Value("${link.cache.refresh-after:10m}") Duration refreshAfter) {
+        this.linkRepository = linkRepository;
+        this.shortLinkFilter = shortLinkFilter;
+        this.linkIndex = linkIndex;
+        this.expiryScheduler = expiryScheduler;
+        this.circuitBreaker = circuitBreaker;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.refresher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_SIZE),
+                Thread.ofPlatform().name("link-refresh").daemon(true).factory());
+        this.links = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.missingLinks = Caffeine.newBuilder()
+                .maximumSize(negativeSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+        this.loads = new SingleFlight<>("links", loadTimeout, meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, links, "links");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingLinks, "links.negative");
+        Gauge.builder("links.cache.refresh.pending", refreshing, Set::size)
+                .description("Stale links queued or running for a background refresh")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finds a link by its stored short URL, consulting the caches before the database.
+     *
+     * @param shortUrl the stored short URL (e.g. https://abc123)
+     * @return Optional containing the link, or empty if it does not exist
+     * @throws CircuitOpenException if the link is not in memory or the index and the database circuit is open
+     * @throws org.springframework.dao.QueryTimeoutException if a concurrent lookup of the same link did not complete
+     *                                                       within the load timeout
+     */
+    public Optional<ResolvedLink> find(String shortUrl) {
+        if (shortUrl == null || shortUrl.isEmpty()) {
+            return Optional.empty();
+        }
+
+        CachedLink cached = links.getIfPresent(shortUrl);
+        if (cached != null) {
+            if (System.nanoTime() - cached.loadedAtNanos() >= refreshAfterNanos) {
+                refreshInBackground(shortUrl);
+            }
+            return Optional.of(cached.link());
+        }
+        if (!shortLinkFilter.mightContain(shortUrl)) {
+            return Optional.empty();
+        }
+        if (missingLinks.getIfPresent(shortUrl) != null) {
+            return Optional.empty();
+        }
+
+        Optional<ResolvedLink> indexed = linkIndex.find(shortUrl);
+        if (indexed.isPresent()) {
+            remember(indexed.get());
+            return indexed;
+        }
+
+        return loads.load(shortUrl, () -> load(shortUrl));
+    }
+
+    /**
+     * Stores a link in the cache and the persistent index, unless a newer version of it is already there.
+     *
+     * @param link the link to cache
+     */
+    public void put(ResolvedLink link) {
+        remember(link);
+        linkIndex.put(link);
+    }
+
+    /**
+     * Registers a newly created link: it is added to the Bloom filter, any cached "not found" is dropped,
+     * and once the current transaction commits it is written to the persistent index and its expiry is scheduled.
+     *
+     * @param url the saved link entity
+     */
+    public void created(UrlEntity url) {
+        String shortUrl = url.getShortenedUrl();
+        shortLinkFilter.add(shortUrl);
+        invalidate(shortUrl);
+        afterCommit(() -> {
+            linkIndex.put(ResolvedLink.from(url));
+            expiryScheduler.schedule(shortUrl, url.getExpiresOn());
+        });
+    }
+
+    /**
+     * Drops an updated link from memory and reschedules its expiry once the current transaction commits.
+     *
+     * @param shortUrl  the stored short URL
+     * @param expiresOn the link's new expiration, or null for none
+     */
+    public void updated(String shortUrl, LocalDateTime expiresOn) {
+        invalidate(shortUrl);
+        afterCommit(() -> expiryScheduler.schedule(shortUrl, expiresOn));
+    }
+
+    /**
+     * Drops a deleted link from memory and cancels its scheduled expiry.
+     *
+     * @param shortUrl the stored short URL
+     */
+    public void deleted(String shortUrl) {
+        invalidate(shortUrl);
+        expiryScheduler.cancel(shortUrl);
+    }
+
+    /**
+     * Drops a link from memory and the index once it has expired. Later lookups load it again
+     * (as expired) from the database.
+     *
+     * @param event the expiry event
+     */
+    @EventListener
+    public void onLinkExpired(LinkExpiredEvent event) {
+        evict(event.shortenedUrl());
+    }
+
+    /**
+     * Removes a short URL from both caches and the persistent index, immediately and again once the current transaction commits.
+     * The second pass drops any stale copy another request may have loaded before the change was committed.
+     *
+     * @param shortUrl the stored short URL
+     */
+    public void invalidate(String shortUrl) {
+        if (shortUrl == null) {
+            return;
+        }
+        evict(shortUrl);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(() -> evict(shortUrl));
+        }
+    }
+
+    /**
+     * Looks a link up in the database and caches the result, found or not.
+     */
+    private Optional<ResolvedLink> load(String shortUrl) {
+        Optional<UrlEntity> loaded = circuitBreaker.call(() -> linkRepository.findByShortenedUrl(shortUrl));
+        if (loaded.isEmpty()) {
+            shortLinkFilter.recordFalsePositive();
+            missingLinks.put(shortUrl, Boolean.TRUE);
+            return Optional.empty();
+        }
+
+        ResolvedLink link = ResolvedLink.from(loaded.get());
+        put(link);
+        return Optional.of(link);
+    }
+
+    /**
+     * Queues a refresh of a stale link, unless one is already queued or the database circuit is open.
+     * A link whose refresh is skipped stays stale, so a later hit queues it again.
+     */
+    private void refreshInBackground(String shortUrl) {
+        if (circuitBreaker.isOpen() || !refreshing.add(shortUrl)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    refresh(shortUrl);
+                } finally {
+                    refreshing.remove(shortUrl);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(shortUrl);
+        }
+    }
+
+    /**
+     * Reloads a cached link. A link that no longer exists is dropped; on failure the stale copy is kept.
+     */
+    private void refresh(String shortUrl) {
+        try {
+            Optional<UrlEntity> loaded = circuitBreaker.call(() -> linkRepository.findByShortenedUrl(shortUrl));
+            if (loaded.isPresent()) {
+                put(ResolvedLink.from(loaded.get()));
+            } else {
+                evict(shortUrl); // deleted on another node
+            }
+        } catch (RuntimeException e) {
+            log.debug("Refreshing link {} failed, the cached copy is kept: {}", shortUrl, e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the background refreshes.
+     */
+    @PreDestroy
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Keeps a link in memory, unless a newer version of it is already cached, and schedules its expiry.
+     */
+    private void remember(ResolvedLink link) {
+        missingLinks.invalidate(link.shortenedUrl());
+        links.asMap().merge(link.shortenedUrl(), new CachedLink(link, System.nanoTime()),
+                (current, candidate) -> candidate.link().version() >= current.link().version() ? candidate : current);
+        expiryScheduler.schedule(link.shortenedUrl(), link.expiresOn());
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or right away if there is none.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Removes a short URL from both caches and the index.
+     *
+     * @param shortUrl the stored short URL
+     */
+    private void evict(String shortUrl) {
+        loads.forget(shortUrl);
+        links.invalidate(shortUrl);
+        missingLinks.invalidate(shortUrl);
+        linkIndex.remove(shortUrl);
+    }
+
+    /**
+     * A cached link and when it was loaded, in System.nanoTime() terms.
+     */
+    private record CachedLink(ResolvedLink link, long loadedAtNanos) {
+    }
+}
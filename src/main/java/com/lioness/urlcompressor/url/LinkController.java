@@ -1,13 +1,25 @@
 package com.lioness.urlcompressor.url;
 
+import com.lioness.urlcompressor.url.dto.LinkPage;
 import com.lioness.urlcompressor.url.dto.UrlRequest;
 import com.lioness.urlcompressor.url.dto.UrlResponse;
 import com.lioness.urlcompressor.url.dto.UrlStatsResponse;
+import com.lioness.urlcompressor.security.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+
+import static com.lioness.urlcompressor.util.MessageUtility.UNAUTHORIZED_ACCESS;
 
 /**
  * LinkController handles all HTTP endpoints related to URL shortening,
@@ -18,7 +30,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class LinkController {
 
+    // Response header carrying the cursor of the next page
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Media type of the bulk endpoint: one JSON object per line
+    public static final String NDJSON = "application/x-ndjson";
+
     private final LinkService linkService;
+    private final BulkLinkService bulkLinkService;
 
     /**
      * Generates a new shortened URL based on the provided original URL.
@@ -35,6 +54,34 @@ public class LinkController {
         return ResponseEntity.status(response.getHttpStatus()).body(response);
     }
 
+    /**
+     * Shortens many URLs in one request. The body is NDJSON with one {"originalUrl", "expirationTime"}
+     * object per line; one result line is streamed back per request line as soon as its chunk is stored.
+     *
+     * @param authHeader the Authorization header (JWT token)
+     * @param request    the HTTP request whose body is read line by line
+     * @param response   the HTTP response the results are streamed to
+     * @throws IOException if reading the request or writing the response fails
+     */
+    @PostMapping(value = "/bulk", consumes = NDJSON, produces = NDJSON)
+    public void bulkShorten(@RequestHeader(value = "Authorization", defaultValue = "") String authHeader,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        Optional<AuthenticatedUser> user = bulkLinkService.authorize(authHeader);
+        if (user.isEmpty()) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), UNAUTHORIZED_ACCESS);
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            bulkLinkService.shorten(user.get(), in, response.getWriter());
+        }
+    }
+
     /**
      * Expands a shortened URL back to its original long form.
      *
@@ -81,15 +128,19 @@ public class LinkController {
     }
 
     /**
-     * Retrieves all shortened URLs created by the authenticated user.
+     * Retrieves the shortened URLs created by the authenticated user, one page at a time (newest first).
+     * The cursor of the next page, if any, is returned in the X-Next-Cursor header.
      *
+     * @param cursor     cursor from the previous page (omit for the first page)
+     * @param size       page size (optional, capped by the server)
      * @param authHeader the Authorization header
      * @return List of UrlResponse objects
      */
     @GetMapping("/all")
-    public ResponseEntity<List<UrlResponse>> getAllLinks(@RequestHeader(value = "Authorization", defaultValue = "") String authHeader) {
-        List<UrlResponse> allLinks = linkService.getAllLinksForUser(authHeader);
-        return ResponseEntity.ok(allLinks);
+    public ResponseEntity<List<UrlResponse>> getAllLinks(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size,
+                                                         @RequestHeader(value = "Authorization", defaultValue = "") String authHeader) {
+        return toResponse(linkService.getAllLinksForUser(authHeader, cursor, size));
     }
 
     /**
@@ -109,15 +160,33 @@ public class LinkController {
 
     /**
      * Filters the user's shortened URLs based on expiration status (active or expired).
+     * Paged like {@link #getAllLinks}.
      *
      * @param type        filter type ("active" or "expired")
+     * @param cursor      cursor from the previous page (omit for the first page)
+     * @param size        page size (optional, capped by the server)
      * @param authHeader  the Authorization header
      * @return List of filtered UrlResponse objects
      */
     @GetMapping("/filter")
     public ResponseEntity<List<UrlResponse>> filterLinks(@RequestParam(defaultValue = "active") String type,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size,
                                                          @RequestHeader(value = "Authorization", defaultValue = "") String authHeader) {
-        List<UrlResponse> filtered = linkService.getLinksByFilter(type, authHeader);
-        return ResponseEntity.ok(filtered);
+        return toResponse(linkService.getLinksByFilter(type, authHeader, cursor, size));
+    }
+
+    /**
+     * Writes a page as a JSON array, with the next cursor in the X-Next-Cursor header.
+     *
+     * @param page the page of links
+     * @return response entity with the page's status, header and body
+     */
+    private ResponseEntity<List<UrlResponse>> toResponse(LinkPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(page.httpStatus());
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.links());
     }
 }
@@ -0,0 +1,96 @@
+package com.lioness.urlcompressor.url;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * LinkCursor is the keyset position used to page through a user's links,
+ * ordered newest first by (created_at, id).
+ * It travels to clients as an opaque URL-safe string.
+ *
+ * @param createdOn creation timestamp of the last link on the previous page
+ * @param id        identifier of the last link on the previous page (tie-breaker)
+ */
+public record LinkCursor(LocalDateTime createdOn, long id) {
+
+    // Position before the newest possible link; used for the first page
+    private static final LinkCursor FIRST = new LinkCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final char SEPARATOR = '_';
+
+    // Page size used when the client does not ask for one
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    // Upper bound on the page size a client may request
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Clamps a requested page size to [1, MAX_PAGE_SIZE], defaulting to DEFAULT_PAGE_SIZE.
+     *
+     * @param size requested page size (may be null)
+     * @return effective page size
+     */
+    public static int pageSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Returns the cursor of the first page.
+     *
+     * @return a cursor positioned before every existing link
+     */
+    public static LinkCursor first() {
+        return FIRST;
+    }
+
+    /**
+     * Builds the cursor that continues after the given link.
+     *
+     * @param link the last link of the current page
+     * @return cursor pointing right after that link
+     */
+    public static LinkCursor after(UrlEntity link) {
+        return new LinkCursor(link.getCreatedOn(), link.getId());
+    }
+
+    /**
+     * Encodes the cursor as an opaque, URL-safe token.
+     *
+     * @return encoded cursor
+     */
+    public String encode() {
+        String raw = createdOn + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor received from a client. A missing cursor means the first page.
+     *
+     * @param token the encoded cursor, or null/blank for the first page
+     * @return Optional containing the cursor, or empty if the token is malformed
+     */
+    public static Optional<LinkCursor> decode(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.of(FIRST);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new LinkCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            ));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
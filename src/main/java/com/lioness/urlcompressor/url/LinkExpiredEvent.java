@@ -0,0 +1,12 @@
+package com.lioness.urlcompressor.url;
+
+import java.time.LocalDateTime;
+
+/**
+ * LinkExpiredEvent is published by {@link LinkExpiryScheduler} when a link reaches its expiration time.
+ *
+ * @param shortenedUrl the stored short URL (e.g. https://abc123)
+ * @param expiredAt    the expiration timestamp that was reached
+ */
+public record LinkExpiredEvent(String shortenedUrl, LocalDateTime expiredAt) {
+}
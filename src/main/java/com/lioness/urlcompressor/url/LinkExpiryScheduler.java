@@ -0,0 +1,198 @@
+package com.lioness.urlcompressor.url;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * LinkExpiryScheduler tracks upcoming link expirations on a hierarchical {@link TimingWheel}
+ * and publishes a {@link LinkExpiredEvent} when a link expires, so in-memory copies can be dropped.
+ *
+ * Links are scheduled when they are created, updated or loaded into the caches, and by a periodic scan
+ * of the links expiring within the next horizon (an expires_at range query, never a table scan).
+ * Links expiring beyond the scanned horizon are left to a later scan, so memory holds only upcoming expirations.
+ * Rescheduling a link or cancelling it (on delete) is O(1): stale wheel entries are ignored when they fire.
+ *
+ * Metrics: links.expiry.pending (scheduled links) and links.expiry.fired (expiry events published).
+ */
+@Slf4j
+@Component
+public class LinkExpiryScheduler {
+
+    // Buckets per wheel level: with 1 s ticks, levels span ~1 min, ~1 h, ~3 days, ...
+    private static final int WHEEL_SIZE = 64;
+
+    private final LinkRepository linkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final Counter fired;
+
+    // Guards the wheel; held only for O(1) adds and for collecting due timers
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private final TimingWheel<Expiry> wheel;
+
+    // Short URL -> currently scheduled expiry (epoch millis); a firing timer must match it
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+
+    // Links expiring before this moment (epoch millis) have been scanned
+    private volatile long scannedUntil;
+
+    /**
+     * Creates the scheduler and registers its metrics.
+     *
+     * @param linkRepository     repository queried for upcoming expirations
+     * @param eventPublisher     publisher of expiry events
+     * @param transactionManager transaction manager for the read-only scan
+     * @param meterRegistry      registry for expiry metrics
+     * @param tickMillis         resolution of the wheel
+     * @param horizon            how far ahead each scan schedules expirations
+     */
+    public LinkExpiryScheduler(LinkRepository linkRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${link.expiry.tick-ms:1000}") long tickMillis,
+                               @Value("${link.expiry.horizon:2h}") Duration horizon) {
+        this.linkRepository = linkRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.horizon = horizon;
+
+        long now = System.currentTimeMillis();
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, now);
+        this.scannedUntil = now;
+
+        this.fired = Counter.builder("links.expiry.fired")
+                .description("Link expiry events published by the expiry scheduler")
+                .register(meterRegistry);
+        Gauge.builder("links.expiry.pending", deadlines, Map::size)
+                .description("Links with a scheduled expiry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules (or reschedules) the expiry of a link. Links without expiry, already expired,
+     * or expiring beyond the scanned horizon are not scheduled; a previous schedule is cancelled.
+     *
+     * @param shortUrl  the stored short URL
+     * @param expiresOn expiration timestamp, or null if the link never expires
+     */
+    public void schedule(String shortUrl, LocalDateTime expiresOn) {
+        if (expiresOn == null) {
+            cancel(shortUrl);
+            return;
+        }
+        long deadline = toMillis(expiresOn);
+        if (deadline <= System.currentTimeMillis() || deadline >= scannedUntil) {
+            cancel(shortUrl);
+            return;
+        }
+        Long previous = deadlines.put(shortUrl, deadline);
+        if (previous != null && previous == deadline) {
+            return;
+        }
+
+        boolean added;
+        wheelLock.lock();
+        try {
+            added = wheel.add(deadline, new Expiry(shortUrl, deadline));
+        } finally {
+            wheelLock.unlock();
+        }
+        if (!added) {
+            expire(shortUrl, deadline);
+        }
+    }
+
+    /**
+     * Cancels the scheduled expiry of a link (e.g. because it was deleted).
+     *
+     * @param shortUrl the stored short URL
+     */
+    public void cancel(String shortUrl) {
+        deadlines.remove(shortUrl);
+    }
+
+    /**
+     * Advances the wheel to the current time and publishes an event for every link that expired.
+     */
+    @Scheduled(fixedRateString = "${link.expiry.tick-ms:1000}")
+    public void tick() {
+        List<Expiry> due = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            wheel.advance(System.currentTimeMillis(), due::add);
+        } finally {
+            wheelLock.unlock();
+        }
+        due.forEach(expiry -> expire(expiry.shortUrl(), expiry.deadline()));
+    }
+
+    /**
+     * Schedules the links expiring between the end of the previous scan and one horizon from now.
+     * Runs on startup and then periodically; the scan interval must be shorter than the horizon.
+     */
+    @Scheduled(fixedDelayString = "${link.expiry.scan-interval-ms:3600000}")
+    public void scan() {
+        long previous = scannedUntil;
+        long until = System.currentTimeMillis() + horizon.toMillis();
+        LocalDateTime from = toLocalDateTime(Math.max(previous, System.currentTimeMillis()));
+        LocalDateTime to = toLocalDateTime(until);
+
+        // Widen the horizon first: links created meanwhile are scheduled directly instead of being missed
+        scannedUntil = until;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ResolvedLink> links = linkRepository.streamExpiringBetween(from, to)) {
+                    links.forEach(link -> schedule(link.shortenedUrl(), link.expiresOn()));
+                }
+            });
+            log.debug("Scheduled link expirations until {}, {} pending", to, deadlines.size());
+        } catch (DataAccessException e) {
+            scannedUntil = previous;
+            log.warn("Link expiry scan failed: {}", e.getMessage());
+        }
+    }
+
+    private void expire(String shortUrl, long deadline) {
+        if (deadlines.remove(shortUrl, deadline)) {
+            fired.increment();
+            eventPublisher.publishEvent(new LinkExpiredEvent(shortUrl, toLocalDateTime(deadline)));
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * A scheduled expiry as carried by the wheel; it only takes effect if still the current one for the link.
+     */
+    private record Expiry(String shortUrl, long deadline) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.lioness.urlcompressor.url;
+
+/**
+ * LinkFilter selects which of a user's links a listing returns, based on expiration.
+ */
+public enum LinkFilter {
+
+    /** Every link. */
+    ALL,
+
+    /** Links that never expire or expire in the future. */
+    ACTIVE,
+
+    /** Links whose expiration date has passed. */
+    EXPIRED;
+
+    /**
+     * Parses a client-supplied filter type; anything unknown means all links.
+     *
+     * @param type "active", "expired" or anything else (case-insensitive, may be null)
+     * @return the matching filter
+     */
+    public static LinkFilter from(String type) {
+        if (type == null) {
+            return ALL;
+        }
+        return switch (type.toLowerCase()) {
+            case "active" -> ACTIVE;
+            case "expired" -> EXPIRED;
+            default -> ALL;
+        };
+    }
+}
@@ -0,0 +1,296 @@
+package com.lioness.urlcompressor.url;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * LinkIndex keeps a persistent, memory-mapped copy of the short link table ({@link LinkIndexFile}),
+ * consulted by {@link LinkCache} before the database.
+ *
+ * After a restart the existing file is verified and served at once, so redirects are answered from the
+ * page cache instead of warming up against Postgres. Links loaded from the database or created on this node
+ * are appended; updated and deleted links are removed. A missing, corrupt or outdated file is never served:
+ * it is rebuilt from the database in the background, as is a file older than the rebuild interval
+ * (which also drops changes made on other nodes) or one running out of space.
+ *
+ * The index is a cache: any failure only disables it until the next rebuild, and lookups fall back to the database.
+ *
+ * Metrics: links.index.entries, links.index.fill (0..1) and links.index.rebuilds.
+ */
+@Slf4j
+@Component
+public class LinkIndex {
+
+    // Rebuild early once the slot table or data region is this full
+    private static final double REBUILD_FILL = 0.9;
+
+    // Minimum sizing of a new file, and the record space reserved per expected link
+    private static final int MIN_LINKS = 65_536;
+    private static final int BYTES_PER_LINK = 256;
+
+    private final LinkRepository linkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path path;
+    private final long rebuildIntervalMillis;
+    private final Counter rebuilds;
+
+    // Serializes writes to the file and the swap to a rebuilt one
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // File answering lookups; null while there is no valid file
+    private volatile LinkIndexFile file;
+
+    // Short URLs removed while a rebuild is streaming; removed from the new file before it is swapped in
+    private volatile Set<String> removedDuringRebuild;
+
+    /**
+     * Creates the index and opens the existing file, if any and if valid.
+     *
+     * @param linkRepository        repository streaming the links on rebuild
+     * @param transactionManager    transaction manager for the read-only streaming query
+     * @param meterRegistry         registry for index metrics
+     * @param enabled               whether the index is used at all
+     * @param path                  location of the index file
+     * @param rebuildIntervalMillis maximum age of the file before it is rebuilt
+     */
+    public LinkIndex(LinkRepository linkRepository,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry,
+                     @Value("${link.index.enabled:true}") boolean enabled,
+                     @Value("${link.index.path:data/links.idx}") Path path,
+                     @Value("${link.index.rebuild-interval-ms:21600000}") long rebuildIntervalMillis) {
+        this.linkRepository = linkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.path = path;
+        this.rebuildIntervalMillis = rebuildIntervalMillis;
+
+        this.rebuilds = Counter.builder("links.index.rebuilds")
+                .description("Rebuilds of the memory-mapped link index from the database")
+                .register(meterRegistry);
+        Gauge.builder("links.index.entries", this, index -> index.file == null ? 0 : index.file.size())
+                .description("Links held in the memory-mapped link index")
+                .register(meterRegistry);
+        Gauge.builder("links.index.fill", this, index -> index.file == null ? 0 : index.file.fillRatio())
+                .description("Share of the memory-mapped link index in use")
+                .register(meterRegistry);
+
+        if (enabled) {
+            open();
+        }
+    }
+
+    /**
+     * Looks up a link in the index.
+     *
+     * @param shortUrl the stored short URL
+     * @return Optional containing the link, or empty if it is not indexed
+     */
+    public Optional<ResolvedLink> find(String shortUrl) {
+        LinkIndexFile current = file;
+        if (current == null) {
+            return Optional.empty();
+        }
+        try {
+            return current.get(shortUrl);
+        } catch (RuntimeException e) {
+            discard(current, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores a link loaded from the database or just created.
+     *
+     * @param link the link to store
+     */
+    public void put(ResolvedLink link) {
+        if (file == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            LinkIndexFile current = file;
+            if (current != null) {
+                current.put(link);
+            }
+        } catch (RuntimeException e) {
+            discard(file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes an updated or deleted link, so it is reloaded from the database.
+     *
+     * @param shortUrl the stored short URL
+     */
+    public void remove(String shortUrl) {
+        if (file == null && removedDuringRebuild == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Set<String> removed = removedDuringRebuild;
+            if (removed != null) {
+                removed.add(shortUrl);
+            }
+            LinkIndexFile current = file;
+            if (current != null) {
+                current.remove(shortUrl);
+            }
+        } catch (RuntimeException e) {
+            discard(file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the file from the database when there is none, or it is too old or too full.
+     */
+    @Scheduled(fixedDelayString = "${link.index.check-interval-ms:60000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        LinkIndexFile current = file;
+        if (current == null
+                || System.currentTimeMillis() - current.builtAtMillis() >= rebuildIntervalMillis
+                || current.fillRatio() >= REBUILD_FILL) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Writes outstanding changes to disk before the application shuts down.
+     */
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            LinkIndexFile current = file;
+            file = null;
+            if (current != null) {
+                current.force();
+                current.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Closing the link index failed: {}", e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Opens and verifies the existing file; a missing or invalid one is left for the next rebuild.
+     */
+    private void open() {
+        try {
+            file = LinkIndexFile.open(path);
+            log.info("Link index opened: {} links from {}", file.size(), path);
+        } catch (NoSuchFileException e) {
+            log.info("No link index at {}, it will be built from the database", path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Link index at {} is not usable and will be rebuilt: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Streams all links into a new file next to the current one, then atomically replaces it.
+     */
+    private void rebuild() {
+        Path next = path.resolveSibling(path.getFileName() + ".tmp");
+        removedDuringRebuild = ConcurrentHashMap.newKeySet();
+        LinkIndexFile built = null;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            long links = linkRepository.count();
+            int capacity = (int) Math.min(Math.max(MIN_LINKS, links * 2), Integer.MAX_VALUE / BYTES_PER_LINK);
+            built = LinkIndexFile.create(next, Integer.highestOneBit(capacity) << 1, capacity * BYTES_PER_LINK);
+
+            LinkIndexFile target = built;
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ResolvedLink> stream = linkRepository.streamAllResolved()) {
+                    stream.forEach(target::put);
+                }
+            });
+
+            swap(built, next);
+            rebuilds.increment();
+            log.info("Link index rebuilt: {} links", built.size());
+        } catch (IOException | DataAccessException | IllegalStateException e) {
+            log.warn("Link index rebuild failed: {}", e.getMessage());
+            closeQuietly(built);
+        } finally {
+            removedDuringRebuild = null;
+        }
+    }
+
+    /**
+     * Applies removals made during the rebuild, makes the new file durable and moves it into place.
+     */
+    private void swap(LinkIndexFile built, Path builtPath) throws IOException {
+        writeLock.lock();
+        try {
+            removedDuringRebuild.forEach(built::remove);
+            built.force();
+            Files.move(builtPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LinkIndexFile previous = file;
+            file = built;
+            closeQuietly(previous);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stops serving a file that failed at runtime; the next maintenance run rebuilds it.
+     */
+    private void discard(LinkIndexFile failed, RuntimeException e) {
+        writeLock.lock();
+        try {
+            if (failed != null && file == failed) {
+                log.warn("Link index disabled until rebuilt: {}", e.getMessage());
+                file = null;
+                closeQuietly(failed);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static void closeQuietly(LinkIndexFile index) {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.close();
+        } catch (IOException e) {
+            log.debug("Closing link index failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.lioness.urlcompressor.url;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * LinkIndexFile is an open-addressing hash table of {@link ResolvedLink} records in a memory-mapped file.
+ *
+ * Layout: a 64-byte header (magic, format version, table geometry, build time, CRC32C of the header),
+ * a slot table of (key hash, record offset) pairs probed linearly, and an append-only data region
+ * of records, each carrying its own CRC32C. An updated link gets a new record and its slot is re-pointed;
+ * a removed link keeps its slot with the offset negated, so probing and key comparison still work.
+ *
+ * Opening a file verifies the header, every record and every slot, so a torn or corrupt file is rejected
+ * as a whole. Lookups read fields straight from the mapping; only the target URL is materialized.
+ * Readers need no lock: a record is fully written before its slot offset is published with release
+ * semantics. Writers must be serialized by the caller.
+ */
+final class LinkIndexFile implements AutoCloseable {
+
+    static final int FORMAT_VERSION = 2;
+
+    private static final long MAGIC = 0x4C4E4B4944583031L; // "LNKIDX01"
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_CRC_OFFSET = 32;
+    private static final int SLOT_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 56;
+    private static final long NULL_VALUE = Long.MIN_VALUE;
+
+    // Fraction of slots that may be used (live or removed) before the table counts as full
+    private static final double MAX_LOAD = 0.75;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer slots;
+    private final MappedByteBuffer data;
+    private final int slotCount;
+    private final long builtAtMillis;
+
+    // Next free byte in the data region; offsets start at 8 so that 0 marks an empty slot
+    private int appendAt;
+    private int usedSlots;
+    private int liveEntries;
+
+    private LinkIndexFile(FileChannel channel, int slotCount, int dataCapacity, long builtAtMillis) throws IOException {
+        this.channel = channel;
+        this.slotCount = slotCount;
+        this.builtAtMillis = builtAtMillis;
+        this.slots = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, (long) slotCount * SLOT_SIZE);
+        this.data = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) slotCount * SLOT_SIZE, dataCapacity);
+        this.appendAt = Long.BYTES;
+    }
+
+    /**
+     * Creates an empty index file, replacing any existing file at the path.
+     *
+     * @param path         file location
+     * @param slotCount    number of hash slots, a power of two
+     * @param dataCapacity size of the record region in bytes
+     * @return the open, empty index
+     * @throws IOException if the file cannot be created or mapped
+     */
+    static LinkIndexFile create(Path path, int slotCount, int dataCapacity) throws IOException {
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("Slot count must be a power of two: " + slotCount);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long builtAt = System.currentTimeMillis();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(0, MAGIC)
+                    .putInt(8, FORMAT_VERSION)
+                    .putInt(12, slotCount)
+                    .putLong(16, dataCapacity)
+                    .putLong(24, builtAt)
+                    .putInt(HEADER_CRC_OFFSET, headerCrc(header));
+            channel.write(header, 0);
+            return new LinkIndexFile(channel, slotCount, dataCapacity, builtAt);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens and fully verifies an existing index file.
+     *
+     * @param path file location
+     * @return the open index
+     * @throws IOException if the file cannot be read, has another format version, or fails verification
+     */
+    static LinkIndexFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0) != HEADER_SIZE || header.getLong(0) != MAGIC) {
+                throw new IOException("Not a link index file: " + path);
+            }
+            if (header.getInt(HEADER_CRC_OFFSET) != headerCrc(header)) {
+                throw new IOException("Link index header checksum mismatch: " + path);
+            }
+            if (header.getInt(8) != FORMAT_VERSION) {
+                throw new IOException("Unsupported link index format " + header.getInt(8) + ": " + path);
+            }
+            int slotCount = header.getInt(12);
+            long dataCapacity = header.getLong(16);
+            if (Integer.bitCount(slotCount) != 1 || dataCapacity > Integer.MAX_VALUE
+                    || channel.size() != HEADER_SIZE + (long) slotCount * SLOT_SIZE + dataCapacity) {
+                throw new IOException("Link index size does not match its header: " + path);
+            }
+
+            LinkIndexFile index = new LinkIndexFile(channel, slotCount, (int) dataCapacity, header.getLong(24));
+            index.verify();
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up a link by its stored short URL.
+     *
+     * @param shortUrl the stored short URL
+     * @return Optional containing the link, or empty if it is not in the index
+     * @throws IllegalStateException if the record found fails its checksum
+     */
+    Optional<ResolvedLink> get(String shortUrl) {
+        byte[] key = shortUrl.getBytes(StandardCharsets.UTF_8);
+        int slot = find(BloomFilter.hash(shortUrl), key);
+        if (slot < 0) {
+            return Optional.empty();
+        }
+        long offset = slotOffset(slot);
+        if (offset < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(read((int) offset, shortUrl));
+    }
+
+    /**
+     * Stores a link, unless the index already holds a newer version of it.
+     *
+     * @param link the link to store
+     * @return false if the index is full and the link was not stored
+     */
+    boolean put(ResolvedLink link) {
+        byte[] key = link.shortenedUrl().getBytes(StandardCharsets.UTF_8);
+        byte[] url = link.originalUrl().getBytes(StandardCharsets.UTF_8);
+        long hash = BloomFilter.hash(link.shortenedUrl());
+
+        int slot = find(hash, key);
+        if (slot >= 0) {
+            long current = slotOffset(slot);
+            if (current > 0 && data.getLong((int) current + 24) > link.version()) {
+                return true;
+            }
+        } else if (usedSlots + 1 > slotCount * MAX_LOAD) {
+            return false;
+        }
+
+        int length = align(RECORD_HEADER_SIZE + key.length + url.length);
+        if (key.length > 0xFFFF || url.length > 0xFFFF || (long) appendAt + length > data.capacity()) {
+            return false;
+        }
+        int offset = appendAt;
+        writeRecord(offset, length, link, key, url);
+        appendAt += length;
+
+        if (slot >= 0) {
+            if (slotOffset(slot) < 0) {
+                liveEntries++;
+            }
+            LONGS.setRelease(slots, slot * SLOT_SIZE + 8, (long) offset);
+        } else {
+            int free = -slot - 1;
+            slots.putLong(free * SLOT_SIZE, hash);
+            LONGS.setRelease(slots, free * SLOT_SIZE + 8, (long) offset);
+            usedSlots++;
+            liveEntries++;
+        }
+        return true;
+    }
+
+    /**
+     * Removes a link. Its slot stays occupied until the file is rebuilt.
+     *
+     * @param shortUrl the stored short URL
+     */
+    void remove(String shortUrl) {
+        byte[] key = shortUrl.getBytes(StandardCharsets.UTF_8);
+        int slot = find(BloomFilter.hash(shortUrl), key);
+        if (slot >= 0) {
+            long offset = slotOffset(slot);
+            if (offset > 0) {
+                LONGS.setRelease(slots, slot * SLOT_SIZE + 8, -offset);
+                liveEntries--;
+            }
+        }
+    }
+
+    /**
+     * @return number of links currently in the index
+     */
+    int size() {
+        return liveEntries;
+    }
+
+    /**
+     * @return share of the slot table or data region in use, whichever is higher (0..1)
+     */
+    double fillRatio() {
+        return Math.max((double) usedSlots / (slotCount * MAX_LOAD), (double) appendAt / data.capacity());
+    }
+
+    /**
+     * @return time the file was created, in epoch milliseconds
+     */
+    long builtAtMillis() {
+        return builtAtMillis;
+    }
+
+    /**
+     * Writes all changes of the mapping to the storage device.
+     */
+    void force() {
+        slots.force();
+        data.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Probes for a key.
+     *
+     * @return the slot holding the key (live or removed), or -(free slot) - 1 if the key is absent
+     */
+    private int find(long hash, byte[] key) {
+        int mask = slotCount - 1;
+        for (int slot = (int) hash & mask, probes = 0; probes < slotCount; slot = (slot + 1) & mask, probes++) {
+            long offset = slotOffset(slot);
+            if (offset == 0) {
+                return -slot - 1;
+            }
+            if (slots.getLong(slot * SLOT_SIZE) == hash && keyEquals((int) Math.abs(offset), key)) {
+                return slot;
+            }
+        }
+        throw new IllegalStateException("Link index slot table is full");
+    }
+
+    private long slotOffset(int slot) {
+        return (long) LONGS.getAcquire(slots, slot * SLOT_SIZE + 8);
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        if (Short.toUnsignedInt(data.getShort(offset + 48)) != key.length) {
+            return false;
+        }
+        return data.slice(offset + RECORD_HEADER_SIZE, key.length).equals(ByteBuffer.wrap(key));
+    }
+
+    /**
+     * Record layout: length, crc, id, owner id, version, created at, expires at, key length, url length,
+     * redirect policy (ordinal, padded to 4 bytes), key, url.
+     * The length is written last, so a scan stops at a record that was never completed.
+     */
+    private void writeRecord(int offset, int length, ResolvedLink link, byte[] key, byte[] url) {
+        data.putLong(offset + 8, link.id())
+                .putLong(offset + 16, orNull(link.ownerId()))
+                .putLong(offset + 24, link.version())
+                .putLong(offset + 32, toMicros(link.createdOn()))
+                .putLong(offset + 40, toMicros(link.expiresOn()))
+                .putShort(offset + 48, (short) key.length)
+                .putShort(offset + 50, (short) url.length)
+                .putInt(offset + 52, link.redirectPolicy().ordinal())
+                .put(offset + RECORD_HEADER_SIZE, key)
+                .put(offset + RECORD_HEADER_SIZE + key.length, url);
+        data.putInt(offset + 4, recordCrc(offset, length));
+        data.putInt(offset, length);
+    }
+
+    private ResolvedLink read(int offset, String shortUrl) {
+        int length = data.getInt(offset);
+        if (length < RECORD_HEADER_SIZE || data.getInt(offset + 4) != recordCrc(offset, length)) {
+            throw new IllegalStateException("Corrupt link index record at offset " + offset);
+        }
+        int keyLength = Short.toUnsignedInt(data.getShort(offset + 48));
+        byte[] url = new byte[Short.toUnsignedInt(data.getShort(offset + 50))];
+        data.get(offset + RECORD_HEADER_SIZE + keyLength, url);
+
+        long ownerId = data.getLong(offset + 16);
+        return new ResolvedLink(
+                data.getLong(offset + 8),
+                shortUrl,
+                new String(url, StandardCharsets.UTF_8),
+                fromMicros(data.getLong(offset + 32)),
+                fromMicros(data.getLong(offset + 40)),
+                ownerId == NULL_VALUE ? null : ownerId,
+                data.getLong(offset + 24),
+                RedirectPolicy.values()[data.getInt(offset + 52)]);
+    }
+
+    /**
+     * Checks every record checksum and that every slot points at a complete record;
+     * restores the append position and entry counts.
+     */
+    private void verify() throws IOException {
+        int offset = Long.BYTES;
+        while (offset + RECORD_HEADER_SIZE <= data.capacity()) {
+            int length = data.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < RECORD_HEADER_SIZE || length % Long.BYTES != 0 || (long) offset + length > data.capacity()
+                    || data.getInt(offset + 4) != recordCrc(offset, length)) {
+                throw new IOException("Corrupt link index record at offset " + offset);
+            }
+            offset += length;
+        }
+        appendAt = offset;
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            long recordOffset = Math.abs(slotOffset(slot));
+            if (recordOffset == 0) {
+                continue;
+            }
+            if (recordOffset >= appendAt) {
+                throw new IOException("Link index slot " + slot + " points past the last record");
+            }
+            usedSlots++;
+            if (slotOffset(slot) > 0) {
+                liveEntries++;
+            }
+        }
+    }
+
+    private int recordCrc(int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(data.slice(offset + 8, length - 8));
+        return (int) crc.getValue();
+    }
+
+    private static int headerCrc(ByteBuffer header) {
+        CRC32C crc = new CRC32C();
+        crc.update(Arrays.copyOf(header.array(), HEADER_CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static int align(int length) {
+        return (length + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private static long orNull(Long value) {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NULL_VALUE;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NULL_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -1,11 +1,19 @@
 package com.lioness.urlcompressor.url;
 
-import com.lioness.urlcompressor.user.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * LinkRepository provides database access methods for working with shortened URLs.
@@ -23,10 +31,178 @@ public interface LinkRepository extends JpaRepository<UrlEntity, Long> {
     Optional<UrlEntity> findByShortenedUrl(String shortUrl);
 
     /**
-     * Retrieves all shortened URLs owned by a specific user.
+     * Sets the expiration and redirect policy of a link, but only if it belongs to the given user.
+     * Ownership check and update run as one statement; the version is bumped like an entity update would.
      *
-     * @param owner the user who created the URLs
-     * @return a list of UrlEntity objects belonging to the user
+     * @param shortUrl       the stored short URL
+     * @param ownerId        id of the user who must own the link
+     * @param expiresOn      the new expiration, or null for none
+     * @param redirectPolicy the new redirect policy, or null to keep the stored one
+     * @return 1 if the link was updated, 0 if it does not exist or belongs to someone else
      */
-    List<UrlEntity> findByOwner(UserEntity owner);
+    @Modifying
+    @Query("""
+            UPDATE UrlEntity u
+            SET u.expiresOn = :expiresOn,
+                u.redirectPolicy = COALESCE(:redirectPolicy, u.redirectPolicy),
+                u.version = u.version + 1
+            WHERE u.shortenedUrl = :shortUrl AND u.ownerId = :ownerId
+            """)
+    int updateIfOwned(@Param("shortUrl") String shortUrl,
+                      @Param("ownerId") Long ownerId,
+                      @Param("expiresOn") LocalDateTime expiresOn,
+                      @Param("redirectPolicy") RedirectPolicy redirectPolicy);
+
+    /**
+     * Deletes a link, but only if it belongs to the given user. Ownership check and delete run as one statement.
+     *
+     * @param shortUrl the stored short URL
+     * @param ownerId  id of the user who must own the link
+     * @return 1 if the link was deleted, 0 if it does not exist or belongs to someone else
+     */
+    @Modifying
+    @Query("DELETE FROM UrlEntity u WHERE u.shortenedUrl = :shortUrl AND u.ownerId = :ownerId")
+    int deleteIfOwned(@Param("shortUrl") String shortUrl, @Param("ownerId") Long ownerId);
+
+    /**
+     * Streams every stored short URL, without loading entities. Must be consumed inside a transaction and closed.
+     *
+     * @return stream of short URLs
+     */
+    @Query("SELECT u.shortenedUrl FROM UrlEntity u")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    Stream<String> streamAllShortUrls();
+
+    /**
+     * Streams the short URLs created at or after the given time. Must be consumed inside a transaction and closed.
+     *
+     * @param since lower bound of created_at (inclusive)
+     * @return stream of short URLs
+     */
+    @Query("SELECT u.shortenedUrl FROM UrlEntity u WHERE u.createdOn >= :since")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    Stream<String> streamShortUrlsCreatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Streams every link as a {@link ResolvedLink}, without loading entities.
+     * Must be consumed inside a transaction and closed.
+     *
+     * @return stream of links
+     */
+    @Query("""
+            SELECT new com.lioness.urlcompressor.url.ResolvedLink(
+                u.id, u.shortenedUrl, u.originalUrl, u.createdOn, u.expiresOn, u.ownerId, u.version, u.redirectPolicy)
+            FROM UrlEntity u
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    Stream<ResolvedLink> streamAllResolved();
+
+    /**
+     * Streams the links expiring in [from, to) as {@link ResolvedLink}s.
+     * Must be consumed inside a transaction and closed.
+     *
+     * @param from lower bound of expires_at (inclusive)
+     * @param to   upper bound of expires_at (exclusive)
+     * @return stream of links
+     */
+    @Query("""
+            SELECT new com.lioness.urlcompressor.url.ResolvedLink(
+                u.id, u.shortenedUrl, u.originalUrl, u.createdOn, u.expiresOn, u.ownerId, u.version, u.redirectPolicy)
+            FROM UrlEntity u
+            WHERE u.expiresOn >= :from AND u.expiresOn < :to
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    Stream<ResolvedLink> streamExpiringBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Retrieves one page of a user's links, newest first, strictly after the given keyset position.
+     *
+     * @param ownerId   the owner's id
+     * @param createdOn creation time of the last link on the previous page
+     * @param id        id of the last link on the previous page
+     * @param limit     maximum number of links to return
+     * @return links ordered by (created_at, id) descending
+     */
+    @Query("""
+            SELECT u FROM UrlEntity u
+            WHERE u.ownerId = :ownerId
+              AND (u.createdOn < :createdOn OR (u.createdOn = :createdOn AND u.id < :id))
+            ORDER BY u.createdOn DESC, u.id DESC
+            """)
+    List<UrlEntity> findPageByOwner(@Param("ownerId") Long ownerId,
+                                    @Param("createdOn") LocalDateTime createdOn,
+                                    @Param("id") long id,
+                                    Limit limit);
+
+    /**
+     * Same as {@link #findPageByOwner} but only links that never expire or expire after {@code now}.
+     */
+    @Query("""
+            SELECT u FROM UrlEntity u
+            WHERE u.ownerId = :ownerId
+              AND (u.expiresOn IS NULL OR u.expiresOn > :now)
+              AND (u.createdOn < :createdOn OR (u.createdOn = :createdOn AND u.id < :id))
+            ORDER BY u.createdOn DESC, u.id DESC
+            """)
+    List<UrlEntity> findActivePageByOwner(@Param("ownerId") Long ownerId,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("createdOn") LocalDateTime createdOn,
+                                          @Param("id") long id,
+                                          Limit limit);
+
+    /**
+     * Same as {@link #findPageByOwner} but only links that expired before {@code now}.
+     */
+    @Query("""
+            SELECT u FROM UrlEntity u
+            WHERE u.ownerId = :ownerId
+              AND u.expiresOn < :now
+              AND (u.createdOn < :createdOn OR (u.createdOn = :createdOn AND u.id < :id))
+            ORDER BY u.createdOn DESC, u.id DESC
+            """)
+    List<UrlEntity> findExpiredPageByOwner(@Param("ownerId") Long ownerId,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("createdOn") LocalDateTime createdOn,
+                                           @Param("id") long id,
+                                           Limit limit);
+
+    /**
+     * Aggregates a user's link count and clicks, overall and for active links, in one round-trip.
+     * No entities are loaded.
+     *
+     * @param ownerId the owner's id
+     * @param now     reference time deciding which links are active
+     * @return the user's totals (all zero if the user has no links)
+     */
+    @Query("""
+            SELECT new com.lioness.urlcompressor.url.LinkTotals(
+                COUNT(u),
+                COALESCE(SUM(u.clickCount), 0L),
+                COALESCE(SUM(CASE WHEN u.expiresOn IS NULL OR u.expiresOn > :now THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN u.expiresOn IS NULL OR u.expiresOn > :now THEN u.clickCount ELSE 0L END), 0L))
+            FROM UrlEntity u
+            WHERE u.ownerId = :ownerId
+            """)
+    LinkTotals aggregateByOwner(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    /**
+     * Retrieves one keyset page of a user's links matching the filter.
+     * One extra row is fetched to tell whether another page exists.
+     *
+     * @param ownerId  the owner's id
+     * @param filter   which links to include
+     * @param after    position after which the page starts
+     * @param pageSize number of links per page
+     * @return the page and the cursor of the next one
+     */
+    default LinkSlice findPage(Long ownerId, LinkFilter filter, LinkCursor after, int pageSize) {
+        LocalDateTime now = LocalDateTime.now();
+        Limit limit = Limit.of(pageSize + 1);
+        List<UrlEntity> rows = switch (filter) {
+            case ACTIVE -> findActivePageByOwner(ownerId, now, after.createdOn(), after.id(), limit);
+            case EXPIRED -> findExpiredPageByOwner(ownerId, now, after.createdOn(), after.id(), limit);
+            case ALL -> findPageByOwner(ownerId, after.createdOn(), after.id(), limit);
+        };
+        return LinkSlice.of(rows, pageSize);
+    }
 }
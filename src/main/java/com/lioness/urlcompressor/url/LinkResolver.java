@@ -0,0 +1,49 @@
+package com.lioness.urlcompressor.url;
+
+import com.lioness.urlcompressor.analytics.ClickPipeline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * LinkResolver serves the public redirect path.
+ * Codes failing the {@link ShortCodeValidator} are rejected without any lookup; the others are resolved
+ * through the {@link LinkCache}, so repeated clicks on the same link (or on the same unknown code)
+ * are answered without a database lookup.
+ * Clicks are handed to the {@link ClickPipeline}, which journals, counts and analyses them
+ * on its own threads, so no per-click work runs on the request thread.
+ */
+@Service
+@RequiredArgsConstructor
+public class LinkResolver {
+
+    private final ClickPipeline clickPipeline;
+    private final LinkCache linkCache;
+    private final ShortCodeValidator codeValidator;
+
+    /**
+     * Resolves a short code to its target link.
+     *
+     * @param code the short code as it appears in the redirect path (e.g. abc123)
+     * @return Optional containing the resolved link, or empty if the code is malformed or unknown
+     */
+    public Optional<ResolvedLink> resolve(String code) {
+        if (!codeValidator.accepts(code)) {
+            return Optional.empty();
+        }
+        return linkCache.find(ShortLinkGenerator.LINK_PREFIX + code);
+    }
+
+    /**
+     * Records a click on a resolved link. The click is only queued; it is journaled and analysed in the background.
+     *
+     * @param link      the link that was followed
+     * @param referrer  Referer header of the request, may be null
+     * @param userAgent User-Agent header of the request, may be null
+     * @param clientIp  address of the client
+     */
+    public void recordClick(ResolvedLink link, String referrer, String userAgent, String clientIp) {
+        clickPipeline.publish(link, referrer, userAgent, clientIp);
+    }
+}
@@ -1,11 +1,10 @@
 package com.lioness.urlcompressor.url;
 
+import com.lioness.urlcompressor.url.dto.LinkPage;
 import com.lioness.urlcompressor.url.dto.UrlRequest;
 import com.lioness.urlcompressor.url.dto.UrlResponse;
 import com.lioness.urlcompressor.url.dto.UrlStatsResponse;
 
-import java.util.List;
-
 /**
  * LinkService defines the contract for handling all business logic
  * related to URL shortening, expansion, management, and analytics.
@@ -13,12 +12,14 @@ import java.util.List;
 public interface LinkService {
 
     /**
-     * Retrieves all shortened URLs created by a specific user.
+     * Retrieves one page of the shortened URLs created by the authenticated user, newest first.
      *
-     * @param username the username or Authorization header (depending on usage)
-     * @return a list of UrlResponse objects
+     * @param authHeader the Authorization token
+     * @param cursor     opaque cursor returned with the previous page, or null for the first page
+     * @param size       requested page size (null for the default; capped at the maximum)
+     * @return a page of UrlResponse objects with the cursor of the next page
      */
-    List<UrlResponse> getAllLinksForUser(String username);
+    LinkPage getAllLinksForUser(String authHeader, String cursor, Integer size);
 
     /**
      * Creates a new shortened URL based on the provided request.
@@ -62,11 +63,13 @@ public interface LinkService {
     UrlStatsResponse getStatsByShortUrl(String shortUrl, String authHeader);
 
     /**
-     * Filters user's URLs based on type ("active", "expired", etc.).
+     * Filters user's URLs based on type ("active", "expired", etc.), one page at a time.
      *
      * @param type        the filter type
      * @param authHeader  the Authorization token
-     * @return filtered list of UrlResponse objects
+     * @param cursor      opaque cursor returned with the previous page, or null for the first page
+     * @param size        requested page size (null for the default; capped at the maximum)
+     * @return a page of filtered UrlResponse objects with the cursor of the next page
      */
-    List<UrlResponse> getLinksByFilter(String type, String authHeader);
+    LinkPage getLinksByFilter(String type, String authHeader, String cursor, Integer size);
 }
@@ -1,12 +1,15 @@
 package com.lioness.urlcompressor.url;
 
+import com.lioness.urlcompressor.analytics.UniqueVisitors;
 import com.lioness.urlcompressor.exceptions.UnauthorizedAccessException;
 import com.lioness.urlcompressor.exceptions.UrlNotFoundException;
+import com.lioness.urlcompressor.security.AuthenticatedUser;
 import com.lioness.urlcompressor.security.AuthorizationService;
+import com.lioness.urlcompressor.url.dto.LinkPage;
 import com.lioness.urlcompressor.url.dto.UrlRequest;
 import com.lioness.urlcompressor.url.dto.UrlResponse;
 import com.lioness.urlcompressor.url.dto.UrlStatsResponse;
-import com.lioness.urlcompressor.user.UserEntity;
+import com.lioness.urlcompressor.user.UserRepository;
 import com.lioness.urlcompressor.user.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -32,6 +35,10 @@ public class LinkServiceImpl implements LinkService {
     private final ShortLinkGenerator linkGenerator;
     private final AuthorizationService authorizationService;
     private final UserService userService;
+    private final UserRepository userRepository;
+    private final LinkCache linkCache;
+    private final ClickCounter clickCounter;
+    private final UniqueVisitors uniqueVisitors;
 
     /**
      * Generates a new shortened URL.
@@ -39,7 +46,7 @@ public class LinkServiceImpl implements LinkService {
     @Override
     @Transactional
     public UrlResponse getShortUrlFromLongUrl(UrlRequest request) {
-        Optional<UserEntity> userOptional = authorizationService.getAuthorizedUser(request.getAuthHeader());
+        Optional<AuthenticatedUser> userOptional = authorizationService.getAuthorizedPrincipal(request.getAuthHeader());
         if (userOptional.isEmpty()) {
             return UrlResponse.failed(UNAUTHORIZED_ACCESS, HttpStatus.UNAUTHORIZED);
         }
@@ -59,147 +66,136 @@ public class LinkServiceImpl implements LinkService {
                 .shortenedUrl(shortUrl)
                 .originalUrl(longUrl)
                 .expiresOn(expiresAt)
-                .owner(userOptional.get())
+                .redirectPolicy(request.getRedirectPolicy() != null ? request.getRedirectPolicy() : RedirectPolicy.DEFAULT)
+                .owner(userRepository.getReferenceById(userOptional.get().id()))
                 .build();
 
         linkRepository.save(url);
+        linkCache.created(url); // Bloom filter and link index, no cached "not found" left
 
         return UrlResponse.success(
                 shortUrl,
                 longUrl,
                 LocalDateTime.now(),
                 expiresAt,
-                userOptional.get().getLogin(),
+                userOptional.get().login(),
                 URL_CREATED,
                 HttpStatus.CREATED
         );
     }
 
     /**
-     * Retrieves all shortened links for an authenticated user.
+     * Retrieves one page of the authenticated user's shortened links, newest first.
      */
     @Override
-    public List<UrlResponse> getAllLinksForUser(String authHeader) {
-        Optional<UserEntity> userOptional = authorizationService.getAuthorizedUser(authHeader);
-        if (userOptional.isEmpty()) {
-            return List.of(); // or throw UnauthorizedAccessException
-        }
-
-        UserEntity user = userOptional.get();
-        return linkRepository.findByOwner(user).stream()
-                .map(link -> UrlResponse.success(
-                        "https://" + link.getShortenedUrl(),
-                        link.getOriginalUrl(),
-                        link.getCreatedOn(),
-                        link.getExpiresOn(),
-                        user.getLogin(),
-                        "Link found",
-                        HttpStatus.OK
-                ))
-                .toList();
+    public LinkPage getAllLinksForUser(String authHeader, String cursor, Integer size) {
+        return getLinksByFilter("all", authHeader, cursor, size);
     }
 
     /**
      * Expands a short URL to the original long URL.
+     * The link is resolved through the near-cache and the click is counted in memory,
+     * so a cached link is expanded without any database statement.
      */
     @Override
-    @Transactional
     public UrlResponse getLongUrlFromShortUrl(UrlRequest request) {
         String shortUrl = request.getOriginalUrl();
         if (shortUrl == null || shortUrl.isEmpty()) {
             return UrlResponse.failed(INVALID_URL, HttpStatus.BAD_REQUEST);
         }
 
-        Optional<UrlEntity> urlOptional = linkRepository.findByShortenedUrl(shortUrl);
+        Optional<ResolvedLink> urlOptional = linkCache.find(shortUrl);
         if (urlOptional.isEmpty()) {
             return UrlResponse.failed(URL_NOT_FOUND, HttpStatus.NOT_FOUND);
         }
 
-        UrlEntity url = urlOptional.get();
-        Optional<UserEntity> userOptional = authorizationService.getAuthorizedUser(request.getAuthHeader());
+        ResolvedLink url = urlOptional.get();
+        Optional<AuthenticatedUser> userOptional = authorizationService.getAuthorizedPrincipal(request.getAuthHeader());
         if (userOptional.isEmpty()) {
             return UrlResponse.failed(UNAUTHORIZED_ACCESS, HttpStatus.UNAUTHORIZED);
         }
 
-        if (!url.getOwner().equals(userOptional.get())) {
+        if (!url.isOwnedBy(userOptional.get().id())) {
             return UrlResponse.failed("Access denied to this link", HttpStatus.FORBIDDEN);
         }
 
-        if (url.getExpiresOn() != null && url.getExpiresOn().isBefore(LocalDateTime.now())) {
+        if (url.isExpiredAt(LocalDateTime.now())) {
             return UrlResponse.failed(EXPIRED_URL, HttpStatus.GONE);
         }
 
-        url.incrementClickCount();
-        linkRepository.save(url);
+        clickCounter.record(url.id());
 
         return UrlResponse.success(
-                url.getShortenedUrl(),
-                url.getOriginalUrl(),
-                url.getCreatedOn(),
-                url.getExpiresOn(),
-                url.getOwner().getLogin(),
+                url.shortenedUrl(),
+                url.originalUrl(),
+                url.createdOn(),
+                url.expiresOn(),
+                userOptional.get().login(),
                 URL_UPDATED,
                 HttpStatus.OK
         );
     }
 
     /**
-     * Updates an existing shortened URL's expiration date.
+     * Updates an existing shortened URL's expiration date and, if given, its redirect policy.
+     * The ownership check and the update are a single statement; the link details for the response
+     * come from the near-cache, so a cached link is updated in one database round-trip.
      */
     @Override
     @Transactional
     public UrlResponse updateUrl(UrlRequest request) {
-        Optional<UserEntity> userOptional = authorizationService.getAuthorizedUser(request.getAuthHeader());
+        Optional<AuthenticatedUser> userOptional = authorizationService.getAuthorizedPrincipal(request.getAuthHeader());
         if (userOptional.isEmpty()) {
             return UrlResponse.failed(UNAUTHORIZED_ACCESS, HttpStatus.UNAUTHORIZED);
         }
 
-        Optional<UrlEntity> urlOptional = linkRepository.findByShortenedUrl(request.getOriginalUrl());
+        String shortUrl = request.getOriginalUrl();
+        Optional<ResolvedLink> urlOptional = linkCache.find(shortUrl);
         if (urlOptional.isEmpty()) {
             return UrlResponse.failed(URL_NOT_FOUND, HttpStatus.NOT_FOUND);
         }
 
-        UrlEntity url = urlOptional.get();
-        if (!url.getOwner().getId().equals(userOptional.get().getId())) {
-            return UrlResponse.failed(UNAUTHORIZED_ACCESS, HttpStatus.FORBIDDEN);
+        ResolvedLink url = urlOptional.get();
+        Long userId = userOptional.get().id();
+        // A missing policy keeps the stored one; the cached copy may be stale
+        if (linkRepository.updateIfOwned(shortUrl, userId, request.getExpirationTime(), request.getRedirectPolicy()) == 0) {
+            return notModified(url, userId);
         }
-
-        url.setExpiresOn(request.getExpirationTime());
-        linkRepository.save(url);
+        linkCache.updated(shortUrl, request.getExpirationTime());
 
         return UrlResponse.success(
-                url.getShortenedUrl(),
-                url.getOriginalUrl(),
-                url.getCreatedOn(),
-                url.getExpiresOn(),
-                userOptional.get().getLogin(),
+                url.shortenedUrl(),
+                url.originalUrl(),
+                url.createdOn(),
+                request.getExpirationTime(),
+                userOptional.get().login(),
                 URL_UPDATED,
                 HttpStatus.OK
         );
     }
 
     /**
-     * Deletes a shortened URL.
+     * Deletes a shortened URL. The ownership check and the delete are a single statement.
      */
     @Override
     @Transactional
     public UrlResponse deleteUrl(UrlRequest request) {
-        Optional<UserEntity> userOptional = authorizationService.getAuthorizedUser(request.getAuthHeader());
+        Optional<AuthenticatedUser> userOptional = authorizationService.getAuthorizedPrincipal(request.getAuthHeader());
         if (userOptional.isEmpty()) {
             return UrlResponse.failed(UNAUTHORIZED_ACCESS, HttpStatus.UNAUTHORIZED);
         }
 
-        Optional<UrlEntity> urlOptional = linkRepository.findByShortenedUrl(request.getOriginalUrl());
+        String shortUrl = request.getOriginalUrl();
+        Optional<ResolvedLink> urlOptional = linkCache.find(shortUrl);
         if (urlOptional.isEmpty()) {
             return UrlResponse.failed(URL_NOT_FOUND, HttpStatus.NOT_FOUND);
         }
 
-        UrlEntity url = urlOptional.get();
-        if (!url.getOwner().getId().equals(userOptional.get().getId())) {
-            return UrlResponse.failed(UNAUTHORIZED_ACCESS, HttpStatus.FORBIDDEN);
+        Long userId = userOptional.get().id();
+        if (linkRepository.deleteIfOwned(shortUrl, userId) == 0) {
+            return notModified(urlOptional.get(), userId);
         }
-
-        linkRepository.delete(url);
+        linkCache.deleted(shortUrl);
         return UrlResponse.success(null, null, null, null, null, URL_DELETED, HttpStatus.OK);
     }
 
@@ -208,18 +204,18 @@ public class LinkServiceImpl implements LinkService {
      */
     @Override
     public UrlStatsResponse getStatsByShortUrl(String shortUrl, String authHeader) {
-        Optional<UserEntity> userOptional = authorizationService.getAuthorizedUser(authHeader);
+        Optional<AuthenticatedUser> userOptional = authorizationService.getAuthorizedPrincipal(authHeader);
         if (userOptional.isEmpty()) {
             throw new UnauthorizedAccessException("Unauthorized access to statistics.");
         }
 
-        Optional<UrlEntity> urlOptional = linkRepository.findByShortenedUrl(shortUrl);
+        Optional<UrlEntity> urlOptional = findLinkEntity(shortUrl);
         if (urlOptional.isEmpty()) {
             throw new UrlNotFoundException("URL not found.");
         }
 
         UrlEntity url = urlOptional.get();
-        if (!url.getOwner().getId().equals(userOptional.get().getId())) {
+        if (!url.getOwnerId().equals(userOptional.get().id())) {
             throw new UnauthorizedAccessException("Access to another user's stats is forbidden.");
         }
 
@@ -228,44 +224,75 @@ public class LinkServiceImpl implements LinkService {
                 url.getOriginalUrl(),
                 url.getCreatedOn(),
                 url.getExpiresOn(),
-                url.getClickCount()
+                url.getClickCount(),
+                uniqueVisitors.estimate(url.getId())
         );
     }
 
     /**
-     * Filters user's links by type (active/expired).
+     * Retrieves one page of the user's links filtered by type (active/expired/all).
+     * Filtering and keyset pagination on (created_at, id) both run in SQL,
+     * so only a single page of links is ever loaded.
      */
     @Override
-    public List<UrlResponse> getLinksByFilter(String type, String authHeader) {
-        Optional<UserEntity> userOptional = authorizationService.getAuthorizedUser(authHeader);
+    public LinkPage getLinksByFilter(String type, String authHeader, String cursor, Integer size) {
+        Optional<AuthenticatedUser> userOptional = authorizationService.getAuthorizedPrincipal(authHeader);
         if (userOptional.isEmpty()) {
-            return List.of(); // or throw UnauthorizedAccessException
+            return LinkPage.empty(HttpStatus.OK); // or throw UnauthorizedAccessException
+        }
+
+        Optional<LinkCursor> position = LinkCursor.decode(cursor);
+        if (position.isEmpty()) {
+            return LinkPage.empty(HttpStatus.BAD_REQUEST);
         }
 
-        UserEntity user = userOptional.get();
-        List<UrlEntity> allLinks = linkRepository.findByOwner(user);
-
-        LocalDateTime now = LocalDateTime.now();
-        List<UrlEntity> filteredLinks = switch (type.toLowerCase()) {
-            case "expired" -> allLinks.stream()
-                    .filter(link -> link.getExpiresOn() != null && link.getExpiresOn().isBefore(now))
-                    .toList();
-            case "active" -> allLinks.stream()
-                    .filter(link -> link.getExpiresOn() == null || link.getExpiresOn().isAfter(now))
-                    .toList();
-            default -> allLinks;
-        };
-
-        return filteredLinks.stream()
+        AuthenticatedUser user = userOptional.get();
+        LinkSlice slice = linkRepository.findPage(
+                user.id(), LinkFilter.from(type), position.get(), LinkCursor.pageSize(size));
+
+        List<UrlResponse> page = slice.links().stream()
                 .map(link -> UrlResponse.success(
-                        "https://" + link.getShortenedUrl(),
+                        link.getShortenedUrl(),
                         link.getOriginalUrl(),
                         link.getCreatedOn(),
                         link.getExpiresOn(),
-                        user.getLogin(),
+                        user.login(),
                         "Link found",
                         HttpStatus.OK
                 ))
                 .toList();
+        return LinkPage.of(page, slice.nextCursor());
+    }
+
+    /**
+     * Loads the managed entity behind a short URL.
+     * Unknown codes are rejected by the near-cache without a query; known ones are loaded by primary key.
+     *
+     * @param shortUrl the stored short URL
+     * @return Optional containing the entity, or empty if the link does not exist
+     */
+    private Optional<UrlEntity> findLinkEntity(String shortUrl) {
+        Optional<ResolvedLink> cached = linkCache.find(shortUrl);
+        if (cached.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Optional<UrlEntity> url = linkRepository.findById(cached.get().id());
+        if (url.isEmpty()) {
+            linkCache.deleted(shortUrl); // deleted since it was cached
+        }
+        return url;
+    }
+
+    /**
+     * Explains why a conditional update or delete matched no row. The owner of a link never changes,
+     * so a cached link owned by the user can only have been deleted in the meantime.
+     */
+    private UrlResponse notModified(ResolvedLink cached, Long userId) {
+        if (!cached.isOwnedBy(userId)) {
+            return UrlResponse.failed(UNAUTHORIZED_ACCESS, HttpStatus.FORBIDDEN);
+        }
+        linkCache.deleted(cached.shortenedUrl());
+        return UrlResponse.failed(URL_NOT_FOUND, HttpStatus.NOT_FOUND);
     }
 }
@@ -0,0 +1,28 @@
+package com.lioness.urlcompressor.url;
+
+import java.util.List;
+
+/**
+ * LinkSlice is one keyset page of a user's links together with the cursor of the next page.
+ *
+ * @param links      links on this page, newest first
+ * @param nextCursor encoded cursor of the next page, or null if this is the last page
+ */
+public record LinkSlice(List<UrlEntity> links, String nextCursor) {
+
+    /**
+     * Builds a slice from rows fetched with a limit of {@code pageSize + 1}:
+     * the extra row only signals that another page exists and is dropped.
+     *
+     * @param rows     fetched rows, ordered by (created_at, id) descending
+     * @param pageSize the requested page size
+     * @return the page and the cursor following its last link
+     */
+    public static LinkSlice of(List<UrlEntity> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new LinkSlice(rows, null);
+        }
+        List<UrlEntity> page = rows.subList(0, pageSize);
+        return new LinkSlice(page, LinkCursor.after(page.get(pageSize - 1)).encode());
+    }
+}
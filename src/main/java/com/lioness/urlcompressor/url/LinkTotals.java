@@ -0,0 +1,12 @@
+package com.lioness.urlcompressor.url;
+
+/**
+ * LinkTotals holds a user's link statistics aggregated by the database in a single query.
+ *
+ * @param linkCount    number of links the user owns
+ * @param totalClicks  clicks across all of the user's links
+ * @param activeCount  number of links that are not expired
+ * @param activeClicks clicks across the user's active links
+ */
+public record LinkTotals(long linkCount, long totalClicks, long activeCount, long activeClicks) {
+}
@@ -0,0 +1,60 @@
+package com.lioness.urlcompressor.url;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * RedirectCaching derives the Cache-Control header of a redirect from the link's {@link RedirectPolicy}
+ * and expiration, so that browsers and CDNs can answer repeat clicks without ever serving a redirect
+ * after the link has expired.
+ *
+ * The max-age is the policy's cap, shortened to the time left until expiration. The caps also bound how long
+ * a changed or deleted link may still be redirected from a cache. Links expiring within a second are not cached.
+ */
+@Component
+public class RedirectCaching {
+
+    private final Duration permanentMaxAge;
+    private final Duration temporaryMaxAge;
+
+    /**
+     * Creates the policy with its caps.
+     *
+     * @param permanentMaxAge longest caching of a PERMANENT redirect
+     * @param temporaryMaxAge longest caching of a TEMPORARY redirect
+     */
+    public RedirectCaching(@Value("${link.redirect.permanent-max-age:1d}") Duration permanentMaxAge,
+                           @Value("${link.redirect.temporary-max-age:5m}") Duration temporaryMaxAge) {
+        this.permanentMaxAge = permanentMaxAge;
+        this.temporaryMaxAge = temporaryMaxAge;
+    }
+
+    /**
+     * Computes the Cache-Control header of a redirect to a link that has not expired.
+     *
+     * @param link the link being followed
+     * @param now  the current time
+     * @return public with a max-age, or no-store if the redirect must not be cached
+     */
+    public CacheControl cacheControl(ResolvedLink link, LocalDateTime now) {
+        Duration maxAge = switch (link.redirectPolicy()) {
+            case PERMANENT -> permanentMaxAge;
+            case TEMPORARY -> temporaryMaxAge;
+            case NO_CACHE -> Duration.ZERO;
+        };
+        if (link.expiresOn() != null) {
+            Duration remaining = Duration.between(now, link.expiresOn());
+            if (remaining.compareTo(maxAge) < 0) {
+                maxAge = remaining;
+            }
+        }
+        if (maxAge.getSeconds() <= 0) {
+            return CacheControl.noStore();
+        }
+        return CacheControl.maxAge(maxAge).cachePublic();
+    }
+}
@@ -0,0 +1,100 @@
+package com.lioness.urlcompressor.url;
+
+import com.lioness.urlcompressor.util.CircuitOpenException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * RedirectController is the public entry point for following short links.
+ * A GET on /{code} answers with a redirect to the original URL, with the status and Cache-Control header
+ * given by the link's {@link RedirectPolicy} (see {@link RedirectCaching}).
+ *
+ * This path does not require authentication and is excluded from the security filter chain
+ * (see SecurityConfig), so a cached link is served without any JWT or database work.
+ * Cached links keep being served while the database is unavailable; only links that would have to be
+ * looked up answer 503.
+ */
+@RestController
+@RequiredArgsConstructor
+public class RedirectController {
+
+    /**
+     * Allowed shape of a short code in the redirect path.
+     * Restricting it keeps /{code} from shadowing other single-segment routes (e.g. /error, /swagger-ui.html).
+     */
+    public static final String CODE_PATTERN = "[0-9A-Za-z]{6,12}";
+
+    // Precompiled matcher for the full redirect path (/ + code)
+    private static final Pattern REDIRECT_PATH = Pattern.compile("/" + CODE_PATTERN);
+
+    // Retry-After of a 503 while the database is unavailable
+    private static final String RETRY_AFTER_SECONDS = "10";
+
+    private final LinkResolver linkResolver;
+    private final RedirectCaching redirectCaching;
+
+    /**
+     * Redirects to the original URL behind the given short code.
+     *
+     * @param code      the short code (e.g. abc123)
+     * @param referrer  Referer header, recorded with the click
+     * @param userAgent User-Agent header, recorded (hashed) with the click
+     * @param request   the request, for the client address
+     * @return 301, 302 or 307 with Location and Cache-Control headers, 404 if the code is unknown,
+     * 410 if the link has expired, or 503 if the link is not cached and the database is unavailable
+     */
+    @GetMapping("/{code:" + CODE_PATTERN + "}")
+    public ResponseEntity<Void> redirect(@PathVariable String code,
+                                         @RequestHeader(value = HttpHeaders.REFERER, required = false) String referrer,
+                                         @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent,
+                                         HttpServletRequest request) {
+        Optional<ResolvedLink> linkOptional;
+        try {
+            linkOptional = linkResolver.resolve(code);
+        } catch (CircuitOpenException | DataAccessException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .cacheControl(CacheControl.noStore())
+                    .build();
+        }
+        if (linkOptional.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ResolvedLink link = linkOptional.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (link.isExpiredAt(now)) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+
+        linkResolver.recordClick(link, referrer, userAgent, request.getRemoteAddr());
+
+        return ResponseEntity.status(link.redirectPolicy().status())
+                .header(HttpHeaders.LOCATION, link.originalUrl())
+                .cacheControl(redirectCaching.cacheControl(link, now))
+                .build();
+    }
+
+    /**
+     * Checks whether a request path targets the public redirect endpoint.
+     *
+     * @param path the servlet path of the request
+     * @return true if the path is a single short code segment
+     */
+    public static boolean isRedirectPath(String path) {
+        return path != null && REDIRECT_PATH.matcher(path).matches();
+    }
+}
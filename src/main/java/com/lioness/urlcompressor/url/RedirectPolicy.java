@@ -0,0 +1,35 @@
+package com.lioness.urlcompressor.url;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * RedirectPolicy decides how a link redirects and whether browsers and CDNs may cache the redirect.
+ * A cached redirect is followed without reaching the server, so its click is never counted.
+ */
+public enum RedirectPolicy {
+
+    /** 301; cacheable for up to link.redirect.permanent-max-age, never beyond the link's expiration. */
+    PERMANENT(HttpStatus.MOVED_PERMANENTLY),
+
+    /** 302; cacheable for up to link.redirect.temporary-max-age, never beyond the link's expiration. */
+    TEMPORARY(HttpStatus.FOUND),
+
+    /** 307 with Cache-Control: no-store, so analytics see every click. */
+    NO_CACHE(HttpStatus.TEMPORARY_REDIRECT);
+
+    /** Policy of links created without one. */
+    public static final RedirectPolicy DEFAULT = TEMPORARY;
+
+    private final HttpStatus status;
+
+    RedirectPolicy(HttpStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * @return status code of the redirect response
+     */
+    public HttpStatus status() {
+        return status;
+    }
+}
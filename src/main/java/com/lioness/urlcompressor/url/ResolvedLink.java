@@ -0,0 +1,73 @@
+package com.lioness.urlcompressor.url;
+
+import java.time.LocalDateTime;
+
+/**
+ * ResolvedLink is the compact, immutable view of a short URL kept in memory by {@link LinkCache}.
+ * It holds just enough to serve a redirect or an ownership check without touching the database.
+ *
+ * @param id             identifier of the short URL record
+ * @param shortenedUrl   the stored short URL (e.g. https://abc123)
+ * @param originalUrl    the target URL of the redirect
+ * @param createdOn      creation timestamp
+ * @param expiresOn      optional expiration timestamp (null if the link never expires)
+ * @param ownerId        identifier of the user who owns the link
+ * @param version        entity version, used to never replace a cached entry with an older one
+ * @param redirectPolicy how the redirect may be cached; {@link RedirectPolicy#DEFAULT} if null
+ */
+public record ResolvedLink(Long id,
+                           String shortenedUrl,
+                           String originalUrl,
+                           LocalDateTime createdOn,
+                           LocalDateTime expiresOn,
+                           Long ownerId,
+                           long version,
+                           RedirectPolicy redirectPolicy) {
+
+    public ResolvedLink {
+        if (redirectPolicy == null) {
+            redirectPolicy = RedirectPolicy.DEFAULT;
+        }
+    }
+
+    /**
+     * Builds a resolved view from a persisted entity.
+     * Only the owner's id is read, so the owner is never loaded.
+     *
+     * @param url the short URL entity
+     * @return a detached ResolvedLink
+     */
+    public static ResolvedLink from(UrlEntity url) {
+        return new ResolvedLink(
+                url.getId(),
+                url.getShortenedUrl(),
+                url.getOriginalUrl(),
+                url.getCreatedOn(),
+                url.getExpiresOn(),
+                url.getOwnerId() != null ? url.getOwnerId()
+                        : url.getOwner() != null ? url.getOwner().getId() : null,
+                url.getVersion(),
+                url.getRedirectPolicy()
+        );
+    }
+
+    /**
+     * Checks whether the link has expired at the given moment.
+     *
+     * @param now the reference time
+     * @return true if the link has an expiration date in the past
+     */
+    public boolean isExpiredAt(LocalDateTime now) {
+        return expiresOn != null && expiresOn.isBefore(now);
+    }
+
+    /**
+     * Checks whether the link belongs to the given user.
+     *
+     * @param userId the user identifier
+     * @return true if the user owns the link
+     */
+    public boolean isOwnedBy(Long userId) {
+        return ownerId != null && ownerId.equals(userId);
+    }
+}
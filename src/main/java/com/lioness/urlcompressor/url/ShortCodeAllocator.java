@@ -0,0 +1,129 @@
+package com.lioness.urlcompressor.url;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ShortCodeAllocator hands out unique numeric ids for new short codes.
+ *
+ * Each node leases a block of ids from the database sequence {@code link_manager.short_code_seq}
+ * (one {@code nextval} per block, the block size being the sequence increment) and then hands
+ * ids out of memory with a single atomic increment. Blocks never overlap across nodes, so the
+ * resulting codes are unique without any lookup against short_links.
+ */
+@Slf4j
+@Component
+public class ShortCodeAllocator {
+
+    private static final String SEQUENCE_SCHEMA = "link_manager";
+    private static final String SEQUENCE_NAME = "short_code_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Guards leasing of a new block; handing out ids from the current block is lock-free
+    private final ReentrantLock leaseLock = new ReentrantLock();
+
+    // Number of ids per block, read once from the sequence definition
+    private volatile long blockSize;
+
+    // Block currently being handed out
+    private volatile Lease lease = Lease.EMPTY;
+
+    public ShortCodeAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the next unique id, leasing a new block from the database when the current one is used up.
+     *
+     * @return a positive id never returned before by any node
+     */
+    public long nextId() {
+        while (true) {
+            Lease current = lease;
+            long id = current.next.getAndIncrement();
+            if (id < current.end) {
+                return id;
+            }
+            renew(current);
+        }
+    }
+
+    /**
+     * Reads how far the sequence has leased ids to any node: every id handed out so far lies below the result.
+     *
+     * @return end (exclusive) of the most recently leased block, or the sequence start if none was leased yet
+     */
+    public long leasedUpTo() {
+        if (blockSize == 0) {
+            blockSize = readBlockSize();
+        }
+        Long end = jdbcTemplate.queryForObject(
+                "SELECT CASE WHEN is_called THEN last_value + ? ELSE last_value END FROM "
+                        + SEQUENCE_SCHEMA + "." + SEQUENCE_NAME,
+                Long.class, blockSize);
+        if (end == null) {
+            throw new IllegalStateException("Sequence " + SEQUENCE_NAME + " returned no value");
+        }
+        return end;
+    }
+
+    /**
+     * Leases a new block unless another thread already replaced the exhausted one.
+     *
+     * @param exhausted the block observed as used up
+     */
+    private void renew(Lease exhausted) {
+        leaseLock.lock();
+        try {
+            if (lease != exhausted) {
+                return;
+            }
+            if (blockSize == 0) {
+                blockSize = readBlockSize();
+            }
+            Long start = jdbcTemplate.queryForObject(
+                    "SELECT nextval('" + SEQUENCE_SCHEMA + "." + SEQUENCE_NAME + "')", Long.class);
+            if (start == null) {
+                throw new IllegalStateException("Sequence " + SEQUENCE_NAME + " returned no value");
+            }
+            lease = new Lease(start, start + blockSize);
+            log.debug("Leased short code ids [{}, {})", start, start + blockSize);
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the sequence increment, which defines how many ids a single nextval reserves.
+     */
+    private long readBlockSize() {
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment FROM information_schema.sequences WHERE sequence_schema = ? AND sequence_name = ?",
+                Long.class, SEQUENCE_SCHEMA, SEQUENCE_NAME);
+        if (increment == null || increment < 1) {
+            throw new IllegalStateException("Invalid increment for sequence " + SEQUENCE_NAME + ": " + increment);
+        }
+        return increment;
+    }
+
+    /**
+     * A leased range of ids: [next, end).
+     */
+    private static final class Lease {
+
+        private static final Lease EMPTY = new Lease(0, 0);
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Lease(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
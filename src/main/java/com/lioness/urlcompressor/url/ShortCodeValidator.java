@@ -0,0 +1,53 @@
+package com.lioness.urlcompressor.url;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * ShortCodeValidator rejects truncated and mistyped short codes on the redirect path before any cache
+ * or database access, using the check character of {@link ShortLinkGenerator} codes.
+ *
+ * While link.code.accept-legacy is on (the migration mode), codes of 6 to 8 alphanumeric characters without
+ * check character are accepted as well, because earlier versions of the generator produced them; only
+ * 9-character codes, which can only be current ones, must then carry a valid check character. A mistyped
+ * code of a legacy length still goes to the lookup. Turn the mode off once no legacy links remain, so every
+ * code has to pass the check.
+ *
+ * Rejections are counted in links.codes.rejected.
+ */
+@Component
+public class ShortCodeValidator {
+
+    private final boolean acceptLegacy;
+    private final Counter rejected;
+
+    /**
+     * Creates the validator and registers its metric.
+     *
+     * @param meterRegistry registry for the rejection counter
+     * @param acceptLegacy  whether codes without check character are accepted
+     */
+    public ShortCodeValidator(MeterRegistry meterRegistry,
+                              @Value("${link.code.accept-legacy:true}") boolean acceptLegacy) {
+        this.acceptLegacy = acceptLegacy;
+        this.rejected = Counter.builder("links.codes.rejected")
+                .description("Short codes rejected by their check character without a lookup")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether a code may belong to a link.
+     *
+     * @param code the short code as it appears in the redirect path (e.g. abc123X)
+     * @return false if no link can have this code
+     */
+    public boolean accepts(String code) {
+        if (ShortLinkGenerator.hasValidCheck(code) || (acceptLegacy && ShortLinkGenerator.isLegacyCode(code))) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+}
@@ -0,0 +1,288 @@
+package com.lioness.urlcompressor.url;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import static com.lioness.urlcompressor.url.ShortLinkGenerator.LINK_PREFIX;
+
+/**
+ * ShortLinkFilter is an in-memory Bloom filter over all stored short URLs, consulted by {@link LinkCache}
+ * before the database. Lookups of codes that were never created (scanners, typos) are answered
+ * as "not found" from memory and never reach Postgres.
+ *
+ * The filter is built by streaming short_links on startup and kept current by two means:
+ * links created on this node are added directly, and links created on other nodes are picked up
+ * by a periodic catch-up over recent created_at values (with an overlap for clock skew and slow commits).
+ * Codes whose id lies above the highest id seen so far, up to a window past the ids leased from
+ * short_code_seq at the last sync, are always passed to the database, so links from a block another node
+ * has only just leased resolve before the next catch-up. Only codes with a check character count towards
+ * the highest id seen: legacy random codes decode to arbitrary ids and would close the window.
+ *
+ * A Bloom filter cannot forget entries: deleted links stay "maybe present" (and fall through to the
+ * negative cache) until the next full rebuild, which also resizes the filter as the table grows.
+ * Until the first build completes, or if it is disabled, every lookup passes through.
+ *
+ * Metrics: links.bloom.false.positive.rate (estimated), links.bloom.false.positives (observed),
+ * links.bloom.rejections, links.bloom.entries and links.bloom.memory.
+ */
+@Slf4j
+@Component
+public class ShortLinkFilter {
+
+    // Smallest filter ever built (~120 KB at 1 %), so a young table does not trigger constant rebuilds
+    private static final long MIN_CAPACITY = 100_000;
+
+    private final LinkRepository linkRepository;
+    private final ShortCodeAllocator shortCodeAllocator;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final Duration refreshOverlap;
+    private final long rebuildIntervalMillis;
+    private final long freshIdWindow;
+
+    private final Counter rejections;
+    private final Counter falsePositives;
+
+    // Serializes builds and catch-ups (scheduled run vs. startup)
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Filter answering lookups; null until the first build completes
+    private volatile BloomFilter filter;
+
+    // Filter being built, which also receives links created during the build
+    private volatile BloomFilter building;
+
+    // Highest short code id added so far, counting only codes with a check character
+    private final AtomicLong highestId = new AtomicLong(-1);
+
+    // End of the ids leased from short_code_seq at the last sync; -1 until first read
+    private volatile long leasedUpTo = -1;
+
+    // Start of the last successful build or catch-up, and time of the last full build
+    private volatile LocalDateTime syncedAt;
+    private volatile long builtAtMillis;
+
+    /**
+     * Creates the filter and registers its metrics.
+     *
+     * @param linkRepository        repository streaming the stored short URLs
+     * @param shortCodeAllocator    allocator reporting how far short code ids have been leased
+     * @param transactionManager    transaction manager for the read-only streaming queries
+     * @param meterRegistry         registry for filter metrics
+     * @param enabled               whether the filter is consulted at all
+     * @param falsePositiveRate     target false-positive probability at capacity
+     * @param refreshOverlap        how far back each catch-up re-reads created_at
+     * @param rebuildIntervalMillis how often the filter is rebuilt from scratch
+     * @param freshIdWindow         ids within this distance above the leased ids are never rejected
+     */
+    public ShortLinkFilter(LinkRepository linkRepository,
+                           ShortCodeAllocator shortCodeAllocator,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${link.bloom.enabled:true}") boolean enabled,
+                           @Value("${link.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                           @Value("${link.bloom.refresh-overlap:1m}") Duration refreshOverlap,
+                           @Value("${link.bloom.rebuild-interval-ms:21600000}") long rebuildIntervalMillis,
+                           @Value("${link.bloom.fresh-id-window:100000}") long freshIdWindow) {
+        this.linkRepository = linkRepository;
+        this.shortCodeAllocator = shortCodeAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.refreshOverlap = refreshOverlap;
+        this.rebuildIntervalMillis = rebuildIntervalMillis;
+        this.freshIdWindow = freshIdWindow;
+
+        this.rejections = Counter.builder("links.bloom.rejections")
+                .description("Short link lookups answered as not found by the Bloom filter")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("links.bloom.false.positives")
+                .description("Short link lookups passed by the Bloom filter but not found in the database")
+                .register(meterRegistry);
+        Gauge.builder("links.bloom.false.positive.rate", this, f -> f.measure(BloomFilter::falsePositiveRate))
+                .description("Estimated false-positive probability of the short link Bloom filter")
+                .register(meterRegistry);
+        Gauge.builder("links.bloom.entries", this, f -> f.measure(BloomFilter::approximateEntries))
+                .description("Estimated number of short links in the Bloom filter")
+                .register(meterRegistry);
+        Gauge.builder("links.bloom.memory", this, f -> f.measure(BloomFilter::memoryBytes))
+                .description("Memory used by the short link Bloom filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether a short URL may exist.
+     *
+     * @param shortUrl the stored short URL (e.g. https://abc123)
+     * @return false only if the short URL definitely does not exist
+     */
+    public boolean mightContain(String shortUrl) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(shortUrl) || isFresh(shortUrl)) {
+            return true;
+        }
+        rejections.increment();
+        return false;
+    }
+
+    /**
+     * Adds a newly created short URL.
+     *
+     * @param shortUrl the stored short URL
+     */
+    public void add(String shortUrl) {
+        noteId(shortUrl);
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(shortUrl);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(shortUrl);
+        }
+    }
+
+    /**
+     * Records that a short URL passed the filter but does not exist in the database.
+     */
+    public void recordFalsePositive() {
+        if (filter != null) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Builds the filter on startup, then periodically catches up with links created on other nodes.
+     * The filter is rebuilt from scratch when the rebuild interval has passed or it has outgrown its capacity.
+     * A failed run keeps the current filter; the next catch-up starts from the last successful one.
+     */
+    @Scheduled(fixedDelayString = "${link.bloom.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (!enabled || !refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            long leased = shortCodeAllocator.leasedUpTo();
+            BloomFilter current = filter;
+            if (current == null || isRebuildDue(current)) {
+                rebuild();
+            } else {
+                catchUp(current);
+            }
+            leasedUpTo = leased;
+        } catch (DataAccessException e) {
+            log.warn("Short link filter refresh failed: {}", e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Builds a new filter from all stored short URLs and swaps it in.
+     */
+    private void rebuild() {
+        long capacity = Math.max(MIN_CAPACITY, linkRepository.count() * 2);
+        BloomFilter next = BloomFilter.create(capacity, falsePositiveRate);
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        building = next;
+        try {
+            long loaded = load(next, linkRepository::streamAllShortUrls);
+            filter = next;
+            syncedAt = startedAt;
+            builtAtMillis = System.currentTimeMillis();
+            log.info("Short link filter built: {} links, capacity {}, {} KB",
+                    loaded, capacity, next.memoryBytes() / 1024);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Adds the short URLs created since the last sync (minus the overlap) to the current filter.
+     */
+    private void catchUp(BloomFilter current) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = syncedAt.minus(refreshOverlap);
+        load(current, () -> linkRepository.streamShortUrlsCreatedSince(since));
+        syncedAt = startedAt;
+    }
+
+    /**
+     * Streams short URLs into a filter inside a read-only transaction.
+     *
+     * @return number of short URLs read
+     */
+    private long load(BloomFilter target, Supplier<Stream<String>> shortUrls) {
+        Long loaded = transactionTemplate.execute(status -> {
+            long count = 0;
+            try (Stream<String> stream = shortUrls.get()) {
+                for (String shortUrl : (Iterable<String>) stream::iterator) {
+                    target.put(shortUrl);
+                    noteId(shortUrl);
+                    count++;
+                }
+            }
+            return count;
+        });
+        return loaded == null ? 0 : loaded;
+    }
+
+    private boolean isRebuildDue(BloomFilter current) {
+        return System.currentTimeMillis() - builtAtMillis >= rebuildIntervalMillis
+                || current.approximateEntries() > current.capacity();
+    }
+
+    /**
+     * Whether the code decodes to an id above the highest one known and at most the fresh-id window past
+     * the leased ids, i.e. may come from a block leased by another node since the last catch-up.
+     * Random codes almost never land in this range.
+     */
+    private boolean isFresh(String shortUrl) {
+        long id = idOf(shortUrl);
+        long highest = highestId.get();
+        return id > highest && id - Math.max(highest, leasedUpTo) <= freshIdWindow;
+    }
+
+    private void noteId(String shortUrl) {
+        long id = idOf(shortUrl);
+        if (id >= 0) {
+            highestId.accumulateAndGet(id, Math::max);
+        }
+    }
+
+    /**
+     * @return id behind a code with a check character, or -1 for legacy and malformed codes
+     */
+    private static long idOf(String shortUrl) {
+        if (!shortUrl.startsWith(LINK_PREFIX)) {
+            return -1;
+        }
+        String code = shortUrl.substring(LINK_PREFIX.length());
+        return ShortLinkGenerator.hasValidCheck(code) ? ShortLinkGenerator.decode(code) : -1;
+    }
+
+    private double measure(ToDoubleFunction<BloomFilter> metric) {
+        BloomFilter current = filter;
+        return current == null ? 0 : metric.applyAsDouble(current);
+    }
+}
@@ -1,40 +1,277 @@
 package com.lioness.urlcompressor.url;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
 
 /**
  * ShortLinkGenerator is a utility service responsible for generating
- * random short URL strings, used in the URL shortening service.
+ * short URL strings, used in the URL shortening service.
+ *
+ * Every code is derived from a unique id handed out by {@link ShortCodeAllocator}:
+ * the id is scrambled with a reversible Feistel permutation (so consecutive links
+ * do not get consecutive codes) and then Base62-encoded to a fixed width.
+ * Distinct ids always give distinct codes, so no uniqueness check is needed.
+ *
+ * A Luhn mod 62 check character is appended to every code. It catches any single mistyped character
+ * and most swaps of adjacent characters, so a malformed code is rejected before any lookup
+ * (see {@link ShortCodeValidator}). Codes generated before check characters were added are 6 to 8
+ * characters long without one.
  */
 @Service
 public class ShortLinkGenerator {
 
+    /**
+     * Prefix stored in front of every short code (e.g. https://abc123).
+     */
+    public static final String LINK_PREFIX = "https://";
+
     // Characters used in the short link: lowercase, uppercase, and digits
     private static final char[] SYMBOLS = (
             "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
     ).toCharArray();
 
-    // Minimum and maximum length for the short link (e.g., abc123 or AbCdef78)
-    private static final int MIN_LENGTH = 6;
-    private static final int MAX_LENGTH = 8;
+    // Reverse lookup: character -> Base62 digit (-1 if not part of the alphabet)
+    private static final int[] DIGITS = new int[128];
+
+    // Code widths without the check character: the first 2^34 ids fit in 6 characters,
+    // the next ones in 8 (62^6 > 2^34, 62^8 > 2^46)
+    private static final int SHORT_BITS = 34;
+    private static final int SHORT_LENGTH = 6;
+    private static final int LONG_BITS = 46;
+    private static final int LONG_LENGTH = 8;
+
+    // Lengths of codes generated before check characters were added
+    private static final int LEGACY_MIN_LENGTH = 6;
+    private static final int LEGACY_MAX_LENGTH = 8;
+
+    // Round keys of the Feistel network
+    private static final long[] ROUND_KEYS = {
+            0x5DEECE66DL, 0x2545F4914F6CDD1DL, 0x9E3779B97F4A7C15L, 0xBF58476D1CE4E5B9L
+    };
+
+    static {
+        Arrays.fill(DIGITS, -1);
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            DIGITS[SYMBOLS[i]] = i;
+        }
+    }
+
+    private final LongSupplier idSource;
 
     /**
-     * Generates a random short link.
+     * Creates a generator backed by the database-leased id allocator.
+     *
+     * @param allocator source of unique ids
+     */
+    @Autowired
+    public ShortLinkGenerator(ShortCodeAllocator allocator) {
+        this(allocator::nextId);
+    }
+
+    /**
+     * Creates a generator backed by any source of unique ids (used in tests and benchmarks).
+     *
+     * @param idSource supplier returning a new unique id on every call
+     */
+    ShortLinkGenerator(LongSupplier idSource) {
+        this.idSource = idSource;
+    }
+
+    /**
+     * Generates a new short link.
      * The link consists of alphanumeric characters and is prefixed with "https://".
      *
-     * @return a unique-looking short URL string
+     * @return a unique short URL string
      */
     public String createShortLink() {
-        Random random = new Random();
-        int length = random.nextInt(MAX_LENGTH - MIN_LENGTH + 1) + MIN_LENGTH;
+        return LINK_PREFIX + encode(idSource.getAsLong());
+    }
+
+    /**
+     * Turns an id into its short code, check character included.
+     *
+     * @param id a non-negative id below 2^46
+     * @return a 7-character code for ids below 2^34, otherwise a 9-character code
+     */
+    public static String encode(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must not be negative: " + id);
+        }
+        if (id < (1L << SHORT_BITS)) {
+            return withCheck(toBase62(permute(id, SHORT_BITS), SHORT_LENGTH));
+        }
+        if (id < (1L << LONG_BITS)) {
+            return withCheck(toBase62(permute(id, LONG_BITS), LONG_LENGTH));
+        }
+        throw new IllegalStateException("Short code id space exhausted: " + id);
+    }
+
+    /**
+     * Recovers the id behind a code produced by {@link #encode(long)}, or by its earlier version
+     * without check character.
+     *
+     * @param code the short code (without prefix)
+     * @return the id, or -1 if the string cannot be a generated code
+     */
+    public static long decode(String code) {
+        if (code == null) {
+            return -1;
+        }
+        if (code.length() == SHORT_LENGTH + 1 || code.length() == LONG_LENGTH + 1) {
+            return hasValidCheck(code) ? decodeBody(code.substring(0, code.length() - 1)) : -1;
+        }
+        return decodeBody(code);
+    }
+
+    /**
+     * Checks the length, alphabet and check character of a code, without any lookup.
+     *
+     * @param code the short code (without prefix)
+     * @return true if the code has the shape of a code produced by {@link #encode(long)}
+     */
+    public static boolean hasValidCheck(String code) {
+        if (code == null || (code.length() != SHORT_LENGTH + 1 && code.length() != LONG_LENGTH + 1)) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = code.length() - 1, position = 0; i >= 0; i--, position++) {
+            int digit = digit(code.charAt(i));
+            if (digit < 0) {
+                return false;
+            }
+            sum += luhnAddend(digit, position % 2 == 1);
+        }
+        return sum % SYMBOLS.length == 0;
+    }
+
+    /**
+     * Checks whether a string has the shape of a code generated before check characters were added.
+     * The earliest generator produced random codes of any length from 6 to 8, so 7-character codes are
+     * included even though current short codes have that length too.
+     *
+     * @param code the short code (without prefix)
+     * @return true for 6 to 8 alphanumeric characters
+     */
+    public static boolean isLegacyCode(String code) {
+        if (code == null || code.length() < LEGACY_MIN_LENGTH || code.length() > LEGACY_MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < code.length(); i++) {
+            if (digit(code.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long decodeBody(String code) {
+        if (code.length() != SHORT_LENGTH && code.length() != LONG_LENGTH) {
+            return -1;
+        }
+        long value = fromBase62(code);
+        if (value < 0) {
+            return -1;
+        }
+        if (code.length() == SHORT_LENGTH && value < (1L << SHORT_BITS)) {
+            return unpermute(value, SHORT_BITS);
+        }
+        if (code.length() == LONG_LENGTH && value < (1L << LONG_BITS)) {
+            long id = unpermute(value, LONG_BITS);
+            return id >= (1L << SHORT_BITS) ? id : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Balanced Feistel network over a bits-wide domain; a bijection on [0, 2^bits).
+     */
+    private static long permute(long value, int bits) {
+        int half = bits / 2;
+        long mask = (1L << half) - 1;
+        long left = value >>> half;
+        long right = value & mask;
+        for (long key : ROUND_KEYS) {
+            long next = left ^ (round(right, key) & mask);
+            left = right;
+            right = next;
+        }
+        return (left << half) | right;
+    }
+
+    /**
+     * Inverse of {@link #permute(long, int)}: runs the rounds backwards.
+     */
+    private static long unpermute(long value, int bits) {
+        int half = bits / 2;
+        long mask = (1L << half) - 1;
+        long left = value >>> half;
+        long right = value & mask;
+        for (int i = ROUND_KEYS.length - 1; i >= 0; i--) {
+            long previous = right ^ (round(left, ROUND_KEYS[i]) & mask);
+            right = left;
+            left = previous;
+        }
+        return (left << half) | right;
+    }
 
-        StringBuilder shortUrl = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            shortUrl.append(SYMBOLS[random.nextInt(SYMBOLS.length)]);
+    /**
+     * Round function: a cheap 64-bit mix of the half-block and the round key.
+     */
+    private static long round(long half, long key) {
+        long x = (half ^ key) * 0xD6E8FEB86659FD93L;
+        x ^= x >>> 32;
+        x *= 0xD6E8FEB86659FD93L;
+        return x ^ (x >>> 29);
+    }
+
+    /**
+     * Appends the Luhn mod 62 check character: the one that makes the weighted digit sum of the code divisible by 62.
+     */
+    private static String withCheck(String body) {
+        int sum = 0;
+        for (int i = body.length() - 1, position = 1; i >= 0; i--, position++) {
+            sum += luhnAddend(DIGITS[body.charAt(i)], position % 2 == 1);
         }
+        return body + SYMBOLS[(SYMBOLS.length - sum % SYMBOLS.length) % SYMBOLS.length];
+    }
 
-        return "https://" + shortUrl;
+    /**
+     * Luhn mod N: every second digit from the right (the check character being the first) is doubled,
+     * and a doubled value is folded back by adding its two Base62 digits.
+     */
+    private static int luhnAddend(int digit, boolean doubled) {
+        if (!doubled) {
+            return digit;
+        }
+        int value = digit * 2;
+        return value / SYMBOLS.length + value % SYMBOLS.length;
+    }
+
+    private static int digit(char c) {
+        return c < DIGITS.length ? DIGITS[c] : -1;
+    }
+
+    private static String toBase62(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = SYMBOLS[(int) (value % SYMBOLS.length)];
+            value /= SYMBOLS.length;
+        }
+        return new String(chars);
+    }
+
+    private static long fromBase62(String code) {
+        long value = 0;
+        for (int i = 0; i < code.length(); i++) {
+            int digit = digit(code.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * SYMBOLS.length + digit;
+        }
+        return value;
     }
 }
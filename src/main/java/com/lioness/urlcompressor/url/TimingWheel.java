@@ -0,0 +1,114 @@
+package com.lioness.urlcompressor.url;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * TimingWheel is a hierarchical timing wheel: a ring of buckets, each covering one tick,
+ * with a coarser wheel stacked on top for deadlines beyond one revolution.
+ *
+ * Adding a timer and expiring it are O(1); a timer is moved down at most once per level
+ * as its deadline comes within reach of a finer wheel. Advancing the clock costs one bucket
+ * per elapsed tick, independent of how many timers are pending. Deadlines are rounded up
+ * to the next tick, so a timer fires at most one tick late and never early.
+ *
+ * Not thread-safe; the caller serializes access.
+ *
+ * @param <T> type of the item carried by a timer
+ */
+final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long intervalMillis;
+    private final ArrayDeque<Timer<T>>[] buckets;
+
+    // Start of the current tick; always a multiple of tickMillis
+    private long currentTime;
+
+    // Coarser wheel for deadlines beyond this wheel's interval, created on first use
+    private TimingWheel<T> overflow;
+
+    /**
+     * Creates a wheel.
+     *
+     * @param tickMillis  duration of one bucket
+     * @param wheelSize   number of buckets per revolution
+     * @param startMillis current time
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.intervalMillis = tickMillis * wheelSize;
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+    }
+
+    /**
+     * Adds a timer.
+     *
+     * @param deadlineMillis when the timer should fire
+     * @param item           item handed back when it fires
+     * @return false if the deadline has already been reached; the timer is then not added
+     */
+    boolean add(long deadlineMillis, T item) {
+        long rounded = deadlineMillis + Math.floorMod(-deadlineMillis, tickMillis);
+        return place(new Timer<>(rounded, item));
+    }
+
+    /**
+     * Advances the clock, handing every timer whose deadline has passed to the consumer.
+     *
+     * @param nowMillis current time
+     * @param expired   receives the items of expired timers, in deadline order per tick
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        advanceTo(nowMillis, timer -> {
+            if (!place(timer)) {
+                expired.accept(timer.item());
+            }
+        });
+    }
+
+    /**
+     * Steps through every elapsed tick: first lets the coarser wheel hand down the timers that are now
+     * within this wheel's reach, then empties the bucket of the tick.
+     */
+    private void advanceTo(long time, Consumer<Timer<T>> sink) {
+        while (time >= currentTime + tickMillis) {
+            currentTime += tickMillis;
+            if (overflow != null) {
+                overflow.advanceTo(currentTime, sink);
+            }
+            ArrayDeque<Timer<T>> bucket = buckets[bucketOf(currentTime)];
+            while (!bucket.isEmpty()) {
+                sink.accept(bucket.poll());
+            }
+        }
+    }
+
+    private boolean place(Timer<T> timer) {
+        if (timer.deadline() < currentTime + tickMillis) {
+            return false;
+        }
+        if (timer.deadline() < currentTime + intervalMillis) {
+            buckets[bucketOf(timer.deadline())].add(timer);
+            return true;
+        }
+        if (overflow == null) {
+            overflow = new TimingWheel<>(intervalMillis, wheelSize, currentTime);
+        }
+        return overflow.place(timer);
+    }
+
+    private int bucketOf(long time) {
+        return (int) Math.floorMod(time / tickMillis, (long) wheelSize);
+    }
+
+    private record Timer<T>(long deadline, T item) {
+    }
+}
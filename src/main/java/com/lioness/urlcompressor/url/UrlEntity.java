@@ -23,9 +23,11 @@ public class UrlEntity {
 
     /**
      * Primary key: Unique identifier of the short URL record.
+     * Drawn from a pooled sequence (50 ids per round-trip), which keeps JDBC insert batching enabled.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "short_links_seq")
+    @SequenceGenerator(name = "short_links_seq", schema = "link_manager", sequenceName = "short_links_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -59,6 +61,14 @@ public class UrlEntity {
     @Column(name = "expires_at")
     private LocalDateTime expiresOn;
 
+    /**
+     * How the redirect of this link may be cached by browsers and CDNs.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "redirect_policy", length = 16, nullable = false)
+    @Builder.Default
+    private RedirectPolicy redirectPolicy = RedirectPolicy.DEFAULT;
+
     /**
      * The user who owns this short URL.
      * This defines a many-to-one relationship with the user entity.
@@ -67,6 +77,21 @@ public class UrlEntity {
     @JoinColumn(name = "user_id", nullable = false)
     private UserEntity owner;
 
+    /**
+     * Read-only view of the owner's id, mapped onto the same user_id column.
+     * Lets ownership checks and owner queries work without loading the user.
+     */
+    @Column(name = "user_id", insertable = false, updatable = false)
+    private Long ownerId;
+
+    /**
+     * Optimistic-locking version, incremented on every entity update.
+     * Also lets in-memory caches tell a fresh copy of the link from a stale one.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     /**
      * Checks if the link is still active (i.e., not expired).
      *
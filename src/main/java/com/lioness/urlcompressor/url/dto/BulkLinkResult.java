@@ -0,0 +1,25 @@
+package com.lioness.urlcompressor.url.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * BulkLinkResult is the outcome of one line of a bulk shortening request,
+ * written back as one NDJSON line.
+ *
+ * @param line          1-based number of the request line this result belongs to
+ * @param success       whether a short link was created
+ * @param shortLink     the created short URL (null on failure)
+ * @param fullUrl       the original URL from the request line
+ * @param statusMessage success or error message
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkLinkResult(long line, boolean success, String shortLink, String fullUrl, String statusMessage) {
+
+    public static BulkLinkResult created(long line, String shortLink, String fullUrl, String message) {
+        return new BulkLinkResult(line, true, shortLink, fullUrl, message);
+    }
+
+    public static BulkLinkResult failed(long line, String fullUrl, String message) {
+        return new BulkLinkResult(line, false, null, fullUrl, message);
+    }
+}
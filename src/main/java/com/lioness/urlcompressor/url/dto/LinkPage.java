@@ -0,0 +1,36 @@
+package com.lioness.urlcompressor.url.dto;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * LinkPage is one page of a user's short links together with the cursor of the next page.
+ *
+ * @param links      links on this page
+ * @param nextCursor opaque cursor for the next page, or null if this is the last page
+ * @param httpStatus HTTP status to return
+ */
+public record LinkPage(List<UrlResponse> links, String nextCursor, HttpStatus httpStatus) {
+
+    /**
+     * Creates a successful page.
+     *
+     * @param links      links on this page
+     * @param nextCursor cursor for the next page, or null if there is none
+     * @return a page with status 200
+     */
+    public static LinkPage of(List<UrlResponse> links, String nextCursor) {
+        return new LinkPage(links, nextCursor, HttpStatus.OK);
+    }
+
+    /**
+     * Creates an empty page with the given status.
+     *
+     * @param httpStatus HTTP status to return
+     * @return an empty page
+     */
+    public static LinkPage empty(HttpStatus httpStatus) {
+        return new LinkPage(List.of(), null, httpStatus);
+    }
+}
@@ -1,5 +1,6 @@
 package com.lioness.urlcompressor.url.dto;
 
+import com.lioness.urlcompressor.url.RedirectPolicy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -28,6 +29,12 @@ public class UrlRequest {
      */
     private LocalDateTime expirationTime;
 
+    /**
+     * Optional redirect policy (PERMANENT, TEMPORARY or NO_CACHE) deciding how the redirect may be cached.
+     * If null, a new link gets the default policy and an updated link keeps its current one.
+     */
+    private RedirectPolicy redirectPolicy;
+
     /**
      * The Authorization header passed in the request (usually "Bearer <token>").
      * Used to authenticate the user.
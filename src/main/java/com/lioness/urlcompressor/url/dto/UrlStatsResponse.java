@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 
 /**
  * UrlStatsResponse is a DTO used to represent statistics for a specific shortened URL.
- * It includes the short and full URLs, creation and expiration timestamps, and click count.
+ * It includes the short and full URLs, creation and expiration timestamps, click count and unique visitors.
  */
 @Data
 @NoArgsConstructor
@@ -39,4 +39,9 @@ public class UrlStatsResponse {
      * The total number of times this short URL has been accessed.
      */
     private long clickCount;
+
+    /**
+     * Estimated number of distinct visitors (about 2% error).
+     */
+    private long uniqueVisitors;
 }
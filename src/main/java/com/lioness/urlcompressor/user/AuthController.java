@@ -3,6 +3,7 @@ package com.lioness.urlcompressor.user;
 import com.lioness.urlcompressor.security.TokenBlacklistService;
 import com.lioness.urlcompressor.logging.UserLogService;
 import com.lioness.urlcompressor.security.JwtTokenProvider;
+import com.lioness.urlcompressor.security.VerifiedToken;
 import com.lioness.urlcompressor.user.dto.AuthenticationResponse;
 import com.lioness.urlcompressor.user.dto.RefreshRequestDTO;
 import com.lioness.urlcompressor.user.dto.RegistrationResponse;
@@ -15,7 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.Duration;
+import java.util.Optional;
 
 /**
  * AuthController handles all authentication-related endpoints,
@@ -78,8 +79,8 @@ public class AuthController {
                     .body(AuthenticationResponse.failed("Invalid password"));
         }
 
-        String accessToken = jwtTokenProvider.generateToken(user.getLogin(), user.getRole());
-        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getLogin(), user.getRole());
+        String accessToken = jwtTokenProvider.generateToken(user.getId(), user.getLogin(), user.getRole());
+        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), user.getLogin(), user.getRole());
 
         return ResponseEntity.ok(new AuthenticationResponse("Authentication successful", accessToken, refreshToken));
     }
@@ -94,27 +95,24 @@ public class AuthController {
     public ResponseEntity<AuthenticationResponse> refresh(@RequestBody @Valid RefreshRequestDTO request) {
         String refreshToken = request.getRefreshToken();
 
-        System.out.println("🔁 Received refresh token: " + refreshToken);
-
         if (tokenBlacklistService.isBlacklisted(refreshToken)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(AuthenticationResponse.failed("This token is no longer active (logged out)"));
         }
 
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
+        Optional<VerifiedToken> verified = jwtTokenProvider.verifyToken(refreshToken);
+        if (verified.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(AuthenticationResponse.failed("This token is no longer valid (invalid or expired)"));
         }
 
-        String username = jwtTokenProvider.extractUsernameFromToken(refreshToken);
-        UserEntity user = userService.findByLogin(username)
+        UserEntity user = userService.findByLogin(verified.get().user().login())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        Duration ttl = jwtTokenProvider.getTokenTTL(refreshToken);
-        tokenBlacklistService.blacklist(refreshToken, ttl);
+        tokenBlacklistService.blacklist(refreshToken, verified.get().timeToLive());
 
-        String newRefreshToken = jwtTokenProvider.generateRefreshToken(user.getLogin(), user.getRole());
-        String newAccessToken = jwtTokenProvider.generateToken(user.getLogin(), user.getRole());
+        String newRefreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), user.getLogin(), user.getRole());
+        String newAccessToken = jwtTokenProvider.generateToken(user.getId(), user.getLogin(), user.getRole());
 
         userLogService.log(user.getLogin(), "refresh");
 
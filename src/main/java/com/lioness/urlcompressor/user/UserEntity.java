@@ -1,5 +1,6 @@
 package com.lioness.urlcompressor.user;
 
+import com.lioness.urlcompressor.security.UserEntityListener;
 import com.lioness.urlcompressor.url.UrlEntity;
 import jakarta.persistence.*;
 import lombok.*;
@@ -9,8 +10,10 @@ import java.util.Set;
 /**
  * UserEntity represents a registered user in the database.
  * Each user can own multiple shortened URLs (one-to-many relationship with {@link UrlEntity}).
+ * Updates and deletions evict the user's cached principal (see {@link UserEntityListener}).
  */
 @Entity
+@EntityListeners(UserEntityListener.class)
 @Table(name = "app_users", schema = "link_manager")
 @Getter
 @Setter
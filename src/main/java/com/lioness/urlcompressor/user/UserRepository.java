@@ -1,6 +1,8 @@
 package com.lioness.urlcompressor.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -22,11 +24,13 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     /**
      * Finds a user by login (case-insensitive).
+     * Written as lower(login) = lower(?) to match the functional index on app_users.
      *
      * @param login the username to search
      * @return Optional containing the user if found, otherwise empty
      */
-    Optional<UserEntity> findByLoginIgnoreCase(String login);
+    @Query("SELECT u FROM UserEntity u WHERE lower(u.login) = lower(:login)")
+    Optional<UserEntity> findByLoginIgnoreCase(@Param("login") String login);
 
     /**
      * Deletes a user by login (case-insensitive).
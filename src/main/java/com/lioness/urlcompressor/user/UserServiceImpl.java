@@ -144,8 +144,8 @@ public class UserServiceImpl implements UserService {
 
         log.info("Authenticated role: {}", user.getRole());
 
-        String accessToken = jwtTokenProvider.generateToken(user.getLogin(), user.getRole());
-        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getLogin(), user.getRole());
+        String accessToken = jwtTokenProvider.generateToken(user.getId(), user.getLogin(), user.getRole());
+        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), user.getLogin(), user.getRole());
 
         log.info("Successful login for user: {}", login);
         return AuthenticationResponse.success(accessToken, refreshToken);
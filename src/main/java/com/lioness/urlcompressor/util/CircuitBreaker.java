@@ -0,0 +1,189 @@
+package com.lioness.urlcompressor.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * CircuitBreaker stops calling a dependency that keeps failing, so callers fail fast instead of
+ * queueing up on timeouts, and can fall back to what they already have.
+ *
+ * Closed: calls go through; after the failure threshold of consecutive failed or slow calls the circuit opens.
+ * Open: calls are rejected with {@link CircuitOpenException} until the open duration has passed.
+ * Half-open: a single trial call goes through; its success closes the circuit, its failure opens it again.
+ *
+ * Every state change starts a new generation. A call only counts towards the generation it was admitted in,
+ * so a slow call that finishes after the circuit opened cannot close it, and a stale failure cannot reopen it.
+ *
+ * Metrics: circuit.state (0 closed, 1 half-open, 2 open) and circuit.rejected, both tagged with the circuit name.
+ */
+public final class CircuitBreaker {
+
+    /**
+     * State of the circuit.
+     */
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long slowCallNanos;
+    private final Counter rejected;
+
+    // Guards all fields below
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+    private long generation;
+
+    /**
+     * Creates a closed circuit and registers its metrics.
+     *
+     * @param name              name of the protected dependency, used in messages and as metric tag
+     * @param failureThreshold  consecutive failed or slow calls that open the circuit
+     * @param openDuration      how long the circuit stays open before a trial call
+     * @param slowCallThreshold calls taking longer count as failed, even if they succeed
+     * @param meterRegistry     registry for circuit metrics
+     */
+    public CircuitBreaker(String name,
+                          int failureThreshold,
+                          Duration openDuration,
+                          Duration slowCallThreshold,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.rejected = Counter.builder("circuit.rejected")
+                .description("Calls rejected because the circuit was open")
+                .tag("circuit", name)
+                .register(meterRegistry);
+        Gauge.builder("circuit.state", this, breaker -> breaker.state().ordinal())
+                .description("Circuit state: 0 closed, 1 half-open, 2 open")
+                .tag("circuit", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a call through the circuit.
+     *
+     * @param call the call to the protected dependency
+     * @param <T>  type of the result
+     * @return the call's result
+     * @throws CircuitOpenException if the circuit is open; the call is not made
+     */
+    public <T> T call(Supplier<T> call) {
+        long admitted = tryAcquire();
+        if (admitted < 0) {
+            rejected.increment();
+            throw new CircuitOpenException(name);
+        }
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            if (System.nanoTime() - start > slowCallNanos) {
+                onFailure(admitted);
+            } else {
+                onSuccess(admitted);
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            onFailure(admitted);
+            throw e;
+        }
+    }
+
+    /**
+     * @return true while calls are rejected, i.e. the circuit is open and the open duration has not passed
+     */
+    public boolean isOpen() {
+        lock.lock();
+        try {
+            return state == State.OPEN && System.nanoTime() - openedAtNanos < openNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return current state of the circuit
+     */
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the generation the call is admitted in, or -1 if it is rejected
+     */
+    private long tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+                transitionTo(State.HALF_OPEN);
+            }
+            return switch (state) {
+                case CLOSED -> generation;
+                case HALF_OPEN -> {
+                    if (trialInFlight) {
+                        yield -1;
+                    }
+                    trialInFlight = true;
+                    yield generation;
+                }
+                case OPEN -> -1;
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSuccess(long admitted) {
+        lock.lock();
+        try {
+            if (admitted != generation) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                transitionTo(State.CLOSED);
+            }
+            consecutiveFailures = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onFailure(long admitted) {
+        lock.lock();
+        try {
+            if (admitted != generation) {
+                return;
+            }
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                transitionTo(State.OPEN);
+                openedAtNanos = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void transitionTo(State next) {
+        state = next;
+        generation++;
+        trialInFlight = false;
+        consecutiveFailures = 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.lioness.urlcompressor.util;
+
+/**
+ * Thrown by {@link CircuitBreaker#call} while the circuit is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    /**
+     * @param circuit name of the open circuit
+     */
+    public CircuitOpenException(String circuit) {
+        super("Circuit '" + circuit + "' is open");
+    }
+}
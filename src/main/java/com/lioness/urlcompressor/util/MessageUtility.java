@@ -39,6 +39,8 @@ public class MessageUtility {
     public static final String URL_CREATED = "URL has been successfully created.";
     public static final String URL_UPDATED = "URL has been successfully updated.";
     public static final String URL_DELETED = "URL has been successfully deleted.";
+    public static final String INVALID_BULK_LINE = "The line is not a valid JSON link request.";
+    public static final String URL_NOT_STORED = "The URL could not be stored. Please try again.";
 
     /**
      * Generates a message when a user already exists.
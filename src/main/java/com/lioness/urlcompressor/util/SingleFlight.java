@@ -0,0 +1,113 @@
+package com.lioness.urlcompressor.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight coalesces concurrent loads of the same key: the first caller runs the load,
+ * and callers arriving while it is in flight wait for its result instead of loading again.
+ * This keeps a burst of cache misses on one key (a link going viral, a cold cache after a deploy)
+ * down to one database query.
+ *
+ * A waiter gives up after the timeout and fails with {@link QueryTimeoutException} instead of loading
+ * on its own, so a slow database still sees one query per key, not one per queued caller.
+ * A failed load is rethrown to every waiter. Nothing is cached: once a load completes, the next
+ * caller starts a new one.
+ *
+ * Metrics: cache.loads.coalesced (callers served by another caller's load) and
+ * cache.loads.coalesce.timeouts, both tagged with the cache name.
+ *
+ * @param <K> type of the key
+ * @param <V> type of the loaded value; shared between threads, so it should be immutable
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final Counter coalesced;
+    private final Counter timeouts;
+
+    /**
+     * Creates a coalescer and registers its metrics.
+     *
+     * @param cacheName     name of the cache, used as metric tag
+     * @param timeout       how long a caller waits for another caller's load
+     * @param meterRegistry registry for coalescing metrics
+     */
+    public SingleFlight(String cacheName, Duration timeout, MeterRegistry meterRegistry) {
+        this.timeoutNanos = timeout.toNanos();
+        this.coalesced = Counter.builder("cache.loads.coalesced")
+                .description("Cache loads served by a concurrent load of the same key")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("cache.loads.coalesce.timeouts")
+                .description("Callers that stopped waiting for a concurrent load of the same key")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the value of a key, or joins the load already in flight for it.
+     *
+     * @param key    the key
+     * @param loader loads the value; runs on the calling thread
+     * @return the loaded value
+     * @throws QueryTimeoutException if another caller's load did not complete within the timeout
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running == null) {
+            try {
+                V value = loader.get();
+                own.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                own.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, own);
+            }
+        }
+
+        try {
+            V value = running.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            coalesced.increment();
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new QueryTimeoutException("Timed out waiting for the load of " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted waiting for the load of " + key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Makes later callers start a new load instead of joining the one in flight,
+     * e.g. because the value was changed and the running load may return the old one.
+     *
+     * @param key the key
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+}
@@ -0,0 +1,4 @@
+-- Expiry scheduler scans links expiring within the next horizon; links without expiry are not indexed
+CREATE INDEX IF NOT EXISTS idx_short_links_expires
+    ON link_manager.short_links (expires_at)
+    WHERE expires_at IS NOT NULL;
@@ -0,0 +1,9 @@
+-- Click journal segments already applied to click_count, so a segment is never counted twice
+CREATE TABLE IF NOT EXISTS link_manager.click_journal_segments
+(
+    journal_id   VARCHAR(36) NOT NULL,
+    segment      BIGINT      NOT NULL,
+    clicks       BIGINT      NOT NULL,
+    compacted_at TIMESTAMP   NOT NULL,
+    PRIMARY KEY (journal_id, segment)
+);
@@ -0,0 +1,20 @@
+-- Clicks per link and hour / day, written by the in-memory minute rollups.
+-- No foreign key to short_links: a flush racing with a link deletion must not fail the whole batch.
+CREATE TABLE IF NOT EXISTS link_manager.click_rollups_hourly
+(
+    link_id      BIGINT    NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    clicks       BIGINT    NOT NULL,
+    PRIMARY KEY (link_id, bucket_start)
+);
+
+CREATE TABLE IF NOT EXISTS link_manager.click_rollups_daily
+(
+    link_id      BIGINT    NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    clicks       BIGINT    NOT NULL,
+    PRIMARY KEY (link_id, bucket_start)
+);
+
+-- Retention of hourly rollups deletes by time
+CREATE INDEX IF NOT EXISTS idx_click_rollups_hourly_bucket ON link_manager.click_rollups_hourly (bucket_start);
@@ -0,0 +1,18 @@
+-- HyperLogLog unique-visitor sketches per link (lifetime) and per link and day.
+-- visitors caches the sketch's estimate; no foreign key, as for the click rollups.
+CREATE TABLE IF NOT EXISTS link_manager.link_visitors
+(
+    link_id    BIGINT PRIMARY KEY,
+    sketch     BYTEA     NOT NULL,
+    visitors   BIGINT    NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS link_manager.link_visitors_daily
+(
+    link_id      BIGINT    NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sketch       BYTEA     NOT NULL,
+    visitors     BIGINT    NOT NULL,
+    PRIMARY KEY (link_id, bucket_start)
+);
@@ -0,0 +1,3 @@
+-- How a link's redirect may be cached: PERMANENT (301), TEMPORARY (302) or NO_CACHE (307, never cached)
+ALTER TABLE link_manager.short_links
+    ADD COLUMN IF NOT EXISTS redirect_policy VARCHAR(16) DEFAULT 'TEMPORARY' NOT NULL;
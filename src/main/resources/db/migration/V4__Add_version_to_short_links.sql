@@ -0,0 +1,3 @@
+-- Optimistic-locking version used by UrlEntity and the in-memory link cache
+ALTER TABLE link_manager.short_links
+    ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,4 @@
+-- Ids for short codes are leased by each node in blocks of INCREMENT BY values
+CREATE SEQUENCE IF NOT EXISTS link_manager.short_code_seq
+    START WITH 1
+    INCREMENT BY 1000;
@@ -0,0 +1,33 @@
+-- V3 created short_links with older column names than UrlEntity maps. Rename them, so a database
+-- built only from the migrations matches the entity. Columns already carrying the entity's name
+-- (tables created by Hibernate) are left alone.
+DO
+$$
+DECLARE
+    renames CONSTANT TEXT[][] := ARRAY [
+        ['original', 'original_url'],
+        ['alias', 'shortened_url'],
+        ['clicks', 'click_count'],
+        ['created_on', 'created_at'],
+        ['valid_until', 'expires_at'],
+        ['owner_id', 'user_id']];
+    i INT;
+BEGIN
+    FOR i IN 1 .. array_length(renames, 1)
+        LOOP
+            IF EXISTS (SELECT 1
+                       FROM information_schema.columns
+                       WHERE table_schema = 'link_manager'
+                         AND table_name = 'short_links'
+                         AND column_name = renames[i][1])
+                AND NOT EXISTS (SELECT 1
+                                FROM information_schema.columns
+                                WHERE table_schema = 'link_manager'
+                                  AND table_name = 'short_links'
+                                  AND column_name = renames[i][2]) THEN
+                EXECUTE format('ALTER TABLE link_manager.short_links RENAME COLUMN %I TO %I',
+                               renames[i][1], renames[i][2]);
+            END IF;
+        END LOOP;
+END
+$$;
@@ -0,0 +1,3 @@
+-- Functional index for case-insensitive login lookups (lower(login) = lower(?))
+CREATE INDEX IF NOT EXISTS idx_app_users_login_lower
+    ON link_manager.app_users (lower(login));
@@ -0,0 +1,7 @@
+-- Keyset pagination of a user's links, newest first: (user_id, created_at, id)
+CREATE INDEX IF NOT EXISTS idx_short_links_owner_created
+    ON link_manager.short_links (user_id, created_at DESC, id DESC);
+
+-- Active/expired filtering of a user's links
+CREATE INDEX IF NOT EXISTS idx_short_links_owner_expires
+    ON link_manager.short_links (user_id, expires_at);
@@ -0,0 +1,10 @@
+-- Pooled id sequence for short_links: Hibernate reserves 50 ids per nextval (pooled-lo),
+-- so inserts can be sent as JDBC batches instead of one IDENTITY round-trip per row
+CREATE SEQUENCE IF NOT EXISTS link_manager.short_links_seq
+    START WITH 1
+    INCREMENT BY 50;
+
+-- Continue after the ids already issued by the BIGSERIAL column
+SELECT setval('link_manager.short_links_seq',
+              (SELECT COALESCE(MAX(id), 0) + 1 FROM link_manager.short_links),
+              false);
@@ -0,0 +1,3 @@
+-- Periodic catch-up of the short link Bloom filter reads links created since its last sync
+CREATE INDEX IF NOT EXISTS idx_short_links_created
+    ON link_manager.short_links (created_at);
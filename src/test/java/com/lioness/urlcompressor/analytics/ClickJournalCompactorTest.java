@@ -0,0 +1,91 @@
+package com.lioness.urlcompressor.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickJournalCompactorTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ClickJournal journal;
+    private ClickJournalCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        journal = new ClickJournal(new SimpleMeterRegistry(), true, directory, DataSize.ofKilobytes(64),
+                Duration.ZERO, Duration.ofDays(7));
+        compactor = new ClickJournalCompactor(journal, jdbcTemplate, transactionManager, new SimpleMeterRegistry());
+
+        journal.append(new ClickEvent(1L, 7L, "abc123", null, 0L, 0L));
+        journal.append(new ClickEvent(2L, 7L, "abc123", null, 0L, 0L));
+        journal.append(new ClickEvent(3L, 8L, "def456", null, 0L, 0L));
+        journal.commit();
+    }
+
+    /**
+     * ➕ A sealed segment is folded into one click_count delta per link and marked compacted
+     */
+    @Test
+    void compact_shouldApplyAggregatedDeltas() {
+        compactor.compact();
+
+        verify(jdbcTemplate).update(contains("click_journal_segments"), eq(journal.journalId()), eq(1L), eq(3L), any());
+        verify(jdbcTemplate).batchUpdate(contains("click_count"),
+                argThat((List<Object[]> batch) -> batch.size() == 2
+                        && batch.stream().anyMatch(row -> row[0].equals(2L) && row[1].equals(7L))));
+        assertTrue(journal.sealedSegments().isEmpty());
+    }
+
+    /**
+     * 🔁 A segment applied before a crash is only marked compacted, never counted twice
+     */
+    @Test
+    void compact_shouldSkipAlreadyAppliedSegment() {
+        when(jdbcTemplate.update(contains("click_journal_segments"), any(Object[].class)))
+                .thenThrow(new DuplicateKeyException("already applied"));
+
+        compactor.compact();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertTrue(journal.sealedSegments().isEmpty());
+    }
+
+    /**
+     * 🗄️ A failed compaction keeps the segment for the next attempt
+     */
+    @Test
+    void compact_shouldKeepSegmentOnFailure() {
+        when(jdbcTemplate.update(contains("click_journal_segments"), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("database down"));
+
+        compactor.compact();
+
+        assertEquals(1, journal.sealedSegments().size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.lioness.urlcompressor.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickJournalTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 💥 Clicks of a segment that was never sealed are recovered on the next start
+     */
+    @Test
+    void constructor_shouldRecoverUnsealedSegments() {
+        ClickJournal crashed = journal(Duration.ofHours(1), Duration.ofDays(7));
+        assertTrue(crashed.append(click(1L)));
+        assertTrue(crashed.append(click(2L)));
+        String journalId = crashed.journalId();
+        // no close(): the process "crashes" with the segment still open
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ClickJournal restarted = new ClickJournal(meterRegistry, true, directory, DataSize.ofKilobytes(64),
+                Duration.ofHours(1), Duration.ofDays(7));
+
+        List<JournalSegment> sealed = restarted.sealedSegments();
+        assertEquals(1, sealed.size());
+        assertEquals(2, sealed.get(0).records());
+        assertEquals(JournalSegment.State.SEALED, sealed.get(0).state());
+        assertEquals(journalId, restarted.journalId());
+        assertEquals(2.0, meterRegistry.get("analytics.journal.recovered").counter().count());
+        restarted.close();
+    }
+
+    /**
+     * ⏱️ The open segment is sealed once it is old enough, and a compacted one is deleted after its retention
+     */
+    @Test
+    void commit_shouldSealOldSegments() throws Exception {
+        ClickJournal journal = journal(Duration.ZERO, Duration.ZERO);
+        journal.append(click(1L));
+
+        journal.commit();
+        List<JournalSegment> sealed = journal.sealedSegments();
+        assertEquals(1, sealed.size());
+
+        Path path = sealed.get(0).path();
+        journal.compacted(sealed.get(0));
+        assertTrue(journal.sealedSegments().isEmpty());
+
+        Thread.sleep(5);
+        journal.deleteExpired();
+        assertFalse(Files.exists(path));
+        journal.close();
+    }
+
+    /**
+     * 🚫 A disabled journal takes no clicks, so they are counted in memory instead
+     */
+    @Test
+    void append_shouldRefuseWhenDisabled() {
+        ClickJournal journal = new ClickJournal(new SimpleMeterRegistry(), false, directory, DataSize.ofKilobytes(64),
+                Duration.ofHours(1), Duration.ofDays(7));
+
+        assertFalse(journal.append(click(1L)));
+    }
+
+    private ClickJournal journal(Duration segmentMaxAge, Duration retention) {
+        return new ClickJournal(new SimpleMeterRegistry(), true, directory, DataSize.ofKilobytes(64), segmentMaxAge, retention);
+    }
+
+    private static ClickEvent click(long linkId) {
+        return new ClickEvent(System.currentTimeMillis(), linkId, "abc123", null, 1L, 2L);
+    }
+}
@@ -0,0 +1,124 @@
+package com.lioness.urlcompressor.analytics;
+
+import com.lioness.urlcompressor.url.ClickCounter;
+import com.lioness.urlcompressor.url.RedirectPolicy;
+import com.lioness.urlcompressor.url.ResolvedLink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickPipelineTest {
+
+    private static final ResolvedLink LINK =
+            new ResolvedLink(7L, "https://abc123", "https://example.com", LocalDateTime.now(), null, 1L, 0L, RedirectPolicy.TEMPORARY);
+
+    @Mock
+    private ClickJournal clickJournal;
+
+    @Mock
+    private ClickCounter clickCounter;
+
+    @Mock
+    private ClickRollups clickRollups;
+
+    @Mock
+    private UniqueVisitors uniqueVisitors;
+
+    @Mock
+    private HotLinks hotLinks;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ClickPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    /**
+     * 🧵 Published clicks are journaled and analysed by the consumer thread
+     */
+    @Test
+    void publish_shouldProcessClicksInBackground() {
+        pipeline = pipeline(ClickPipeline.BackpressurePolicy.DROP, 16);
+        when(clickJournal.append(any())).thenReturn(true);
+        pipeline.start();
+
+        pipeline.publish(LINK, "https://news.example", "curl/8", "127.0.0.1");
+
+        ArgumentCaptor<ClickEvent> event = ArgumentCaptor.forClass(ClickEvent.class);
+        verify(clickJournal, timeout(5000)).append(event.capture());
+        assertEquals(7L, event.getValue().linkId());
+        assertEquals("abc123", event.getValue().code());
+        assertEquals("https://news.example", event.getValue().referrer());
+        assertNotEquals(0L, event.getValue().clientIpHash());
+        verify(clickRollups, timeout(5000)).record(eq(7L), anyLong());
+        verify(uniqueVisitors, timeout(5000)).record(eq(7L), anyLong(), anyLong());
+        verify(hotLinks, timeout(5000)).record(eq(7L), eq("https://abc123"), anyLong());
+        verify(clickCounter, never()).record(anyLong());
+    }
+
+    /**
+     * 🪣 With a full buffer, DROP still counts the click and ranks it, but skips its event
+     */
+    @Test
+    void publish_shouldCountDroppedClicks() throws InterruptedException {
+        assertDroppedWhenFull(ClickPipeline.BackpressurePolicy.DROP);
+        assertEquals(0.0, meterRegistry.get("analytics.pipeline.blocked").counter().count());
+    }
+
+    /**
+     * ⏳ BLOCK waits for a free slot only up to its timeout, then drops the same way
+     */
+    @Test
+    void publish_shouldBlockOnlyUntilTimeout() throws InterruptedException {
+        assertDroppedWhenFull(ClickPipeline.BackpressurePolicy.BLOCK);
+        assertEquals(2.0, meterRegistry.get("analytics.pipeline.blocked").counter().count());
+    }
+
+    /**
+     * Stalls the consumer on the first click, so a buffer of two slots takes one more click and drops the rest.
+     */
+    private void assertDroppedWhenFull(ClickPipeline.BackpressurePolicy policy) throws InterruptedException {
+        pipeline = pipeline(policy, 2);
+        CountDownLatch consuming = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(clickJournal.append(any())).thenAnswer(invocation -> {
+            consuming.countDown();
+            release.await();
+            return true;
+        });
+        pipeline.start();
+
+        pipeline.publish(LINK, null, null, "127.0.0.1");
+        assertTrue(consuming.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            pipeline.publish(LINK, null, null, "127.0.0.1");
+        }
+
+        verify(clickCounter, times(2)).record(7L);
+        verify(hotLinks, times(2)).record(eq(7L), eq("https://abc123"), anyLong());
+        assertEquals(2.0, meterRegistry.get("analytics.pipeline.dropped").counter().count());
+
+        release.countDown();
+        verify(clickJournal, timeout(5000).times(2)).append(any());
+    }
+
+    private ClickPipeline pipeline(ClickPipeline.BackpressurePolicy policy, int bufferSize) {
+        return new ClickPipeline(clickJournal, clickCounter, new VisitorHasher("salt"), clickRollups, uniqueVisitors,
+                hotLinks, meterRegistry, 1, bufferSize, policy, 1);
+    }
+}
@@ -0,0 +1,134 @@
+package com.lioness.urlcompressor.analytics;
+
+import com.lioness.urlcompressor.analytics.ClickRollupRepository.RollupKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickRollupsTest {
+
+    @Mock
+    private ClickRollupRepository rollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ClickRollups rollups;
+
+    @BeforeEach
+    void setUp() {
+        rollups = new ClickRollups(rollupRepository, transactionManager, new SimpleMeterRegistry(), 120, Duration.ofDays(90));
+    }
+
+    /**
+     * ⏱️ Minute timelines come from memory, with empty minutes filled in
+     */
+    @Test
+    void timeline_shouldServeMinutesFromMemory() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(2);
+        rollups.record(7L, millis(minute));
+        rollups.record(7L, millis(minute.plusSeconds(30)));
+        rollups.record(7L, millis(minute.plusMinutes(1)));
+
+        List<ClickBucket> timeline = rollups.timeline(Granularity.MINUTE, 7L, minute, minute.plusMinutes(3));
+
+        assertEquals(List.of(
+                new ClickBucket(minute, 2),
+                new ClickBucket(minute.plusMinutes(1), 1),
+                new ClickBucket(minute.plusMinutes(2), 0)), timeline);
+        verifyNoInteractions(rollupRepository);
+    }
+
+    /**
+     * 🗄️ A flush writes each click once into its hour and day, and nothing is written again on the next flush
+     */
+    @Test
+    void flush_shouldAddDeltasOnce() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(1);
+        rollups.record(7L, millis(minute));
+        rollups.record(7L, millis(minute));
+        rollups.record(8L, millis(minute));
+
+        Map<RollupKey, Long> hourly = captureAdded(Granularity.HOUR);
+        Map<RollupKey, Long> daily = captureAdded(Granularity.DAY);
+        rollups.flush();
+
+        assertEquals(Map.of(
+                new RollupKey(7L, minute.truncatedTo(ChronoUnit.HOURS)), 2L,
+                new RollupKey(8L, minute.truncatedTo(ChronoUnit.HOURS)), 1L), hourly);
+        assertEquals(2L, daily.get(new RollupKey(7L, minute.truncatedTo(ChronoUnit.DAYS))));
+
+        clearInvocations(rollupRepository);
+        rollups.flush();
+        verify(rollupRepository, never()).add(any(), anyMap());
+    }
+
+    /**
+     * 🔁 Deltas of a failed flush are written by the next one
+     */
+    @Test
+    void flush_shouldRetryFailedDeltas() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        rollups.record(7L, millis(minute));
+        doThrow(new QueryTimeoutException("database down")).when(rollupRepository).add(eq(Granularity.HOUR), anyMap());
+        rollups.flush();
+
+        reset(rollupRepository);
+        Map<RollupKey, Long> hourly = captureAdded(Granularity.HOUR);
+        rollups.record(7L, millis(minute));
+        rollups.flush();
+
+        assertEquals(Map.of(new RollupKey(7L, minute.truncatedTo(ChronoUnit.HOURS)), 2L), hourly);
+    }
+
+    /**
+     * 📅 Hourly timelines are read from the rollup table
+     */
+    @Test
+    void timeline_shouldReadHoursFromRepository() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(rollupRepository.find(Granularity.HOUR, 7L, from, from.plusHours(3)))
+                .thenReturn(List.of(new ClickBucket(from.plusHours(1), 5)));
+
+        List<ClickBucket> timeline = rollups.timeline(Granularity.HOUR, 7L, from.plusMinutes(10), from.plusHours(3));
+
+        assertEquals(List.of(
+                new ClickBucket(from, 0),
+                new ClickBucket(from.plusHours(1), 5),
+                new ClickBucket(from.plusHours(2), 0)), timeline);
+    }
+
+    /**
+     * Copies the deltas passed to the repository, since the rollups clear their map after a successful flush.
+     */
+    private Map<RollupKey, Long> captureAdded(Granularity granularity) {
+        Map<RollupKey, Long> added = new HashMap<>();
+        doAnswer(invocation -> {
+            added.putAll(invocation.getArgument(1));
+            return null;
+        }).when(rollupRepository).add(eq(granularity), anyMap());
+        return added;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,68 @@
+package com.lioness.urlcompressor.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotLinksTest {
+
+    /**
+     * 🔥 Heavy hitters are found among many cold links, with counts never below the truth
+     */
+    @Test
+    void top_shouldFindHeavyHitters() {
+        HotLinks hotLinks = new HotLinks(60, 10, 16);
+        long now = System.currentTimeMillis();
+        for (long link = 1; link <= 20_000; link++) {
+            hotLinks.record(link, "https://cold" + link, now);
+        }
+        for (int i = 0; i < 500; i++) {
+            hotLinks.record(100_001L, "https://hot1", now);
+            if (i % 2 == 0) {
+                hotLinks.record(100_002L, "https://hot2", now);
+            }
+        }
+
+        List<HotLink> top = hotLinks.top(2, 1);
+
+        assertEquals(2, top.size());
+        assertEquals("https://hot1", top.get(0).shortUrl());
+        assertEquals("https://hot2", top.get(1).shortUrl());
+        assertTrue(top.get(0).clicks() >= 500);
+        assertTrue(top.get(1).clicks() >= 250);
+    }
+
+    /**
+     * 🪟 Only slices within the requested window are counted
+     */
+    @Test
+    void top_shouldRespectWindow() {
+        HotLinks hotLinks = new HotLinks(60, 10, 16);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            hotLinks.record(1L, "https://old", now - 3 * 60_000L);
+            hotLinks.record(2L, "https://new", now);
+        }
+        hotLinks.record(1L, "https://old", now);
+
+        assertEquals(List.of(new HotLink(2L, "https://new", 5), new HotLink(1L, "https://old", 1)), hotLinks.top(10, 1));
+        assertEquals(new HotLink(1L, "https://old", 6), hotLinks.top(10, 5).get(0));
+    }
+
+    /**
+     * 📏 A slice keeps no more candidates than its capacity, and a non-positive limit gives no links
+     */
+    @Test
+    void top_shouldBeCappedByCapacity() {
+        HotLinks hotLinks = new HotLinks(60, 10, 4);
+        long now = System.currentTimeMillis();
+        for (long link = 1; link <= 100; link++) {
+            hotLinks.record(link, "https://link" + link, now);
+        }
+
+        assertEquals(4, hotLinks.top(50, 1).size());
+        assertTrue(hotLinks.top(-1, 1).isEmpty());
+    }
+}
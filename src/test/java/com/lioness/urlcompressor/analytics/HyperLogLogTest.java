@@ -0,0 +1,78 @@
+package com.lioness.urlcompressor.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    /**
+     * 🎯 Estimates stay within a few percent of the true count, for small and large counts
+     */
+    @Test
+    void estimate_shouldBeAccurate() {
+        for (int count : new int[]{10, 1_000, 200_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < count; i++) {
+                sketch.add(VisitorHasher.visitorKey(i, 42L));
+                sketch.add(VisitorHasher.visitorKey(i, 42L)); // repeated visits are not counted again
+            }
+
+            assertEquals(count, sketch.estimate(), count * 0.05, "estimate of " + count);
+        }
+    }
+
+    /**
+     * 🔀 Merging two sketches estimates their union, and merging again changes nothing
+     */
+    @Test
+    void merge_shouldEstimateUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            first.add(VisitorHasher.visitorKey(i, 1L));
+            second.add(VisitorHasher.visitorKey(i + 20_000, 1L));
+        }
+
+        first.merge(second);
+        long union = first.estimate();
+        first.merge(second);
+
+        assertEquals(50_000, union, 50_000 * 0.05);
+        assertEquals(union, first.estimate());
+    }
+
+    /**
+     * 💾 Sparse and dense sketches survive serialization; a sparse sketch stays small
+     */
+    @Test
+    void toBytes_shouldRoundTrip() {
+        HyperLogLog sparse = new HyperLogLog();
+        for (int i = 0; i < 20; i++) {
+            sparse.add(VisitorHasher.visitorKey(i, 7L));
+        }
+        HyperLogLog dense = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            dense.add(VisitorHasher.visitorKey(i, 7L));
+        }
+
+        byte[] sparseBytes = sparse.toBytes();
+        byte[] denseBytes = dense.toBytes();
+
+        assertTrue(sparseBytes.length < 100, "sparse sketch of 20 visitors takes " + sparseBytes.length + " bytes");
+        assertEquals(2 + HyperLogLog.REGISTERS * 6 / 8, denseBytes.length);
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(sparseBytes).estimate());
+        assertEquals(dense.estimate(), HyperLogLog.fromBytes(denseBytes).estimate());
+        assertArrayEquals(denseBytes, HyperLogLog.fromBytes(denseBytes).toBytes());
+    }
+
+    /**
+     * 🚫 Bytes that are not a sketch are rejected
+     */
+    @Test
+    void fromBytes_shouldRejectGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{1, 12, (byte) 0x80}));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{2, 12, 0}));
+    }
+}
@@ -0,0 +1,85 @@
+package com.lioness.urlcompressor.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 💾 Appended clicks are read back after the segment is reopened
+     */
+    @Test
+    void open_shouldReadBackAppendedClicks() throws IOException {
+        Path path = directory.resolve("1.seg");
+        ClickEvent first = new ClickEvent(1_000L, 1L, "abc123", "https://news.example", 11L, 12L);
+        ClickEvent second = new ClickEvent(2_000L, 2L, "def456", null, 0L, 22L);
+        try (JournalSegment segment = JournalSegment.create(path, 1, 4096)) {
+            assertTrue(segment.append(first));
+            assertTrue(segment.append(second));
+            segment.force();
+        }
+
+        try (JournalSegment segment = JournalSegment.open(path)) {
+            List<ClickEvent> events = new ArrayList<>();
+            segment.forEach(events::add);
+
+            assertEquals(List.of(first, second), events);
+            assertEquals(JournalSegment.State.OPEN, segment.state());
+            assertEquals(1L, segment.sequence());
+        }
+    }
+
+    /**
+     * ✂️ A torn record ends the segment; everything before it is recovered
+     */
+    @Test
+    void open_shouldStopAtTornRecord() throws IOException {
+        Path path = directory.resolve("1.seg");
+        try (JournalSegment segment = JournalSegment.create(path, 1, 4096)) {
+            segment.append(new ClickEvent(1_000L, 1L, "abc123", null, 0L, 0L));
+            segment.append(new ClickEvent(2_000L, 2L, "def456", null, 0L, 0L));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(64 + 48 + 20);
+            file.writeLong(-1L);
+        }
+
+        try (JournalSegment segment = JournalSegment.open(path)) {
+            List<ClickEvent> events = new ArrayList<>();
+            segment.forEach(events::add);
+
+            assertEquals(1, segment.records());
+            assertEquals(1L, events.get(0).linkId());
+        }
+    }
+
+    /**
+     * 📦 A full segment rejects further clicks, and sealing is persisted
+     */
+    @Test
+    void append_shouldRejectWhenFull() throws IOException {
+        Path path = directory.resolve("1.seg");
+        try (JournalSegment segment = JournalSegment.create(path, 1, 64 + 48 * 2)) {
+            assertTrue(segment.append(new ClickEvent(1L, 1L, "abc1", null, 0L, 0L)));
+            assertTrue(segment.append(new ClickEvent(2L, 1L, "abc1", null, 0L, 0L)));
+            assertFalse(segment.append(new ClickEvent(3L, 1L, "abc1", null, 0L, 0L)));
+            segment.seal();
+        }
+
+        try (JournalSegment segment = JournalSegment.open(path)) {
+            assertEquals(JournalSegment.State.SEALED, segment.state());
+            assertEquals(2, segment.records());
+        }
+    }
+}
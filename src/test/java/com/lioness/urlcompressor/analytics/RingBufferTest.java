@@ -0,0 +1,99 @@
+package com.lioness.urlcompressor.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    /**
+     * 🧵 Every value of every producer is consumed exactly once, in each producer's order
+     */
+    @Test
+    void drain_shouldSeeAllPublishedSlotsOfConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        RingBuffer<long[]> buffer = new RingBuffer<>(1024, () -> new long[1]);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p << 32;
+            threads.add(Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < perProducer; i++) {
+                    long sequence;
+                    while ((sequence = buffer.tryClaim()) < 0) {
+                        Thread.onSpinWait();
+                    }
+                    buffer.slot(sequence)[0] = base | i;
+                    buffer.publish(sequence);
+                }
+            }));
+        }
+
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        long[] consumed = new long[1];
+        start.countDown();
+        while (consumed[0] < (long) producers * perProducer) {
+            consumed[0] += buffer.drain(slot -> {
+                int producer = (int) (slot[0] >>> 32);
+                long value = slot[0] & 0xFFFFFFFFL;
+                assertEquals(lastSeen[producer] + 1, value);
+                lastSeen[producer] = value;
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, buffer.depth());
+        for (long last : lastSeen) {
+            assertEquals(perProducer - 1, last);
+        }
+    }
+
+    /**
+     * 🛑 A full buffer refuses claims until the consumer frees slots; unpublished slots are not consumed
+     */
+    @Test
+    void tryClaim_shouldFailWhenFull() {
+        RingBuffer<long[]> buffer = new RingBuffer<>(4, () -> new long[1]);
+        for (int i = 0; i < 4; i++) {
+            long sequence = buffer.tryClaim();
+            assertEquals(i, sequence);
+            if (i != 2) {
+                buffer.publish(sequence);
+            }
+        }
+
+        assertEquals(-1, buffer.tryClaim());
+        assertEquals(2, buffer.drain(slot -> { }));
+        assertEquals(2, buffer.depth());
+        assertEquals(4, buffer.tryClaim());
+
+        buffer.publish(2);
+        assertEquals(2, buffer.drain(slot -> { }));
+    }
+
+    /**
+     * 🚫 Capacities other than powers of two are rejected
+     */
+    @Test
+    void constructor_shouldRejectOddCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(1000, Object::new));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
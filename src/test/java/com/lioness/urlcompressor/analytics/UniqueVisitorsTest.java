@@ -0,0 +1,84 @@
+package com.lioness.urlcompressor.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UniqueVisitorsTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Mock
+    private VisitorSketchRepository sketchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UniqueVisitors uniqueVisitors;
+
+    @BeforeEach
+    void setUp() {
+        uniqueVisitors = new UniqueVisitors(sketchRepository, transactionManager, new SimpleMeterRegistry());
+    }
+
+    /**
+     * 👥 A flush merges each link's visitors into its lifetime and daily sketch
+     */
+    @Test
+    void flush_shouldMergeDeltas() {
+        uniqueVisitors.record(7L, millis(NOON), visitor(1));
+        uniqueVisitors.record(7L, millis(NOON), visitor(1));
+        uniqueVisitors.record(7L, millis(NOON.plusMinutes(5)), visitor(2));
+
+        uniqueVisitors.flush();
+
+        ArgumentCaptor<HyperLogLog> lifetime = ArgumentCaptor.forClass(HyperLogLog.class);
+        verify(sketchRepository).mergeLifetime(eq(7L), lifetime.capture());
+        assertEquals(2, lifetime.getValue().estimate());
+        verify(sketchRepository).mergeDaily(eq(7L), eq(NOON.toLocalDate().atStartOfDay()), any());
+
+        clearInvocations(sketchRepository);
+        uniqueVisitors.flush();
+        verifyNoInteractions(sketchRepository);
+    }
+
+    /**
+     * 🔁 Deltas of a failed merge are kept and merged with newer visitors on the next flush
+     */
+    @Test
+    void flush_shouldKeepDeltasOnFailure() {
+        uniqueVisitors.record(7L, millis(NOON), visitor(1));
+        doThrow(new QueryTimeoutException("database down")).when(sketchRepository).mergeLifetime(eq(7L), any());
+        uniqueVisitors.flush();
+
+        reset(sketchRepository);
+        uniqueVisitors.record(7L, millis(NOON), visitor(2));
+        uniqueVisitors.flush();
+
+        ArgumentCaptor<HyperLogLog> lifetime = ArgumentCaptor.forClass(HyperLogLog.class);
+        verify(sketchRepository).mergeLifetime(eq(7L), lifetime.capture());
+        assertEquals(2, lifetime.getValue().estimate());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long visitor(long clientIpHash) {
+        return VisitorHasher.visitorKey(clientIpHash, 0L);
+    }
+}
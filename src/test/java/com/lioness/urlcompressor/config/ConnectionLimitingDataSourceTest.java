@@ -0,0 +1,57 @@
+package com.lioness.urlcompressor.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    /**
+     * 🚦 Borrowers beyond the limit time out until a connection is closed
+     */
+    @Test
+    void getConnection_shouldWaitForClosedConnection() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 10);
+
+        Connection first = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        dataSource.getConnection();
+
+        verify(connection, times(2)).close();
+        verify(target, times(2)).getConnection();
+        assertEquals(0, dataSource.availablePermits());
+    }
+
+    /**
+     * 💥 A failing pool does not leak permits
+     */
+    @Test
+    void getConnection_shouldReleasePermitOnFailure() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool down"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 10);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(1, dataSource.availablePermits());
+    }
+}
@@ -1,7 +1,9 @@
 package com.lioness.urlcompressor.config;
 
+import com.lioness.urlcompressor.security.AuthenticatedUser;
 import com.lioness.urlcompressor.security.JwtAuthFilter;
 import com.lioness.urlcompressor.security.JwtTokenProvider;
+import com.lioness.urlcompressor.user.Role;
 import jakarta.servlet.http.HttpServletRequest;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.TestConfiguration;
@@ -10,6 +12,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
@@ -36,6 +39,10 @@ public class TestMockBeansConfig {
         // Always extract "lioness" as the username
         when(mock.extractUsernameFromToken(anyString())).thenReturn("lioness");
 
+        // Single-parse verification used by JwtAuthFilter and AuthorizationService
+        when(mock.verify(anyString()))
+                .thenReturn(Optional.of(new AuthenticatedUser(1L, "lioness", Role.USER)));
+
         return mock;
     }
 
@@ -0,0 +1,79 @@
+package com.lioness.urlcompressor.edge;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeClickCounterTest {
+
+    private DatabaseClient databaseClient;
+    private SimpleMeterRegistry meterRegistry;
+    private EdgeClickCounter clickCounter;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("edge-clicks-" + UUID.randomUUID());
+        databaseClient = DatabaseClient.create(connectionFactory);
+        execute("CREATE SCHEMA link_manager");
+        execute("""
+                CREATE TABLE link_manager.short_links (
+                    id BIGINT PRIMARY KEY,
+                    click_count BIGINT NOT NULL DEFAULT 0,
+                    CONSTRAINT click_limit CHECK (click_count < 100)
+                )
+                """);
+        execute("INSERT INTO link_manager.short_links (id) VALUES (1), (2)");
+
+        meterRegistry = new SimpleMeterRegistry();
+        clickCounter = new EdgeClickCounter(new EdgeLinkRepository(databaseClient,
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory))), meterRegistry);
+    }
+
+    /**
+     * ↩️ When the second update of a flush fails, the first one is rolled back too,
+     * so the re-queued clicks are written exactly once by the next flush
+     */
+    @Test
+    void flush_shouldNotCountClicksTwiceAfterPartialFailure() {
+        for (int i = 0; i < 3; i++) {
+            clickCounter.record(1L);
+        }
+        for (int i = 0; i < 100; i++) {
+            clickCounter.record(2L);
+        }
+
+        clickCounter.flush();
+
+        assertEquals(0L, clickCount(1L));
+        assertEquals(0L, clickCount(2L));
+        assertEquals(2.0, meterRegistry.get("links.clicks.pending").gauge().value());
+
+        execute("ALTER TABLE link_manager.short_links DROP CONSTRAINT click_limit");
+        clickCounter.flush();
+
+        assertEquals(3L, clickCount(1L));
+        assertEquals(100L, clickCount(2L));
+        assertEquals(103.0, meterRegistry.get("links.clicks.flushed").counter().count());
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    private long clickCount(long id) {
+        return databaseClient.sql("SELECT click_count FROM link_manager.short_links WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get("click_count", Long.class))
+                .one()
+                .block();
+    }
+}
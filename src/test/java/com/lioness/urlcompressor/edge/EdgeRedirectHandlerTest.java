@@ -0,0 +1,114 @@
+package com.lioness.urlcompressor.edge;
+
+import com.lioness.urlcompressor.url.RedirectCaching;
+import com.lioness.urlcompressor.url.ShortCodeValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeRedirectHandlerTest {
+
+    private DatabaseClient databaseClient;
+    private EdgeClickCounter clickCounter;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("edge-" + UUID.randomUUID());
+        databaseClient = DatabaseClient.create(connectionFactory);
+        execute("CREATE SCHEMA link_manager");
+        execute("""
+                CREATE TABLE link_manager.short_links (
+                    id BIGINT PRIMARY KEY,
+                    original_url VARCHAR(2000) NOT NULL,
+                    shortened_url VARCHAR(50) NOT NULL UNIQUE,
+                    click_count BIGINT NOT NULL DEFAULT 0,
+                    created_at TIMESTAMP NOT NULL,
+                    expires_at TIMESTAMP,
+                    user_id BIGINT,
+                    version BIGINT NOT NULL DEFAULT 0,
+                    redirect_policy VARCHAR(16) NOT NULL DEFAULT 'TEMPORARY'
+                )
+                """);
+        execute("""
+                INSERT INTO link_manager.short_links (id, original_url, shortened_url, created_at, expires_at, user_id)
+                VALUES (1, 'https://lioness.codes', 'https://abc123', CURRENT_TIMESTAMP, NULL, 7),
+                       (2, 'https://expired.example', 'https://old123', CURRENT_TIMESTAMP, DATEADD('DAY', -1, CURRENT_TIMESTAMP), 7)
+                """);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EdgeLinkRepository linkRepository = new EdgeLinkRepository(databaseClient,
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+        clickCounter = new EdgeClickCounter(linkRepository, meterRegistry);
+        EdgeLinkResolver linkResolver = new EdgeLinkResolver(linkRepository, clickCounter,
+                new ShortCodeValidator(meterRegistry, true), meterRegistry, 100, Duration.ofMinutes(1));
+        webTestClient = WebTestClient
+                .bindToRouterFunction(new EdgeRedirectApp().edgeRoutes(new EdgeRedirectHandler(linkResolver,
+                        new RedirectCaching(Duration.ofDays(1), Duration.ofMinutes(5)))))
+                .build();
+    }
+
+    /**
+     * ↪️ A known code redirects to the original URL and its click is written on flush
+     */
+    @Test
+    void redirect_shouldRedirectAndCountClicks() {
+        webTestClient.get().uri("/abc123").exchange()
+                .expectStatus().isFound()
+                .expectHeader().valueEquals(HttpHeaders.LOCATION, "https://lioness.codes")
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic());
+        webTestClient.get().uri("/abc123").exchange()
+                .expectStatus().isFound();
+
+        clickCounter.flush();
+
+        assertEquals(2L, clickCount(1L));
+    }
+
+    /**
+     * 🚫 Unknown codes answer 404
+     */
+    @Test
+    void redirect_shouldReturnNotFoundForUnknownCode() {
+        webTestClient.get().uri("/nope99").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    /**
+     * ⌛ Expired links answer 410 and are not counted
+     */
+    @Test
+    void redirect_shouldReturnGoneForExpiredLink() {
+        webTestClient.get().uri("/old123").exchange()
+                .expectStatus().isEqualTo(410);
+
+        clickCounter.flush();
+
+        assertEquals(0L, clickCount(2L));
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    private long clickCount(long id) {
+        return databaseClient.sql("SELECT click_count FROM link_manager.short_links WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get("click_count", Long.class))
+                .one()
+                .block();
+    }
+}
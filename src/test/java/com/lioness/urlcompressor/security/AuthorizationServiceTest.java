@@ -10,8 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +32,9 @@ class AuthorizationServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PrincipalCache principalCache;
+
     private AuthorizationService authorizationService;
     private UserServiceImpl userService;
 
@@ -40,7 +46,7 @@ class AuthorizationServiceTest {
     void setup() {
         // Create UserServiceImpl with mocks (not actually used here)
         userService = new UserServiceImpl(jwtTokenProvider, userRepository, passwordEncoder);
-        authorizationService = new AuthorizationService(userRepository, jwtTokenProvider);
+        authorizationService = new AuthorizationService(userRepository, jwtTokenProvider, principalCache);
 
         UserEntity user = UserEntity.builder()
                 .login(USERNAME)
@@ -60,8 +66,8 @@ class AuthorizationServiceTest {
     void getAuthorizedUser_success() {
         // Simulate valid token and user lookup
         when(jwtTokenProvider.extractTokenFromHeader(TOKEN_HEADER)).thenReturn(TOKEN);
-        when(jwtTokenProvider.validateToken(TOKEN)).thenReturn(true);
-        when(jwtTokenProvider.extractUsernameFromToken(TOKEN)).thenReturn(USERNAME);
+        when(jwtTokenProvider.verify(TOKEN))
+                .thenReturn(Optional.of(new AuthenticatedUser(1L, USERNAME, Role.USER)));
 
         UserEntity mockUser = UserEntity.builder().login(USERNAME).build();
         when(userRepository.findByLoginIgnoreCase(USERNAME)).thenReturn(Optional.of(mockUser));
@@ -85,8 +91,8 @@ class AuthorizationServiceTest {
     void getAuthorizedUser_userNotFound_shouldReturnEmpty() {
         // Simulate valid token, but user doesn't exist
         when(jwtTokenProvider.extractTokenFromHeader(TOKEN_HEADER)).thenReturn(TOKEN);
-        when(jwtTokenProvider.validateToken(TOKEN)).thenReturn(true);
-        when(jwtTokenProvider.extractUsernameFromToken(TOKEN)).thenReturn(USERNAME);
+        when(jwtTokenProvider.verify(TOKEN))
+                .thenReturn(Optional.of(new AuthenticatedUser(1L, USERNAME, Role.USER)));
         when(userRepository.findByLoginIgnoreCase(USERNAME)).thenReturn(Optional.empty());
 
         Optional<UserEntity> result = authorizationService.getAuthorizedUser(TOKEN_HEADER);
@@ -98,10 +104,42 @@ class AuthorizationServiceTest {
     @DisplayName("getAuthorizedUser: invalid token")
     void getAuthorizedUser_invalidToken_shouldReturnEmpty() {
         // Simulate invalid token
-        when(jwtTokenProvider.validateToken(TOKEN)).thenReturn(false);
+        when(jwtTokenProvider.verify(TOKEN)).thenReturn(Optional.empty());
 
         Optional<UserEntity> result = authorizationService.getAuthorizedUser(TOKEN_HEADER);
 
         assertTrue(result.isEmpty(), "Invalid token should return empty result");
     }
+
+    @Test
+    @DisplayName("getAuthorizedUser: reuses the principal verified by the filter")
+    void getAuthorizedUser_reusesVerifiedPrincipal() {
+        AuthenticatedUser principal = new AuthenticatedUser(1L, USERNAME, Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, TOKEN, List.of()));
+        try {
+            UserEntity mockUser = UserEntity.builder().login(USERNAME).build();
+            when(userRepository.findByLoginIgnoreCase(USERNAME)).thenReturn(Optional.of(mockUser));
+
+            Optional<UserEntity> result = authorizationService.getAuthorizedUser(TOKEN_HEADER);
+
+            assertTrue(result.isPresent(), "User should be authorized");
+            verify(jwtTokenProvider, never()).verify(anyString());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    @DisplayName("getAuthorizedPrincipal: resolves the user through the principal cache")
+    void getAuthorizedPrincipal_usesPrincipalCache() {
+        AuthenticatedUser principal = new AuthenticatedUser(1L, USERNAME, Role.USER);
+        when(jwtTokenProvider.verify(TOKEN)).thenReturn(Optional.of(new AuthenticatedUser(null, USERNAME, Role.USER)));
+        when(principalCache.find(USERNAME)).thenReturn(Optional.of(principal));
+
+        Optional<AuthenticatedUser> result = authorizationService.getAuthorizedPrincipal(TOKEN_HEADER);
+
+        assertEquals(Optional.of(principal), result);
+        verifyNoInteractions(userRepository);
+    }
 }
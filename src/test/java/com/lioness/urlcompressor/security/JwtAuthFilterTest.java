@@ -13,6 +13,7 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -45,9 +46,8 @@ class JwtAuthFilterTest {
         when(jwtTokenProvider.extractTokenFromHeader("Bearer valid.token.here"))
                 .thenReturn("valid.token.here");
 
-        when(jwtTokenProvider.validateToken("valid.token.here")).thenReturn(true);
-        when(jwtTokenProvider.extractUsernameFromToken("valid.token.here")).thenReturn("lioness");
-        when(jwtTokenProvider.extractRoleFromToken("valid.token.here")).thenReturn(Role.ADMIN);
+        when(jwtTokenProvider.verify("valid.token.here"))
+                .thenReturn(Optional.of(new AuthenticatedUser(1L, "lioness", Role.ADMIN)));
 
         // Act: apply the filter
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -56,6 +56,11 @@ class JwtAuthFilterTest {
         assertNotNull(SecurityContextHolder.getContext().getAuthentication(), "Authentication should be set");
         assertEquals("lioness", SecurityContextHolder.getContext().getAuthentication().getName());
         assertTrue(SecurityContextHolder.getContext().getAuthentication().isAuthenticated());
+        assertTrue(SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+
+        // The token is verified exactly once per request
+        verify(jwtTokenProvider, times(1)).verify("valid.token.here");
 
         // Ensure the request continues down the filter chain
         verify(filterChain).doFilter(request, response);
@@ -71,7 +76,8 @@ class JwtAuthFilterTest {
         FilterChain filterChain = mock(FilterChain.class);
 
         // Stub: token is invalid
-        when(jwtTokenProvider.validateToken("invalid.token")).thenReturn(false);
+        when(jwtTokenProvider.extractTokenFromHeader("Bearer invalid.token")).thenReturn("invalid.token");
+        when(jwtTokenProvider.verify("invalid.token")).thenReturn(Optional.empty());
 
         // Act: apply the filter
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
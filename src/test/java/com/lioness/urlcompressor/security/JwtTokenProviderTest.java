@@ -66,4 +66,34 @@ class JwtTokenProviderTest {
         // Validate a token that is clearly not a JWT
         assertFalse(jwtTokenProvider.validateToken("this.is.not.jwt"), "Invalid JWT should return false");
     }
+
+    @Test
+    void verify_returnsAllClaimsFromSingleParse() {
+        // Verify a token carrying id, login and role
+        String token = jwtTokenProvider.generateToken(42L, "lioness", Role.ADMIN);
+
+        AuthenticatedUser user = jwtTokenProvider.verify(token).orElseThrow();
+
+        assertEquals(42L, user.id());
+        assertEquals("lioness", user.login());
+        assertEquals("lioness", user.getName());
+        assertEquals(Role.ADMIN, user.role());
+    }
+
+    @Test
+    void verifyToken_returnsExpirationFromSameParse() {
+        // Refresh tokens are blacklisted for their remaining lifetime (~7 days)
+        String refreshToken = jwtTokenProvider.generateRefreshToken(42L, "lioness", Role.USER);
+
+        VerifiedToken verified = jwtTokenProvider.verifyToken(refreshToken).orElseThrow();
+
+        assertEquals("lioness", verified.user().login());
+        assertTrue(verified.timeToLive().toHours() >= 6, "Refresh token TTL should be at least 6 hours");
+    }
+
+    @Test
+    void verify_shouldReturnEmptyForInvalidToken() {
+        assertTrue(jwtTokenProvider.verify("this.is.not.jwt").isEmpty());
+        assertTrue(jwtTokenProvider.verify(null).isEmpty());
+    }
 }
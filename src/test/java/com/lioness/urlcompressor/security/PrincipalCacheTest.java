@@ -0,0 +1,81 @@
+package com.lioness.urlcompressor.security;
+
+import com.lioness.urlcompressor.user.Role;
+import com.lioness.urlcompressor.user.UserEntity;
+import com.lioness.urlcompressor.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), Duration.ofSeconds(2));
+    }
+
+    /**
+     * ✅ A user is loaded once and then served from memory, regardless of login case
+     */
+    @Test
+    void find_shouldHitDatabaseOnlyOnce() {
+        when(userRepository.findByLoginIgnoreCase("Lioness")).thenReturn(Optional.of(user()));
+
+        AuthenticatedUser first = principalCache.find("Lioness").orElseThrow();
+        AuthenticatedUser second = principalCache.find("lioness").orElseThrow();
+
+        assertEquals(7L, first.id());
+        assertEquals(Role.ADMIN, second.role());
+        verify(userRepository, times(1)).findByLoginIgnoreCase(anyString());
+    }
+
+    /**
+     * 🚫 Unknown users are not cached
+     */
+    @Test
+    void find_shouldNotCacheMissingUsers() {
+        when(userRepository.findByLoginIgnoreCase("ghost")).thenReturn(Optional.empty());
+
+        assertTrue(principalCache.find("ghost").isEmpty());
+        assertTrue(principalCache.find("ghost").isEmpty());
+
+        verify(userRepository, times(2)).findByLoginIgnoreCase("ghost");
+    }
+
+    /**
+     * 🔁 Eviction (role change, deletion) forces the next lookup back to the database
+     */
+    @Test
+    void evict_shouldDropCachedPrincipal() {
+        when(userRepository.findByLoginIgnoreCase("lioness")).thenReturn(Optional.of(user()));
+
+        principalCache.find("lioness");
+        principalCache.evict("LIONESS");
+        principalCache.find("lioness");
+
+        verify(userRepository, times(2)).findByLoginIgnoreCase("lioness");
+    }
+
+    private UserEntity user() {
+        return UserEntity.builder()
+                .id(7L)
+                .login("lioness")
+                .role(Role.ADMIN)
+                .build();
+    }
+}
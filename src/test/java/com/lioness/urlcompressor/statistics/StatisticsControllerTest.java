@@ -1,5 +1,6 @@
 package com.lioness.urlcompressor.statistics;
 
+import com.lioness.urlcompressor.security.AuthenticatedUser;
 import com.lioness.urlcompressor.security.JwtTokenProvider;
 import com.lioness.urlcompressor.url.dto.UrlRequest;
 import com.lioness.urlcompressor.user.Role;
@@ -17,8 +18,10 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -51,6 +54,8 @@ class StatisticsControllerTest {
                 .thenReturn(Role.USER);
         Mockito.when(jwtTokenProvider.validateToken(anyString()))
                 .thenReturn(true);
+        Mockito.when(jwtTokenProvider.verify(anyString()))
+                .thenReturn(Optional.of(new AuthenticatedUser(1L, "mockedUser", Role.USER)));
 
         // 🧪 Prepare mock response from statisticsService
         StatsUrlDto dto = new StatsUrlDto(
@@ -59,10 +64,11 @@ class StatisticsControllerTest {
                 10L,
                 true,
                 LocalDateTime.now(),
-                LocalDateTime.now().plusDays(7)
+                LocalDateTime.now().plusDays(7),
+                8L
         );
         StatisticsResponse response = StatisticsResponse.success(10L, List.of(dto));
-        Mockito.when(statisticsService.getAllUserUrls(any(UrlRequest.class))).thenReturn(response);
+        Mockito.when(statisticsService.getAllUserUrls(any(UrlRequest.class), anyBoolean(), any(), any())).thenReturn(response);
 
         // 🚀 Perform the GET request
         mockMvc.perform(get("/api/v1/statistics/all")
@@ -1,9 +1,16 @@
 package com.lioness.urlcompressor.statistics;
 
+import com.lioness.urlcompressor.analytics.ClickBucket;
+import com.lioness.urlcompressor.analytics.ClickRollups;
+import com.lioness.urlcompressor.analytics.Granularity;
+import com.lioness.urlcompressor.analytics.UniqueVisitors;
+import com.lioness.urlcompressor.security.AuthenticatedUser;
 import com.lioness.urlcompressor.security.AuthorizationService;
 import com.lioness.urlcompressor.url.LinkRepository;
+import com.lioness.urlcompressor.url.LinkTotals;
+import com.lioness.urlcompressor.url.UrlEntity;
 import com.lioness.urlcompressor.url.dto.UrlRequest;
-import com.lioness.urlcompressor.user.UserEntity;
+import com.lioness.urlcompressor.user.Role;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -12,8 +19,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -27,6 +38,12 @@ class StatisticsServiceTest {
     @Mock
     private AuthorizationService authorizationService;
 
+    @Mock
+    private ClickRollups clickRollups;
+
+    @Mock
+    private UniqueVisitors uniqueVisitors;
+
     @InjectMocks
     private StatisticsService statisticsService;
 
@@ -39,7 +56,7 @@ class StatisticsServiceTest {
         UrlRequest request = new UrlRequest();
         request.setAuthHeader("Bearer test-token");
 
-        assertDoesNotThrow(() -> statisticsService.getAllUserUrls(request));
+        assertDoesNotThrow(() -> statisticsService.getAllUserUrls(request, true, null, null));
     }
 
     /**
@@ -52,8 +69,8 @@ class StatisticsServiceTest {
         request.setOriginalUrl("nonexistent-short-link");
         request.setAuthHeader("Bearer some-valid-token");
 
-        UserEntity user = new UserEntity();
-        when(authorizationService.getAuthorizedUser("Bearer some-valid-token"))
+        AuthenticatedUser user = new AuthenticatedUser(1L, "lioness", Role.USER);
+        when(authorizationService.getAuthorizedPrincipal("Bearer some-valid-token"))
                 .thenReturn(Optional.of(user));
 
         // ⛔ Simulate missing URL in database
@@ -67,5 +84,69 @@ class StatisticsServiceTest {
         assertEquals("URL не знайдено", response.getInfoMessage());
         assertEquals(HttpStatus.NOT_FOUND, response.getStatus());
     }
-}
 
+    /**
+     * 📊 Test: totals come from one aggregate query and no link rows are loaded without details
+     */
+    @Test
+    void testGetActiveUserUrls_totalsOnly_shouldNotLoadLinks() {
+        UrlRequest request = new UrlRequest();
+        request.setAuthHeader("Bearer some-valid-token");
+
+        AuthenticatedUser user = new AuthenticatedUser(1L, "lioness", Role.USER);
+        when(authorizationService.getAuthorizedPrincipal("Bearer some-valid-token"))
+                .thenReturn(Optional.of(user));
+        when(linkRepository.aggregateByOwner(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(new LinkTotals(5, 40, 3, 25));
+
+        StatisticsResponse response = statisticsService.getActiveUserUrls(request, false, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatus());
+        assertEquals(25L, response.getTotalClicks());
+        assertEquals(3L, response.getTotalLinks());
+        assertNull(response.getUrlList());
+        verify(linkRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    /**
+     * 📈 Test: getTimeline — the owner gets the hourly buckets of the requested range
+     */
+    @Test
+    void testGetTimeline_owner_shouldReturnBuckets() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = from.plusHours(2);
+        when(authorizationService.getAuthorizedPrincipal("Bearer token"))
+                .thenReturn(Optional.of(new AuthenticatedUser(1L, "lioness", Role.USER)));
+        when(linkRepository.findByShortenedUrl("https://abc123"))
+                .thenReturn(Optional.of(UrlEntity.builder().id(7L).ownerId(1L).shortenedUrl("https://abc123").build()));
+        when(clickRollups.timeline(Granularity.HOUR, 7L, from, to))
+                .thenReturn(List.of(new ClickBucket(from, 2), new ClickBucket(from.plusHours(1), 3)));
+
+        TimelineResponse response = statisticsService.getTimeline("https://abc123", "hour", from, to, "Bearer token");
+
+        assertEquals(HttpStatus.OK, response.getStatus());
+        assertEquals(5L, response.getTotalClicks());
+        assertEquals(from, response.getFrom());
+        assertEquals(2, response.getPoints().size());
+    }
+
+    /**
+     * 🚫 Test: getTimeline — another user's link and oversized ranges are rejected before reading rollups
+     */
+    @Test
+    void testGetTimeline_foreignLinkOrTooLongRange_shouldBeRejected() {
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(authorizationService.getAuthorizedPrincipal("Bearer token"))
+                .thenReturn(Optional.of(new AuthenticatedUser(1L, "lioness", Role.USER)));
+        when(linkRepository.findByShortenedUrl("https://abc123"))
+                .thenReturn(Optional.of(UrlEntity.builder().id(7L).ownerId(2L).shortenedUrl("https://abc123").build()));
+
+        assertEquals(HttpStatus.FORBIDDEN,
+                statisticsService.getTimeline("https://abc123", "day", null, to, "Bearer token").getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                statisticsService.getTimeline("https://abc123", "minute", to.minusDays(30), to, "Bearer token").getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                statisticsService.getTimeline("https://abc123", "week", null, to, "Bearer token").getStatus());
+        verifyNoInteractions(clickRollups);
+    }
+}
@@ -0,0 +1,46 @@
+package com.lioness.urlcompressor.url;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    /**
+     * ✅ Every added value is reported as present
+     */
+    @Test
+    void mightContain_shouldNeverMissAddedValues() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (long id = 0; id < 10_000; id++) {
+            filter.put("https://" + ShortLinkGenerator.encode(id));
+        }
+
+        for (long id = 0; id < 10_000; id++) {
+            assertTrue(filter.mightContain("https://" + ShortLinkGenerator.encode(id)));
+        }
+    }
+
+    /**
+     * 📏 At capacity the observed false-positive rate stays close to the target and matches the estimate
+     */
+    @Test
+    void falsePositiveRate_shouldStayNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (long id = 0; id < 10_000; id++) {
+            filter.put("https://" + ShortLinkGenerator.encode(id));
+        }
+
+        int falsePositives = 0;
+        for (long id = 1_000_000; id < 1_100_000; id++) {
+            if (filter.mightContain("https://" + ShortLinkGenerator.encode(id))) {
+                falsePositives++;
+            }
+        }
+
+        double observed = falsePositives / 100_000.0;
+        assertTrue(observed < 0.02, "observed false-positive rate " + observed);
+        assertEquals(0.01, filter.falsePositiveRate(), 0.005);
+        assertEquals(10_000, filter.approximateEntries(), 300);
+    }
+}
@@ -0,0 +1,124 @@
+package com.lioness.urlcompressor.url;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.lioness.urlcompressor.security.AuthenticatedUser;
+import com.lioness.urlcompressor.security.AuthorizationService;
+import com.lioness.urlcompressor.user.Role;
+import com.lioness.urlcompressor.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkLinkServiceTest {
+
+    private static final AuthenticatedUser USER = new AuthenticatedUser(1L, "lioness", Role.USER);
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LinkCache linkCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BulkLinkService bulkLinkService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .enable(SerializationFeature.INDENT_OUTPUT); // like the application's mapper
+        ShortLinkGenerator generator = new ShortLinkGenerator(new AtomicLong()::incrementAndGet);
+
+        bulkLinkService = new BulkLinkService(authorizationService, linkRepository, userRepository,
+                new LongUrlValidator(), generator, linkCache, entityManager, transactionManager, objectMapper);
+    }
+
+    /**
+     * ✅ Every request line gets exactly one single-line result, in request order
+     */
+    @Test
+    void shorten_shouldWriteOneResultPerLineInOrder() throws Exception {
+        String body = """
+                {"originalUrl":"https://lioness.codes/1"}
+                not json
+
+                {"originalUrl":"ftp://nope"}
+                {"originalUrl":"https://lioness.codes/2"}
+                """;
+        StringWriter out = new StringWriter();
+
+        bulkLinkService.shorten(USER, new BufferedReader(new StringReader(body)), out);
+
+        List<String> lines = out.toString().lines().toList();
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"line\":1,\"success\":true,\"shortLink\":\"https://"));
+        assertTrue(lines.get(1).startsWith("{\"line\":2,\"success\":false"));
+        assertTrue(lines.get(2).startsWith("{\"line\":4,\"success\":false"));
+        assertTrue(lines.get(3).startsWith("{\"line\":5,\"success\":true"));
+
+        // Both valid lines are inserted together as one batch
+        verify(linkRepository, times(1)).saveAll(argThat(links -> ((List<?>) links).size() == 2));
+        verify(entityManager).clear();
+    }
+
+    /**
+     * 📦 Large uploads are inserted chunk by chunk
+     */
+    @Test
+    void shorten_shouldInsertInChunks() throws Exception {
+        StringBuilder body = new StringBuilder();
+        int count = BulkLinkService.CHUNK_SIZE * 2 + 1;
+        for (int i = 0; i < count; i++) {
+            body.append("{\"originalUrl\":\"https://lioness.codes/").append(i).append("\"}\n");
+        }
+        StringWriter out = new StringWriter();
+
+        bulkLinkService.shorten(USER, new BufferedReader(new StringReader(body.toString())), out);
+
+        assertEquals(count, out.toString().lines().count());
+        verify(linkRepository, times(3)).saveAll(anyList());
+    }
+
+    /**
+     * 💥 A failed chunk reports every one of its links as not stored and does not stop the stream
+     */
+    @Test
+    void shorten_shouldReportFailedChunk() throws Exception {
+        when(linkRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        StringWriter out = new StringWriter();
+
+        bulkLinkService.shorten(USER, new BufferedReader(new StringReader("{\"originalUrl\":\"https://lioness.codes\"}\n")), out);
+
+        assertTrue(out.toString().startsWith("{\"line\":1,\"success\":false"));
+        verifyNoInteractions(linkCache);
+    }
+}
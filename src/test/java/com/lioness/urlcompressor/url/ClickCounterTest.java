@@ -0,0 +1,97 @@
+package com.lioness.urlcompressor.url;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickCounterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ClickCounter clickCounter;
+
+    @BeforeEach
+    void setUp() {
+        clickCounter = new ClickCounter(jdbcTemplate, new SimpleMeterRegistry());
+    }
+
+    /**
+     * ✅ Concurrent clicks are summed per link and written in one batch
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldWriteSummedDeltasInOneBatch() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8_000; i++) {
+            long linkId = i % 2 == 0 ? 1L : 2L;
+            pool.execute(() -> clickCounter.record(linkId));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        clickCounter.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertEquals(Map.of(1L, 4_000L, 2L, 4_000L), toMap(batch.getValue()));
+    }
+
+    /**
+     * 💤 Nothing to write means no database call
+     */
+    @Test
+    void flush_withoutClicks_shouldNotTouchDatabase() {
+        clickCounter.flush();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * 🔁 A failed flush keeps the deltas for the next attempt
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_failure_shouldRequeueDeltas() {
+        clickCounter.record(5L);
+        clickCounter.record(5L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(new int[]{1});
+
+        assertThrows(DataAccessResourceFailureException.class, () -> clickCounter.flush());
+        clickCounter.record(5L);
+        clickCounter.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batch.capture());
+        assertEquals(Map.of(5L, 3L), toMap(batch.getAllValues().get(1)));
+    }
+
+    private Map<Long, Long> toMap(List<Object[]> rows) {
+        Map<Long, Long> result = new HashMap<>();
+        for (Object[] row : rows) {
+            result.put((Long) row[1], (Long) row[0]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,234 @@
+package com.lioness.urlcompressor.url;
+
+import com.lioness.urlcompressor.user.UserEntity;
+import com.lioness.urlcompressor.util.CircuitBreaker;
+import com.lioness.urlcompressor.util.CircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LinkCacheTest {
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    @Mock
+    private ShortLinkFilter shortLinkFilter;
+
+    @Mock
+    private LinkIndex linkIndex;
+
+    @Mock
+    private LinkExpiryScheduler expiryScheduler;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LinkCache linkCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(shortLinkFilter.mightContain(anyString())).thenReturn(true);
+        lenient().when(linkIndex.find(anyString())).thenReturn(Optional.empty());
+        linkCache = cache(new CircuitBreaker("test", 5, Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry),
+                Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        linkCache.close();
+    }
+
+    /**
+     * ✅ A found link is loaded once and then served from memory
+     */
+    @Test
+    void find_shouldHitDatabaseOnlyOnce() {
+        when(linkRepository.findByShortenedUrl("https://abc123")).thenReturn(Optional.of(entity(1L, 7L)));
+
+        Optional<ResolvedLink> first = linkCache.find("https://abc123");
+        Optional<ResolvedLink> second = linkCache.find("https://abc123");
+
+        assertTrue(first.isPresent());
+        assertEquals(7L, second.get().ownerId());
+        verify(linkRepository, times(1)).findByShortenedUrl("https://abc123");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "links").tag("result", "hit").functionCounter().count());
+    }
+
+    /**
+     * 🚫 Unknown codes are cached negatively
+     */
+    @Test
+    void find_shouldCacheMisses() {
+        when(linkRepository.findByShortenedUrl("https://nope99")).thenReturn(Optional.empty());
+
+        assertTrue(linkCache.find("https://nope99").isEmpty());
+        assertTrue(linkCache.find("https://nope99").isEmpty());
+
+        verify(linkRepository, times(1)).findByShortenedUrl("https://nope99");
+    }
+
+    /**
+     * 🌸 Codes rejected by the Bloom filter never reach the database or the negative cache
+     */
+    @Test
+    void find_shouldSkipDatabaseWhenFilterRejects() {
+        when(shortLinkFilter.mightContain("https://zzzzzz")).thenReturn(false);
+
+        assertTrue(linkCache.find("https://zzzzzz").isEmpty());
+
+        verifyNoInteractions(linkRepository);
+        assertEquals(0.0, meterRegistry.get("cache.size").tag("cache", "links.negative").gauge().value(), 0.0);
+    }
+
+    /**
+     * 🆕 A created link is added to the Bloom filter and the index, and its cached "not found" is dropped
+     */
+    @Test
+    void created_shouldRegisterInFilterAndIndex() {
+        when(linkRepository.findByShortenedUrl("https://abc123")).thenReturn(Optional.empty());
+
+        assertTrue(linkCache.find("https://abc123").isEmpty());
+        linkCache.created(entity(1L, 7L));
+        when(linkIndex.find("https://abc123")).thenReturn(Optional.of(ResolvedLink.from(entity(1L, 7L))));
+
+        assertTrue(linkCache.find("https://abc123").isPresent());
+        verify(shortLinkFilter).add("https://abc123");
+        verify(shortLinkFilter).recordFalsePositive();
+        verify(linkIndex).put(argThat(link -> link.id() == 1L && link.ownerId() == 7L));
+        verify(linkRepository, times(1)).findByShortenedUrl("https://abc123");
+    }
+
+    /**
+     * 💾 Links found in the persistent index are served without the database
+     */
+    @Test
+    void find_shouldUseIndexBeforeDatabase() {
+        when(linkIndex.find("https://abc123")).thenReturn(Optional.of(ResolvedLink.from(entity(1L, 7L))));
+
+        assertEquals(1L, linkCache.find("https://abc123").get().id());
+        assertEquals(1L, linkCache.find("https://abc123").get().id());
+
+        verify(linkIndex, times(1)).find("https://abc123");
+        verifyNoInteractions(linkRepository);
+    }
+
+    /**
+     * 🔁 Invalidation forces the next lookup back to the database
+     */
+    @Test
+    void invalidate_shouldDropCachedEntry() {
+        when(linkRepository.findByShortenedUrl("https://abc123")).thenReturn(Optional.of(entity(1L, 7L)));
+
+        linkCache.find("https://abc123");
+        linkCache.invalidate("https://abc123");
+        linkCache.find("https://abc123");
+
+        verify(linkRepository, times(2)).findByShortenedUrl("https://abc123");
+        verify(linkIndex).remove("https://abc123");
+    }
+
+    /**
+     * 🧬 An older version never replaces a newer cached one
+     */
+    @Test
+    void put_shouldKeepNewestVersion() {
+        ResolvedLink newer = new ResolvedLink(1L, "https://abc123", "https://new.example", null, null, 7L, 2, RedirectPolicy.TEMPORARY);
+        ResolvedLink older = new ResolvedLink(1L, "https://abc123", "https://old.example", null, null, 7L, 1, RedirectPolicy.TEMPORARY);
+
+        linkCache.put(newer);
+        linkCache.put(older);
+
+        assertEquals("https://new.example", linkCache.find("https://abc123").get().originalUrl());
+        verifyNoInteractions(linkRepository);
+    }
+
+    /**
+     * ⏰ Loaded links are scheduled for expiry and dropped from memory and the index when they expire
+     */
+    @Test
+    void onLinkExpired_shouldEvictScheduledLink() {
+        LocalDateTime expiresOn = LocalDateTime.now().plusMinutes(5);
+        UrlEntity url = entity(1L, 7L);
+        url.setExpiresOn(expiresOn);
+        when(linkRepository.findByShortenedUrl("https://abc123")).thenReturn(Optional.of(url));
+
+        linkCache.find("https://abc123");
+        verify(expiryScheduler).schedule("https://abc123", expiresOn);
+
+        linkCache.onLinkExpired(new LinkExpiredEvent("https://abc123", expiresOn));
+        linkCache.find("https://abc123");
+
+        verify(linkIndex).remove("https://abc123");
+        verify(linkRepository, times(2)).findByShortenedUrl("https://abc123");
+    }
+
+    /**
+     * 🔌 While the database circuit is open, cached links are still served past their refresh time
+     * and lookups of other links fail fast without touching the database
+     */
+    @Test
+    void find_shouldServeCachedLinksWhileCircuitIsOpen() {
+        linkCache.close();
+        linkCache = cache(new CircuitBreaker("test", 1, Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry),
+                Duration.ZERO);
+        when(linkRepository.findByShortenedUrl("https://abc123")).thenReturn(Optional.of(entity(1L, 7L)));
+        when(linkRepository.findByShortenedUrl("https://def456")).thenThrow(new QueryTimeoutException("database down"));
+        assertTrue(linkCache.find("https://abc123").isPresent());
+
+        assertThrows(QueryTimeoutException.class, () -> linkCache.find("https://def456"));
+        assertThrows(CircuitOpenException.class, () -> linkCache.find("https://def456"));
+
+        assertEquals("https://lioness.codes", linkCache.find("https://abc123").get().originalUrl());
+        verify(linkRepository, times(1)).findByShortenedUrl("https://abc123");
+        verify(linkRepository, times(1)).findByShortenedUrl("https://def456");
+    }
+
+    /**
+     * 🔄 A stale link is served as cached while it is reloaded in the background
+     */
+    @Test
+    void find_shouldRefreshStaleLinksInBackground() {
+        linkCache.close();
+        linkCache = cache(new CircuitBreaker("test", 5, Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry),
+                Duration.ZERO);
+        UrlEntity changed = entity(1L, 7L);
+        changed.setOriginalUrl("https://lioness.codes/new");
+        changed.setVersion(1);
+        when(linkRepository.findByShortenedUrl("https://abc123"))
+                .thenReturn(Optional.of(entity(1L, 7L)))
+                .thenReturn(Optional.of(changed));
+        linkCache.find("https://abc123");
+
+        assertEquals("https://lioness.codes", linkCache.find("https://abc123").get().originalUrl());
+
+        verify(linkRepository, timeout(5000).times(2)).findByShortenedUrl("https://abc123");
+        verify(linkIndex, timeout(5000)).put(argThat(link -> link.version() == 1));
+    }
+
+    private LinkCache cache(CircuitBreaker circuitBreaker, Duration refreshAfter) {
+        return new LinkCache(linkRepository, shortLinkFilter, linkIndex, expiryScheduler, circuitBreaker, meterRegistry,
+                100, 100, Duration.ofMinutes(1), Duration.ofSeconds(2), refreshAfter);
+    }
+
+    private UrlEntity entity(Long id, Long ownerId) {
+        return UrlEntity.builder()
+                .id(id)
+                .shortenedUrl("https://abc123")
+                .originalUrl("https://lioness.codes")
+                .owner(UserEntity.builder().id(ownerId).build())
+                .build();
+    }
+}
@@ -106,6 +106,12 @@ class LinkControllerTest {
             return Mockito.mock(LinkService.class);
         }
 
+        @Bean
+        @Primary
+        public BulkLinkService bulkLinkService() {
+            return Mockito.mock(BulkLinkService.class);
+        }
+
         @Bean
         @Primary
         public JwtTokenProvider jwtTokenProvider() {
@@ -0,0 +1,107 @@
+package com.lioness.urlcompressor.url;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LinkExpirySchedulerTest {
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LinkExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new LinkExpiryScheduler(linkRepository, eventPublisher, transactionManager, meterRegistry,
+                10, Duration.ofHours(1));
+        when(linkRepository.streamExpiringBetween(any(), any())).thenReturn(Stream.empty());
+        scheduler.scan();
+    }
+
+    /**
+     * ⏰ A scheduled link is expired once its deadline has passed
+     */
+    @Test
+    void tick_shouldPublishExpiredLinks() throws InterruptedException {
+        LocalDateTime expiresOn = LocalDateTime.now().plusNanos(50_000_000).truncatedTo(ChronoUnit.MILLIS);
+        scheduler.schedule("https://abc123", expiresOn);
+
+        scheduler.tick();
+        verifyNoInteractions(eventPublisher);
+
+        Thread.sleep(100);
+        scheduler.tick();
+
+        verify(eventPublisher).publishEvent(new LinkExpiredEvent("https://abc123", expiresOn));
+        assertEquals(1.0, meterRegistry.get("links.expiry.fired").counter().count());
+        assertEquals(0.0, meterRegistry.get("links.expiry.pending").gauge().value());
+    }
+
+    /**
+     * 🔁 Rescheduled and cancelled links ignore their stale timers
+     */
+    @Test
+    void tick_shouldIgnoreRescheduledAndCancelledLinks() throws InterruptedException {
+        LocalDateTime soon = LocalDateTime.now().plusNanos(20_000_000);
+        scheduler.schedule("https://abc123", soon);
+        scheduler.schedule("https://abc123", soon.plusMinutes(30));
+        scheduler.schedule("https://def456", soon);
+        scheduler.cancel("https://def456");
+
+        Thread.sleep(50);
+        scheduler.tick();
+
+        verifyNoInteractions(eventPublisher);
+        assertEquals(1.0, meterRegistry.get("links.expiry.pending").gauge().value());
+    }
+
+    /**
+     * 🔭 Links without expiry, already expired or beyond the scanned horizon are not kept in memory
+     */
+    @Test
+    void schedule_shouldSkipLinksOutsideHorizon() {
+        scheduler.schedule("https://abc123", null);
+        scheduler.schedule("https://def456", LocalDateTime.now().minusMinutes(1));
+        scheduler.schedule("https://ghi789", LocalDateTime.now().plusHours(2));
+
+        assertEquals(0.0, meterRegistry.get("links.expiry.pending").gauge().value());
+    }
+
+    /**
+     * 🔍 The periodic scan schedules the links expiring within the horizon
+     */
+    @Test
+    void scan_shouldScheduleUpcomingExpirations() {
+        LocalDateTime expiresOn = LocalDateTime.now().plusMinutes(10);
+        when(linkRepository.streamExpiringBetween(any(), any())).thenReturn(Stream.of(
+                new ResolvedLink(1L, "https://abc123", "https://lioness.codes", null, expiresOn, 7L, 0, RedirectPolicy.TEMPORARY)));
+
+        scheduler.scan();
+
+        assertEquals(1.0, meterRegistry.get("links.expiry.pending").gauge().value());
+    }
+}
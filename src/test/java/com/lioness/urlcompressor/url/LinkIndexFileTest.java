@@ -0,0 +1,100 @@
+package com.lioness.urlcompressor.url;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkIndexFileTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * ✅ Stored links are read back with all fields, also after reopening the file
+     */
+    @Test
+    void put_shouldSurviveReopen() throws IOException {
+        Path path = dir.resolve("links.idx");
+        ResolvedLink link = link(1L, "https://abc123", 3);
+
+        try (LinkIndexFile index = LinkIndexFile.create(path, 16, 4096)) {
+            assertTrue(index.put(link));
+            assertTrue(index.put(link(2L, "https://def456", 0)));
+            index.force();
+        }
+
+        try (LinkIndexFile index = LinkIndexFile.open(path)) {
+            assertEquals(Optional.of(link), index.get("https://abc123"));
+            assertEquals(2, index.size());
+            assertTrue(index.get("https://nope99").isEmpty());
+        }
+    }
+
+    /**
+     * 🔁 Updates replace older versions only, and removed links are no longer found
+     */
+    @Test
+    void put_shouldKeepNewestVersionAndHonourRemoval() throws IOException {
+        try (LinkIndexFile index = LinkIndexFile.create(dir.resolve("links.idx"), 16, 4096)) {
+            index.put(link(1L, "https://abc123", 2));
+            index.put(new ResolvedLink(1L, "https://abc123", "https://old.example", null, null, 7L, 1, RedirectPolicy.TEMPORARY));
+            assertEquals(2, index.get("https://abc123").get().version());
+
+            index.remove("https://abc123");
+            assertTrue(index.get("https://abc123").isEmpty());
+            assertEquals(0, index.size());
+
+            index.put(link(1L, "https://abc123", 3));
+            assertEquals(3, index.get("https://abc123").get().version());
+        }
+    }
+
+    /**
+     * 🧨 A file with a damaged record is rejected as a whole
+     */
+    @Test
+    void open_shouldRejectCorruptRecord() throws IOException {
+        Path path = dir.resolve("links.idx");
+        try (LinkIndexFile index = LinkIndexFile.create(path, 16, 4096)) {
+            index.put(link(1L, "https://abc123", 0));
+            index.force();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // header (64) + 16 slots (256) + reserved 8 bytes + record header (52) = first key byte
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 64 + 256 + 8 + 52);
+        }
+
+        IOException error = assertThrows(IOException.class, () -> LinkIndexFile.open(path));
+        assertTrue(error.getMessage().contains("Corrupt"));
+    }
+
+    /**
+     * 📦 A full index refuses new links instead of overwriting
+     */
+    @Test
+    void put_shouldRefuseWhenFull() throws IOException {
+        try (LinkIndexFile index = LinkIndexFile.create(dir.resolve("links.idx"), 4, 4096)) {
+            assertTrue(index.put(link(1L, "https://aaaaaa", 0)));
+            assertTrue(index.put(link(2L, "https://bbbbbb", 0)));
+            assertTrue(index.put(link(3L, "https://cccccc", 0)));
+            assertFalse(index.put(link(4L, "https://dddddd", 0)));
+            assertTrue(index.fillRatio() >= 1.0);
+        }
+    }
+
+    private static ResolvedLink link(Long id, String shortUrl, long version) {
+        LocalDateTime created = LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123_456_000);
+        return new ResolvedLink(id, shortUrl, "https://lioness.codes/" + id, created, created.plusDays(7), 7L, version,
+                RedirectPolicy.PERMANENT);
+    }
+}
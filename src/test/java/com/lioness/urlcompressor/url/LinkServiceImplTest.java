@@ -1,21 +1,26 @@
 package com.lioness.urlcompressor.url;
 
+import com.lioness.urlcompressor.security.AuthenticatedUser;
 import com.lioness.urlcompressor.security.AuthorizationService;
+import com.lioness.urlcompressor.url.dto.LinkPage;
 import com.lioness.urlcompressor.url.dto.UrlRequest;
 import com.lioness.urlcompressor.url.dto.UrlResponse;
-import com.lioness.urlcompressor.user.UserEntity;
+import com.lioness.urlcompressor.user.Role;
 import com.lioness.urlcompressor.user.UserService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class) // 🧪 Use Mockito JUnit 5 extension
@@ -36,6 +41,9 @@ class LinkServiceImplTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private LinkCache linkCache;
+
     @InjectMocks
     private LinkServiceImpl linkService; // 🎯 System under test
 
@@ -48,7 +56,7 @@ class LinkServiceImplTest {
         request.setOriginalUrl("https://lioness.codes");
         request.setAuthHeader("Bearer invalid-token");
 
-        when(authorizationService.getAuthorizedUser("Bearer invalid-token")).thenReturn(Optional.empty());
+        when(authorizationService.getAuthorizedPrincipal("Bearer invalid-token")).thenReturn(Optional.empty());
 
         UrlResponse response = linkService.getShortUrlFromLongUrl(request);
 
@@ -65,8 +73,8 @@ class LinkServiceImplTest {
         request.setOriginalUrl("ftp://something.weird");
         request.setAuthHeader("Bearer valid-token");
 
-        UserEntity user = new UserEntity();
-        when(authorizationService.getAuthorizedUser("Bearer valid-token")).thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "lioness", Role.USER);
+        when(authorizationService.getAuthorizedPrincipal("Bearer valid-token")).thenReturn(Optional.of(user));
         when(urlValidator.isValid("ftp://something.weird")).thenReturn(false); // 👎 Not http/https
 
         UrlResponse response = linkService.getShortUrlFromLongUrl(request);
@@ -85,8 +93,8 @@ class LinkServiceImplTest {
         request.setExpirationTime(LocalDateTime.now().minusDays(1)); // 💀 Already expired
         request.setAuthHeader("Bearer token");
 
-        UserEntity user = new UserEntity();
-        when(authorizationService.getAuthorizedUser("Bearer token")).thenReturn(Optional.of(user));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "lioness", Role.USER);
+        when(authorizationService.getAuthorizedPrincipal("Bearer token")).thenReturn(Optional.of(user));
         when(urlValidator.isValid("https://lioness.codes")).thenReturn(true); // ✅ URL is valid
 
         UrlResponse response = linkService.getShortUrlFromLongUrl(request);
@@ -94,4 +102,154 @@ class LinkServiceImplTest {
         assertEquals("Термін дії URL-адреси закінчився.", response.getStatusMessage());
         assertEquals(HttpStatus.BAD_REQUEST, response.getHttpStatus());
     }
+
+    /**
+     * 📄 Test: a full page returns a cursor that continues after its last link
+     */
+    @Test
+    void testGetAllLinksForUser_returnsNextCursor() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "lioness", Role.USER);
+        when(authorizationService.getAuthorizedPrincipal("Bearer token")).thenReturn(Optional.of(user));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<UrlEntity> rows = List.of(link(3L, now), link(2L, now.minusMinutes(1)), link(1L, now.minusMinutes(2)));
+        when(linkRepository.findPage(eq(1L), eq(LinkFilter.ALL), any(), eq(2))).thenCallRealMethod();
+        when(linkRepository.findPageByOwner(eq(1L), any(), anyLong(), eq(Limit.of(3)))).thenReturn(rows);
+
+        LinkPage page = linkService.getAllLinksForUser("Bearer token", null, 2);
+
+        assertEquals(2, page.links().size());
+        LinkCursor next = LinkCursor.decode(page.nextCursor()).orElseThrow();
+        assertEquals(2L, next.id());
+        assertEquals(now.minusMinutes(1), next.createdOn());
+    }
+
+    /**
+     * 🚫 Test: a malformed cursor is rejected with BAD_REQUEST
+     */
+    @Test
+    void testGetLinksByFilter_invalidCursor() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "lioness", Role.USER);
+        when(authorizationService.getAuthorizedPrincipal("Bearer token")).thenReturn(Optional.of(user));
+
+        LinkPage page = linkService.getLinksByFilter("active", "Bearer token", "not-a-cursor", null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, page.httpStatus());
+        verifyNoInteractions(linkRepository);
+    }
+
+    /**
+     * 📏 Test: page size defaults and is capped
+     */
+    @Test
+    void testPageSize_isClamped() {
+        assertEquals(LinkCursor.DEFAULT_PAGE_SIZE, LinkCursor.pageSize(null));
+        assertEquals(LinkCursor.MAX_PAGE_SIZE, LinkCursor.pageSize(1_000_000));
+        assertEquals(10, LinkCursor.pageSize(10));
+    }
+
+    /**
+     * ✏️ Test: the owner updates the expiration with one conditional statement, response built from the cached link
+     */
+    @Test
+    void testUpdateUrl_ownerUpdatesInOneStatement() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "lioness", Role.USER);
+        LocalDateTime expiresOn = LocalDateTime.now().plusDays(7);
+        UrlRequest request = new UrlRequest();
+        request.setOriginalUrl("https://code1");
+        request.setAuthHeader("Bearer token");
+        request.setExpirationTime(expiresOn);
+        request.setRedirectPolicy(RedirectPolicy.PERMANENT);
+
+        when(authorizationService.getAuthorizedPrincipal("Bearer token")).thenReturn(Optional.of(user));
+        when(linkCache.find("https://code1")).thenReturn(Optional.of(cached(1L)));
+        when(linkRepository.updateIfOwned("https://code1", 1L, expiresOn, RedirectPolicy.PERMANENT)).thenReturn(1);
+
+        UrlResponse response = linkService.updateUrl(request);
+
+        assertEquals(HttpStatus.OK, response.getHttpStatus());
+        assertEquals(expiresOn, response.getExpiresOn());
+        verify(linkCache).updated("https://code1", expiresOn);
+        verify(linkRepository, never()).findById(any());
+        verify(linkRepository, never()).save(any());
+    }
+
+    /**
+     * 🕰️ Test: an update without policy keeps the stored one, even when the cached policy is stale
+     */
+    @Test
+    void testUpdateUrl_missingPolicyIsNotTakenFromCache() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "lioness", Role.USER);
+        LocalDateTime expiresOn = LocalDateTime.now().plusDays(7);
+        UrlRequest request = new UrlRequest();
+        request.setOriginalUrl("https://code1");
+        request.setAuthHeader("Bearer token");
+        request.setExpirationTime(expiresOn);
+        // Stored policy was changed to PERMANENT by another node; this node still caches TEMPORARY
+        ResolvedLink stale = cached(1L);
+
+        when(authorizationService.getAuthorizedPrincipal("Bearer token")).thenReturn(Optional.of(user));
+        when(linkCache.find("https://code1")).thenReturn(Optional.of(stale));
+        when(linkRepository.updateIfOwned("https://code1", 1L, expiresOn, null)).thenReturn(1);
+
+        UrlResponse response = linkService.updateUrl(request);
+
+        assertEquals(HttpStatus.OK, response.getHttpStatus());
+        verify(linkRepository, never()).updateIfOwned(any(), any(), any(), eq(stale.redirectPolicy()));
+    }
+
+    /**
+     * 🚷 Test: deleting another user's link matches no row and returns FORBIDDEN
+     */
+    @Test
+    void testDeleteUrl_notOwner() {
+        AuthenticatedUser user = new AuthenticatedUser(2L, "intruder", Role.USER);
+        UrlRequest request = new UrlRequest();
+        request.setOriginalUrl("https://code1");
+        request.setAuthHeader("Bearer token");
+
+        when(authorizationService.getAuthorizedPrincipal("Bearer token")).thenReturn(Optional.of(user));
+        when(linkCache.find("https://code1")).thenReturn(Optional.of(cached(1L)));
+        when(linkRepository.deleteIfOwned("https://code1", 2L)).thenReturn(0);
+
+        UrlResponse response = linkService.deleteUrl(request);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getHttpStatus());
+        verify(linkCache, never()).deleted(any());
+    }
+
+    /**
+     * 👻 Test: the owner's link deleted since it was cached matches no row and returns NOT_FOUND
+     */
+    @Test
+    void testDeleteUrl_deletedConcurrently() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, "lioness", Role.USER);
+        UrlRequest request = new UrlRequest();
+        request.setOriginalUrl("https://code1");
+        request.setAuthHeader("Bearer token");
+
+        when(authorizationService.getAuthorizedPrincipal("Bearer token")).thenReturn(Optional.of(user));
+        when(linkCache.find("https://code1")).thenReturn(Optional.of(cached(1L)));
+        when(linkRepository.deleteIfOwned("https://code1", 1L)).thenReturn(0);
+
+        UrlResponse response = linkService.deleteUrl(request);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getHttpStatus());
+        verify(linkCache).deleted("https://code1");
+    }
+
+    private ResolvedLink cached(Long ownerId) {
+        return new ResolvedLink(1L, "https://code1", "https://lioness.codes/1",
+                LocalDateTime.now().minusDays(1), null, ownerId, 0, RedirectPolicy.TEMPORARY);
+    }
+
+    private UrlEntity link(Long id, LocalDateTime createdOn) {
+        return UrlEntity.builder()
+                .id(id)
+                .shortenedUrl("https://code" + id)
+                .originalUrl("https://lioness.codes/" + id)
+                .createdOn(createdOn)
+                .ownerId(1L)
+                .build();
+    }
 }
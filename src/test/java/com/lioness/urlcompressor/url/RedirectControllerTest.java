@@ -0,0 +1,153 @@
+package com.lioness.urlcompressor.url;
+
+import com.lioness.urlcompressor.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RedirectController.class) // ✅ Web-layer only test for the public redirect
+@AutoConfigureMockMvc(addFilters = false)
+@Import(RedirectControllerTest.RedirectControllerTestConfig.class)
+class RedirectControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LinkResolver linkResolver;
+
+    @BeforeEach
+    void resetResolver() {
+        reset(linkResolver); // 🔄 the mock bean is shared by all tests of the context
+    }
+
+    /**
+     * ✅ Test: GET /{code} for a known link should redirect with a Location header
+     */
+    @Test
+    @DisplayName("GET /{code} - redirects to original URL")
+    void redirect_knownCode() throws Exception {
+        ResolvedLink link = new ResolvedLink(1L, "https://abc123", "https://lioness.codes", null, null, 1L, 0, RedirectPolicy.TEMPORARY);
+        when(linkResolver.resolve("abc123")).thenReturn(Optional.of(link));
+
+        mockMvc.perform(get("/abc123").header("Referer", "https://news.example"))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", "https://lioness.codes"))
+                .andExpect(header().string("Cache-Control", "max-age=300, public"));
+
+        verify(linkResolver).recordClick(eq(link), eq("https://news.example"), isNull(), eq("127.0.0.1"));
+    }
+
+    /**
+     * 🚫 Test: unknown code should return 404 without recording a click
+     */
+    @Test
+    @DisplayName("GET /{code} - unknown code")
+    void redirect_unknownCode() throws Exception {
+        when(linkResolver.resolve("zzz999")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/zzz999"))
+                .andExpect(status().isNotFound());
+
+        verify(linkResolver, never()).recordClick(any(), any(), any(), any());
+    }
+
+    /**
+     * 🕰️ Test: expired link should return 410 Gone
+     */
+    @Test
+    @DisplayName("GET /{code} - expired link")
+    void redirect_expiredCode() throws Exception {
+        ResolvedLink link = new ResolvedLink(2L, "https://old123", "https://lioness.codes", null,
+                LocalDateTime.now().minusDays(1), 1L, 0, RedirectPolicy.TEMPORARY);
+        when(linkResolver.resolve("old123")).thenReturn(Optional.of(link));
+
+        mockMvc.perform(get("/old123"))
+                .andExpect(status().isGone());
+    }
+
+    /**
+     * 📌 Test: a permanent link redirects with 301 and is cached no longer than until it expires
+     */
+    @Test
+    @DisplayName("GET /{code} - permanent link")
+    void redirect_permanentCode() throws Exception {
+        ResolvedLink link = new ResolvedLink(3L, "https://perm12", "https://lioness.codes", null,
+                LocalDateTime.now().plusMinutes(30), 1L, 0, RedirectPolicy.PERMANENT);
+        when(linkResolver.resolve("perm12")).thenReturn(Optional.of(link));
+
+        mockMvc.perform(get("/perm12"))
+                .andExpect(status().isMovedPermanently())
+                .andExpect(header().string("Cache-Control", matchesPattern("max-age=17\\d\\d, public")));
+    }
+
+    /**
+     * 📊 Test: a no-cache link redirects with 307 and must not be stored by any cache
+     */
+    @Test
+    @DisplayName("GET /{code} - no-cache link")
+    void redirect_noCacheCode() throws Exception {
+        ResolvedLink link = new ResolvedLink(4L, "https://count1", "https://lioness.codes", null, null, 1L, 0,
+                RedirectPolicy.NO_CACHE);
+        when(linkResolver.resolve("count1")).thenReturn(Optional.of(link));
+
+        mockMvc.perform(get("/count1"))
+                .andExpect(status().isTemporaryRedirect())
+                .andExpect(header().string("Cache-Control", "no-store"));
+    }
+
+    /**
+     * 🧭 Test: only single-segment alphanumeric codes are treated as redirects
+     */
+    @Test
+    void isRedirectPath_shouldMatchOnlyCodes() {
+        assertTrue(RedirectController.isRedirectPath("/abc123"));
+        assertFalse(RedirectController.isRedirectPath("/error"));
+        assertFalse(RedirectController.isRedirectPath("/swagger-ui.html"));
+        assertFalse(RedirectController.isRedirectPath("/api/v1/link/all"));
+    }
+
+    /**
+     * 🛠️ Mock configuration for LinkResolver & JwtTokenProvider, real RedirectCaching with default caps
+     */
+    @TestConfiguration
+    static class RedirectControllerTestConfig {
+
+        @Bean
+        public RedirectCaching redirectCaching() {
+            return new RedirectCaching(Duration.ofDays(1), Duration.ofMinutes(5));
+        }
+
+        @Bean
+        @Primary
+        public LinkResolver linkResolver() {
+            return Mockito.mock(LinkResolver.class);
+        }
+
+        @Bean
+        @Primary
+        public JwtTokenProvider jwtTokenProvider() {
+            return Mockito.mock(JwtTokenProvider.class);
+        }
+    }
+}
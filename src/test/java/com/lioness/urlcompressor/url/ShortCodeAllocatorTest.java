@@ -0,0 +1,68 @@
+package com.lioness.urlcompressor.url;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShortCodeAllocatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ShortCodeAllocator allocator;
+
+    // Simulated sequence: START WITH 1 INCREMENT BY 100
+    private final AtomicLong sequence = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        allocator = new ShortCodeAllocator(jdbcTemplate);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT increment"), eq(Long.class), any(), any()))
+                .thenReturn(100L);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT nextval"), eq(Long.class)))
+                .thenAnswer(invocation -> sequence.getAndAdd(100));
+    }
+
+    /**
+     * ✅ Ids come out of a leased block; the database is hit once per block
+     */
+    @Test
+    void nextId_shouldLeaseOneBlockPerHundredIds() {
+        for (int i = 1; i <= 250; i++) {
+            assertEquals(i, allocator.nextId());
+        }
+
+        verify(jdbcTemplate, times(3)).queryForObject(startsWith("SELECT nextval"), eq(Long.class));
+    }
+
+    /**
+     * 🔁 Concurrent callers never receive the same id
+     */
+    @Test
+    void nextId_shouldBeUniqueUnderConcurrency() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            pool.execute(() -> assertTrue(ids.add(allocator.nextId())));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10_000, ids.size());
+    }
+}
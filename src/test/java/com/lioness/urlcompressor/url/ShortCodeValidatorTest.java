@@ -0,0 +1,58 @@
+package com.lioness.urlcompressor.url;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortCodeValidatorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * 🔄 Migration mode accepts legacy codes, but still rejects codes no generator ever produced
+     */
+    @Test
+    void accepts_shouldAllowLegacyCodesInMigrationMode() {
+        ShortCodeValidator validator = new ShortCodeValidator(meterRegistry, true);
+
+        assertTrue(validator.accepts(ShortLinkGenerator.encode(1_000L)));
+        assertTrue(validator.accepts("abc123"));
+        assertFalse(validator.accepts("abcdefghijkl"));
+        assertEquals(1.0, meterRegistry.get("links.codes.rejected").counter().count());
+    }
+
+    /**
+     * 🔒 Strict mode only accepts codes with a valid check character
+     */
+    @Test
+    void accepts_shouldRequireCheckCharacterInStrictMode() {
+        ShortCodeValidator validator = new ShortCodeValidator(meterRegistry, false);
+        String code = ShortLinkGenerator.encode(1_000L);
+
+        assertTrue(validator.accepts(code));
+        assertFalse(validator.accepts("abc123"));
+        assertFalse(validator.accepts(code.substring(0, code.length() - 1)));
+    }
+
+    /**
+     * 🎯 Migration mode keeps 7-character legacy codes resolving, but checks 9-character codes; strict mode checks all
+     */
+    @Test
+    void accepts_shouldCheckOnlyNewFormatCodesInMigrationMode() {
+        ShortCodeValidator migration = new ShortCodeValidator(meterRegistry, true);
+        ShortCodeValidator strict = new ShortCodeValidator(meterRegistry, false);
+        String code = ShortLinkGenerator.encode(1L << 40);
+        String wrongCheck = code.substring(0, code.length() - 1) + (code.endsWith("a") ? 'b' : 'a');
+        String legacy = withWrongCheck("abc1234");
+
+        assertTrue(migration.accepts(legacy));
+        assertFalse(migration.accepts(wrongCheck));
+        assertFalse(strict.accepts(legacy));
+        assertFalse(strict.accepts(wrongCheck));
+    }
+
+    private static String withWrongCheck(String code) {
+        return ShortLinkGenerator.hasValidCheck(code) ? code.substring(0, code.length() - 1) + "Z" : code;
+    }
+}
@@ -0,0 +1,119 @@
+package com.lioness.urlcompressor.url;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static com.lioness.urlcompressor.url.ShortLinkGenerator.LINK_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShortLinkFilterTest {
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    @Mock
+    private ShortCodeAllocator shortCodeAllocator;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ShortLinkFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ShortLinkFilter(linkRepository, shortCodeAllocator, transactionManager, meterRegistry,
+                true, 0.01, Duration.ofMinutes(1), Long.MAX_VALUE, 1_000);
+    }
+
+    /**
+     * 🚦 Before the first build every lookup passes through to the database
+     */
+    @Test
+    void mightContain_shouldPassEverythingBeforeBuild() {
+        assertTrue(filter.mightContain(link(123_456_789L)));
+        verifyNoInteractions(linkRepository);
+    }
+
+    /**
+     * 🌸 After the build, stored codes pass and unknown codes are rejected
+     */
+    @Test
+    void refresh_shouldBuildFromStoredLinks() {
+        when(linkRepository.count()).thenReturn(2L);
+        when(linkRepository.streamAllShortUrls()).thenReturn(Stream.of(link(10), link(20)));
+
+        filter.refresh();
+
+        assertTrue(filter.mightContain(link(10)));
+        assertTrue(filter.mightContain(link(20)));
+        assertFalse(filter.mightContain(link(5_000_000)));
+        assertEquals(1.0, meterRegistry.get("links.bloom.rejections").counter().count());
+        assertTrue(meterRegistry.get("links.bloom.memory").gauge().value() > 0);
+    }
+
+    /**
+     * 🔁 Later refreshes add links created elsewhere since the last sync
+     */
+    @Test
+    void refresh_shouldCatchUpWithRecentLinks() {
+        when(linkRepository.count()).thenReturn(1L);
+        when(linkRepository.streamAllShortUrls()).thenReturn(Stream.of(link(10)));
+        when(linkRepository.streamShortUrlsCreatedSince(any(LocalDateTime.class))).thenReturn(Stream.of(link(5_000_000)));
+
+        filter.refresh();
+        assertFalse(filter.mightContain(link(5_000_000)));
+
+        filter.refresh();
+        assertTrue(filter.mightContain(link(5_000_000)));
+    }
+
+    /**
+     * 🆕 Locally created links are added directly; ids just above the highest known one are never rejected
+     */
+    @Test
+    void add_shouldRegisterNewLinkAndKeepFreshIdsOpen() {
+        when(linkRepository.count()).thenReturn(0L);
+        when(linkRepository.streamAllShortUrls()).thenReturn(Stream.empty());
+        filter.refresh();
+
+        filter.add(link(5_000_000));
+
+        assertTrue(filter.mightContain(link(5_000_000)));
+        assertTrue(filter.mightContain(link(5_000_500)));
+        assertFalse(filter.mightContain(link(5_002_000)));
+    }
+
+    /**
+     * 🧭 The fresh-id window follows the sequence, and legacy random codes cannot push it out of reach
+     */
+    @Test
+    void refresh_shouldAnchorFreshIdsAtLeasedIdsIgnoringLegacyCodes() {
+        when(shortCodeAllocator.leasedUpTo()).thenReturn(2_000_000L);
+        when(linkRepository.count()).thenReturn(2L);
+        when(linkRepository.streamAllShortUrls()).thenReturn(Stream.of(link(10), LINK_PREFIX + "zZ9yY8xX"));
+
+        filter.refresh();
+
+        assertTrue(filter.mightContain(link(1_500_000)));
+        assertTrue(filter.mightContain(link(2_000_500)));
+        assertFalse(filter.mightContain(link(2_002_000)));
+    }
+
+    private static String link(long id) {
+        return LINK_PREFIX + ShortLinkGenerator.encode(id);
+    }
+}
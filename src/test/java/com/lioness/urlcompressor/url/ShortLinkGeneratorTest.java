@@ -5,12 +5,14 @@ import org.junit.jupiter.api.Test;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ShortLinkGeneratorTest {
 
-    private final ShortLinkGenerator generator = new ShortLinkGenerator();
+    // Sequential ids stand in for the database-leased allocator
+    private final ShortLinkGenerator generator = new ShortLinkGenerator(new AtomicLong()::incrementAndGet);
 
     /**
      * ✅ All generated links must start with https:// — trust issues otherwise.
@@ -22,13 +24,13 @@ class ShortLinkGeneratorTest {
     }
 
     /**
-     * ✅ Short code length must be between 6 and 8 characters (just enough entropy).
+     * ✅ Short code length must be 7 or 9 characters (6 or 8 plus the check character).
      */
     @Test
     void generatedLink_shouldBeWithinExpectedLength() {
         String link = generator.createShortLink();
         String code = link.replace("https://", "");
-        assertTrue(code.length() >= 6 && code.length() <= 8, "Length should be between 6 and 8");
+        assertTrue(code.length() >= 7 && code.length() <= 9, "Length should be between 7 and 9");
     }
 
     /**
@@ -57,6 +59,77 @@ class ShortLinkGeneratorTest {
         String code = link.replace("https://", "");
 
         assertTrue(link.startsWith("https://"), "Link must start with https://");
-        assertTrue(code.length() >= 6 && code.length() <= 8, "Short code should be between 6 and 8 chars");
+        assertTrue(code.length() >= 7 && code.length() <= 9, "Short code should be between 7 and 9 chars");
+    }
+
+    /**
+     * 🔐 Codes are reversible: decoding gives back the original id, in both code widths.
+     */
+    @Test
+    void encodeDecode_shouldRoundTrip() {
+        long[] ids = {0, 1, 42, 999_999, (1L << 34) - 1, 1L << 34, (1L << 46) - 1};
+        for (long id : ids) {
+            String code = ShortLinkGenerator.encode(id);
+            assertEquals(id, ShortLinkGenerator.decode(code), "Round trip failed for id " + id);
+        }
+        assertEquals(7, ShortLinkGenerator.encode((1L << 34) - 1).length());
+        assertEquals(9, ShortLinkGenerator.encode(1L << 34).length());
+    }
+
+    /**
+     * 🎭 Consecutive ids must not produce codes that look sequential.
+     */
+    @Test
+    void consecutiveIds_shouldNotShareLongPrefix() {
+        String first = ShortLinkGenerator.encode(1000);
+        String second = ShortLinkGenerator.encode(1001);
+        assertNotEquals(first.substring(0, 4), second.substring(0, 4), "Codes look sequential");
+    }
+
+    /**
+     * 🚫 Strings that no id can produce are rejected by decode.
+     */
+    @Test
+    void decode_shouldRejectForeignStrings() {
+        assertEquals(-1, ShortLinkGenerator.decode("abc"));
+        assertEquals(-1, ShortLinkGenerator.decode("abc-12"));
+        assertEquals(-1, ShortLinkGenerator.decode(null));
+    }
+
+    /**
+     * ✔️ The check character catches every single mistyped character and adjacent swap of a code.
+     */
+    @Test
+    void checkCharacter_shouldRejectTyposAndSwaps() {
+        String symbols = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        for (long id : new long[]{7, 123_456_789L, 1L << 40}) {
+            String code = ShortLinkGenerator.encode(id);
+            assertTrue(ShortLinkGenerator.hasValidCheck(code));
+
+            for (int i = 0; i < code.length(); i++) {
+                for (char c : symbols.toCharArray()) {
+                    if (c != code.charAt(i)) {
+                        String typo = code.substring(0, i) + c + code.substring(i + 1);
+                        assertFalse(ShortLinkGenerator.hasValidCheck(typo), "Typo accepted: " + typo);
+                    }
+                }
+            }
+            assertFalse(ShortLinkGenerator.hasValidCheck(code.substring(0, code.length() - 1)), "Truncation accepted");
+        }
+    }
+
+    /**
+     * 🏚️ Codes without check character are recognized as legacy codes, and the old fixed-width ones still decode.
+     */
+    @Test
+    void legacyCodes_shouldBeRecognized() {
+        assertTrue(ShortLinkGenerator.isLegacyCode("abc123"));
+        assertTrue(ShortLinkGenerator.isLegacyCode("AbCdef78"));
+        assertFalse(ShortLinkGenerator.isLegacyCode("abc12"));
+        assertTrue(ShortLinkGenerator.isLegacyCode("abc1234"));
+        assertFalse(ShortLinkGenerator.isLegacyCode("abc-12"));
+
+        String code = ShortLinkGenerator.encode(42);
+        assertEquals(42, ShortLinkGenerator.decode(code.substring(0, code.length() - 1)));
     }
 }
@@ -0,0 +1,61 @@
+package com.lioness.urlcompressor.url;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    /**
+     * ⏱️ A timer fires on the first tick at or after its deadline, never earlier
+     */
+    @Test
+    void advance_shouldNeverFireEarly() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 1_000);
+        List<String> fired = new ArrayList<>();
+
+        assertTrue(wheel.add(1_025, "a"));
+        wheel.advance(1_029, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(1_030, fired::add);
+        assertEquals(List.of("a"), fired);
+    }
+
+    /**
+     * 🪜 Deadlines beyond one revolution cascade down through the overflow wheels and fire on time
+     */
+    @Test
+    void advance_shouldCascadeFromOverflowWheels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 8, 0);
+        List<Long> deadlines = List.of(15L, 75L, 85L, 640L, 650L, 5_123L);
+        deadlines.forEach(deadline -> assertTrue(wheel.add(deadline, deadline)));
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 6_000; now += 10) {
+            long time = now;
+            wheel.advance(now, deadline -> {
+                assertTrue(deadline <= time, "fired early: " + deadline + " at " + time);
+                assertTrue(time - deadline < 10, "fired late: " + deadline + " at " + time);
+                fired.add(deadline);
+            });
+        }
+
+        assertEquals(deadlines, fired);
+    }
+
+    /**
+     * 🚫 Deadlines already reached are not added
+     */
+    @Test
+    void add_shouldRejectDueDeadlines() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 1_000);
+
+        assertFalse(wheel.add(1_000, "now"));
+        assertFalse(wheel.add(500, "past"));
+        assertTrue(wheel.add(1_001, "next tick"));
+    }
+}
@@ -135,9 +135,9 @@ class AuthControllerTest {
                 .thenReturn(Optional.of(user));
         Mockito.when(userService.passwordMatches("password123", "encoded-password"))
                 .thenReturn(true);
-        Mockito.when(jwtTokenProvider.generateToken(eq("lioness"), any()))
+        Mockito.when(jwtTokenProvider.generateToken(any(), eq("lioness"), any()))
                 .thenReturn("mock-access-token");
-        Mockito.when(jwtTokenProvider.generateRefreshToken(eq("lioness"), any()))
+        Mockito.when(jwtTokenProvider.generateRefreshToken(any(), eq("lioness"), any()))
                 .thenReturn("mock-refresh-token");
 
         mockMvc.perform(post("/api/v1/user/signin")
@@ -0,0 +1,118 @@
+package com.lioness.urlcompressor.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * 🔌 Consecutive failures open the circuit, which then rejects calls without making them
+     */
+    @Test
+    void call_shouldOpenAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("db", 2, Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalStateException.class, () -> breaker.call(() -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("down");
+            }));
+        }
+
+        assertTrue(breaker.isOpen());
+        assertThrows(CircuitOpenException.class, () -> breaker.call(calls::incrementAndGet));
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.get("circuit.rejected").tag("circuit", "db").counter().count());
+    }
+
+    /**
+     * 🩹 After the open duration a successful trial call closes the circuit, a failed one opens it again
+     */
+    @Test
+    void call_shouldCloseAfterSuccessfulTrial() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("db", 1, Duration.ofMillis(20), Duration.ofMinutes(1), meterRegistry);
+        assertThrows(IllegalStateException.class, () -> breaker.call(() -> {
+            throw new IllegalStateException("down");
+        }));
+
+        Thread.sleep(40);
+        assertThrows(IllegalStateException.class, () -> breaker.call(() -> {
+            throw new IllegalStateException("still down");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        Thread.sleep(40);
+        assertEquals("ok", breaker.call(() -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    /**
+     * 🐢 Calls slower than the threshold count as failures even when they succeed
+     */
+    @Test
+    void call_shouldCountSlowCallsAsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("db", 1, Duration.ofMinutes(1), Duration.ZERO, meterRegistry);
+
+        assertEquals("late", breaker.call(() -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        }));
+
+        assertTrue(breaker.isOpen());
+    }
+
+    /**
+     * 🕰️ A call admitted before the circuit opened cannot close it when it finally succeeds
+     */
+    @Test
+    void call_shouldIgnoreResultsOfCallsFromEarlierGeneration() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("db", 1, Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry);
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> late = executor.submit(() -> breaker.call(() -> {
+                admitted.countDown();
+                await(release);
+                return "late";
+            }));
+            assertTrue(admitted.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, () -> breaker.call(() -> {
+                throw new IllegalStateException("down");
+            }));
+            assertTrue(breaker.isOpen());
+
+            release.countDown();
+            assertEquals("late", late.get(5, TimeUnit.SECONDS));
+            assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
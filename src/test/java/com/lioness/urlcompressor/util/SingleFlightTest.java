@@ -0,0 +1,124 @@
+package com.lioness.urlcompressor.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 🐘 Concurrent loads of one key run the loader once and all callers get its value
+     */
+    @Test
+    void load_shouldCoalesceConcurrentCallers() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.load("abc", () -> {
+            calls.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "value";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            waiters.add(executor.submit(() -> flight.load("abc", () -> {
+                calls.incrementAndGet();
+                return "other";
+            })));
+        }
+        // Let the waiters reach the in-flight future before the load completes
+        Thread.sleep(200);
+        release.countDown();
+
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> waiter : waiters) {
+            assertEquals("value", waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(7.0, meterRegistry.get("cache.loads.coalesced").counter().count());
+    }
+
+    /**
+     * ⏱️ Waiters stop waiting after the timeout and fail, without running the loader themselves
+     */
+    @Test
+    void load_shouldFailWaitersAfterTimeoutWithoutLoadingAgain() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofMillis(50), meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.load("abc", () -> {
+            calls.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "slow";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            waiters.add(executor.submit(() -> flight.load("abc", () -> {
+                calls.incrementAndGet();
+                return "fast";
+            })));
+        }
+        for (Future<String> waiter : waiters) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(QueryTimeoutException.class, e.getCause());
+        }
+        assertEquals(7.0, meterRegistry.get("cache.loads.coalesce.timeouts").counter().count());
+
+        release.countDown();
+        assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * 💥 A failed load is rethrown, and the next caller starts a fresh load
+     */
+    @Test
+    void load_shouldNotKeepFailures() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofSeconds(1), meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> flight.load("abc", () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals("value", flight.load("abc", () -> "value"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}